@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.core.manipulation.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression.Operator;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import org.eclipse.jdt.internal.core.manipulation.Messages;
+import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
+import org.eclipse.jdt.internal.corext.dom.Bindings;
+
+/**
+ * Table of the names in a compilation unit AST, grouped by the name of the binding they refer to.
+ * <p>
+ * The table is built with a single traversal of the AST and then answers the same queries as
+ * {@link OccurrencesFinder} without walking the tree again: looking up the occurrences of a
+ * binding is a hash lookup followed by a check of the few names that refer to a binding with the
+ * same name. Targets for which {@link OccurrencesFinder} has to inspect method invocations (static
+ * methods, which may be imported statically) are delegated to a new finder.
+ * </p>
+ * <p>
+ * The table does not modify the AST and can be built and queried from any thread.
+ * </p>
+ *
+ * @since 1.10
+ */
+public class OccurrencesTable {
+
+	private static final IBinding[] NO_BINDINGS= new IBinding[0];
+
+	private static final class Entry {
+		final Name fNode;
+		/** The declaration of the binding the name refers to */
+		final IBinding fBinding;
+		/** The declaration of the written variable, or <code>null</code> if the name is not written */
+		final IBinding fWrittenBinding;
+		/** Bindings of enclosing names that hide this name when they are the target */
+		final IBinding[] fHidingBindings;
+
+		Entry(Name node, IBinding binding, IBinding writtenBinding, IBinding[] hidingBindings) {
+			fNode= node;
+			fBinding= binding;
+			fWrittenBinding= writtenBinding;
+			fHidingBindings= hidingBindings;
+		}
+
+		boolean matches(IBinding target) {
+			if (!Bindings.equals(fBinding, target))
+				return false;
+			for (int i= 0; i < fHidingBindings.length; i++) {
+				if (Bindings.equals(fHidingBindings[i], target))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Records the names that {@link OccurrencesFinder} would test against its target, following
+	 * the same traversal rules. A qualified name that matches the target is reported instead of
+	 * its segments; this is represented by the hiding bindings of the segments.
+	 */
+	private class TableBuilder extends ASTVisitor {
+
+		private final Map<Name, IBinding> fWrites= new HashMap<>();
+		private final List<IBinding> fHiding= new ArrayList<>();
+
+		TableBuilder() {
+			super(true);
+		}
+
+		@Override
+		public boolean visit(QualifiedName node) {
+			IBinding binding= node.resolveBinding();
+			if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+				SimpleName name= node.getName();
+				IBinding declaration= addUsage(name, name.resolveBinding());
+				fHiding.add(declaration);
+				return true;
+			}
+			if (binding instanceof IMethodBinding && isStaticImport(node)) {
+				// only static methods can match, and these are answered by OccurrencesFinder
+				fHiding.add(null);
+				return true;
+			}
+			fHiding.add(addUsage(node, binding));
+			return true;
+		}
+
+		@Override
+		public void endVisit(QualifiedName node) {
+			fHiding.remove(fHiding.size() - 1);
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			addUsage(node, node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(ClassInstanceCreation node) {
+			Type type= node.getType();
+			if (type instanceof ParameterizedType) {
+				type= ((ParameterizedType) type).getType();
+			}
+			if (type instanceof SimpleType) {
+				Name name= ((SimpleType) type).getName();
+				if (name instanceof QualifiedName)
+					name= ((QualifiedName) name).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			} else if (type instanceof NameQualifiedType) {
+				Name name= ((NameQualifiedType) type).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			SimpleName name= getSimpleName(node.getLeftHandSide());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			if (node.getParent() instanceof FieldDeclaration || node.getInitializer() != null)
+				addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			PrefixExpression.Operator operator= node.getOperator();
+			if (operator == Operator.INCREMENT || operator == Operator.DECREMENT) {
+				SimpleName name= getSimpleName(node.getOperand());
+				if (name != null)
+					addWrite(name, name.resolveBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			SimpleName name= getSimpleName(node.getOperand());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		private void addWrite(Name node, IBinding binding) {
+			if (binding != null)
+				fWrites.put(node, getBindingDeclaration(binding));
+		}
+
+		/*
+		 * Returns the declaration of the binding, or null if the name has no binding.
+		 */
+		private IBinding addUsage(Name node, IBinding binding) {
+			if (binding == null)
+				return null;
+			IBinding declaration= getBindingDeclaration(binding);
+			IBinding[] hiding= NO_BINDINGS;
+			if (!fHiding.isEmpty()) {
+				List<IBinding> nonNull= new ArrayList<>(fHiding.size());
+				for (IBinding hidingBinding : fHiding) {
+					if (hidingBinding != null)
+						nonNull.add(hidingBinding);
+				}
+				if (!nonNull.isEmpty())
+					hiding= nonNull.toArray(new IBinding[nonNull.size()]);
+			}
+			String name= declaration.getName();
+			List<Entry> entries= fEntries.get(name);
+			if (entries == null) {
+				entries= new ArrayList<>(4);
+				fEntries.put(name, entries);
+			}
+			entries.add(new Entry(node, declaration, fWrites.remove(node), hiding));
+			return declaration;
+		}
+	}
+
+	private final CompilationUnit fRoot;
+	/** Entries in traversal order, keyed by binding name; <code>null</code> until built */
+	private Map<String, List<Entry>> fEntries;
+
+	/**
+	 * Creates a table for the given AST. The table is built on first use, or by calling
+	 * {@link #build()}.
+	 *
+	 * @param root the AST, must have been created with bindings
+	 */
+	public OccurrencesTable(CompilationUnit root) {
+		fRoot= root;
+	}
+
+	/**
+	 * Returns the AST this table was built for.
+	 *
+	 * @return the compilation unit AST
+	 */
+	public CompilationUnit getASTRoot() {
+		return fRoot;
+	}
+
+	/**
+	 * Builds the table, unless this has already happened.
+	 */
+	public synchronized void build() {
+		if (fEntries == null) {
+			fEntries= new HashMap<>();
+			fRoot.accept(new TableBuilder());
+		}
+	}
+
+	/**
+	 * Returns the occurrences of the binding of the given name, as reported by an
+	 * {@link OccurrencesFinder} initialized with that name.
+	 *
+	 * @param selectedNode the selected name in the AST of this table
+	 * @return the occurrences, or <code>null</code> if the name has no binding or there are
+	 *         no occurrences
+	 */
+	public OccurrenceLocation[] getOccurrences(Name selectedNode) {
+		IBinding target= selectedNode.resolveBinding();
+		if (target == null)
+			return null;
+		target= getBindingDeclaration(target);
+		if (target instanceof IMethodBinding && (Modifier.isStatic(target.getModifiers()) || isStaticImport(selectedNode.getParent()))) {
+			OccurrencesFinder finder= new OccurrencesFinder();
+			if (finder.initialize(fRoot, selectedNode) != null)
+				return null;
+			return finder.getOccurrences();
+		}
+
+		List<Entry> entries;
+		synchronized (this) {
+			build();
+			entries= fEntries.get(target.getName());
+		}
+		if (entries == null)
+			return null;
+
+		String elementName= BasicElementLabels.getJavaElementName(target.getName());
+		String readDescription= Messages.format(SearchMessages.OccurrencesFinder_occurrence_description, elementName);
+		String writeDescription= Messages.format(SearchMessages.OccurrencesFinder_occurrence_write_description, elementName);
+		boolean isVariable= target instanceof IVariableBinding;
+		List<OccurrenceLocation> result= new ArrayList<>();
+		for (int i= 0; i < entries.size(); i++) {
+			Entry entry= entries.get(i);
+			if (!entry.matches(target))
+				continue;
+			int flag= 0;
+			String description= readDescription;
+			if (isVariable) {
+				boolean isWrite= entry.fWrittenBinding != null && Bindings.equals(entry.fWrittenBinding, target);
+				flag= isWrite ? IOccurrencesFinder.F_WRITE_OCCURRENCE : IOccurrencesFinder.F_READ_OCCURRENCE;
+				if (isWrite)
+					description= writeDescription;
+			}
+			Name node= entry.fNode;
+			result.add(new OccurrenceLocation(node.getStartPosition(), node.getLength(), flag, description));
+		}
+		if (result.isEmpty())
+			return null;
+		return result.toArray(new OccurrenceLocation[result.size()]);
+	}
+
+	private static boolean isStaticImport(ASTNode node) {
+		if (!(node instanceof QualifiedName))
+			return false;
+
+		ASTNode parent= ((QualifiedName) node).getParent();
+		return parent instanceof ImportDeclaration && ((ImportDeclaration) parent).isStatic();
+	}
+
+	private static SimpleName getSimpleName(Expression expression) {
+		if (expression instanceof SimpleName)
+			return ((SimpleName) expression);
+		else if (expression instanceof QualifiedName)
+			return (((QualifiedName) expression).getName());
+		else if (expression instanceof FieldAccess)
+			return ((FieldAccess) expression).getName();
+		return null;
+	}
+
+	private static IBinding getBindingDeclaration(IBinding binding) {
+		switch (binding.getKind()) {
+			case IBinding.TYPE:
+				return ((ITypeBinding) binding).getTypeDeclaration();
+			case IBinding.METHOD:
+				return ((IMethodBinding) binding).getMethodDeclaration();
+			case IBinding.VARIABLE:
+				return ((IVariableBinding) binding).getVariableDeclaration();
+			default:
+				return binding;
+		}
+	}
+}
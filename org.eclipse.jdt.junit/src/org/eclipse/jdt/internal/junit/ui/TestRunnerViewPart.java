@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1299,6 +1299,16 @@ public class TestRunnerViewPart extends ViewPart {
 		updateNextPreviousActions();
 
 		fTestViewer.processChangesInUI();
+		if (fUpdateJob == null && fTestViewer.hasPendingChanges()) {
+			// no more periodic updates: process the remaining changes in later frames
+			getDisplay().asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					if (!isDisposed())
+						processChangesInUI();
+				}
+			});
+		}
 	}
 
 	private void updateNextPreviousActions() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,44 +12,142 @@
 package org.eclipse.jdt.internal.junit.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 
 import org.eclipse.jdt.junit.model.ITestElement;
 
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
 
 import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
 import org.eclipse.jdt.internal.junit.model.TestRoot;
 import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
 
+/**
+ * Lazy content provider for the flat layout. The viewer's table must be {@link org.eclipse.swt.SWT#VIRTUAL},
+ * so that table items are only created and labeled for the rows that are shown.
+ * <p>
+ * Since filters of the viewer are not applied to lazy content, the filter is managed by this
+ * provider (see {@link #setFilter(ViewerFilter)}).
+ * </p>
+ */
+public class TestSessionTableContentProvider implements ILazyContentProvider {
 
-public class TestSessionTableContentProvider implements IStructuredContentProvider {
+	private TableViewer fViewer;
+	private ViewerFilter fFilter;
+	private List<TestElement> fElements= new ArrayList<>();
+	private HashMap<TestElement, Integer> fIndices;
 
 	@Override
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		fViewer= (TableViewer) viewer;
+		fElements= new ArrayList<>();
+		fIndices= null;
+		if (newInput != null)
+			addAll((TestRoot) newInput);
+		fViewer.setItemCount(fElements.size());
 	}
 
-	@Override
-	public Object[] getElements(Object inputElement) {
-		ArrayList<ITestElement> all= new ArrayList<>();
-		addAll(all, (TestRoot) inputElement);
-		return all.toArray();
-	}
-
-	private void addAll(ArrayList<ITestElement> all, TestSuiteElement suite) {
+	private void addAll(TestSuiteElement suite) {
 		ITestElement[] children= suite.getChildren();
 		for (ITestElement element : children) {
 			if (element instanceof TestSuiteElement) {
 				if (((TestSuiteElement) element).getSuiteStatus().isErrorOrFailure())
-					all.add(element); // add failed suite to flat list too
-				addAll(all, (TestSuiteElement) element);
+					addIfSelected(suite, (TestElement) element); // add failed suite to flat list too
+				addAll((TestSuiteElement) element);
 			} else if (element instanceof TestCaseElement) {
-				all.add(element);
+				addIfSelected(suite, (TestElement) element);
 			}
 		}
 	}
 
+	private void addIfSelected(TestSuiteElement parent, TestElement element) {
+		if (fFilter == null || fFilter.select(fViewer, parent, element))
+			fElements.add(element);
+	}
+
+	@Override
+	public void updateElement(int index) {
+		if (index < fElements.size())
+			fViewer.replace(fElements.get(index), index);
+	}
+
+	/**
+	 * Sets the filter to apply to the elements. Takes effect when the input is set the next time.
+	 *
+	 * @param filter the filter, or <code>null</code> to show all elements
+	 */
+	public void setFilter(ViewerFilter filter) {
+		fFilter= filter;
+	}
+
+	/**
+	 * @param element the element to find
+	 * @return the index of the row showing the element, or <code>-1</code> if the element is not shown
+	 */
+	public int indexOf(TestElement element) {
+		if (fIndices == null) {
+			fIndices= new HashMap<>();
+			for (int i= 0; i < fElements.size(); i++)
+				fIndices.put(fElements.get(i), Integer.valueOf(i));
+		}
+		Integer index= fIndices.get(element);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * Inserts an element into the shown elements.
+	 *
+	 * @param element the element to insert
+	 * @param index the index of the new row, or <code>-1</code> to append it
+	 */
+	public void insert(TestElement element, int index) {
+		boolean append= index == -1 || index >= fElements.size();
+		if (append) {
+			index= fElements.size();
+			fElements.add(element);
+		} else {
+			fElements.add(index, element);
+		}
+		updateIndices(index);
+		fViewer.setItemCount(fElements.size());
+		if (! append)
+			fViewer.refresh();
+	}
+
+	/**
+	 * Removes an element from the shown elements.
+	 *
+	 * @param element the element to remove
+	 */
+	public void remove(TestElement element) {
+		int index= indexOf(element);
+		if (index == -1)
+			return;
+		fElements.remove(index);
+		fIndices.remove(element);
+		updateIndices(index);
+		fViewer.setItemCount(fElements.size());
+		fViewer.refresh();
+	}
+
+	/*
+	 * Updates the indices of the rows from the given index on, if they have been computed.
+	 */
+	private void updateIndices(int start) {
+		if (fIndices == null)
+			return;
+		for (int i= start; i < fElements.size(); i++)
+			fIndices.put(fElements.get(i), Integer.valueOf(i));
+	}
+
 	@Override
 	public void dispose() {
+		fElements= new ArrayList<>();
+		fIndices= null;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ package org.eclipse.jdt.internal.junit.ui;
 
 import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -34,7 +35,6 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Menu;
-import org.eclipse.swt.widgets.TableItem;
 
 import org.eclipse.core.runtime.CoreException;
 
@@ -110,6 +110,12 @@ public class TestViewer {
 	}
 	
 	private final class IgnoredOnlyFilter extends ViewerFilter {
+		/**
+		 * Results of {@link #hasIgnoredInTestResult(TestElement)} for suites, valid until the next
+		 * {@link #reset()}. Avoids walking a suite's subtree again for each of its descendants.
+		 */
+		private final HashMap<TestSuiteElement, Boolean> fSuitesWithIgnored= new HashMap<>();
+
 		@Override
 		public boolean select(Viewer viewer, Object parentElement, Object element) {
 			return select(((TestElement) element));
@@ -133,18 +139,33 @@ public class TestViewer {
 		 */
 		private boolean hasIgnoredInTestResult(TestElement testElement) {
 			if (testElement instanceof TestSuiteElement) {
-				ITestElement[] children= ((TestSuiteElement) testElement).getChildren();
+				TestSuiteElement testSuiteElement= (TestSuiteElement) testElement;
+				Boolean cached= fSuitesWithIgnored.get(testSuiteElement);
+				if (cached != null)
+					return cached.booleanValue();
+
+				boolean result= false;
+				ITestElement[] children= testSuiteElement.getChildren();
 				for (ITestElement child : children) {
 					boolean hasIgnoredTestResult= hasIgnoredInTestResult((TestElement) child);
 					if (hasIgnoredTestResult) {
-						return true;
+						result= true;
+						break;
 					}
 				}
-				return false;
+				fSuitesWithIgnored.put(testSuiteElement, Boolean.valueOf(result));
+				return result;
 			}
 
 			return testElement.getTestResult(false) == Result.IGNORED;
 		}
+
+		/**
+		 * Forgets the results computed so far. To be called whenever test results may have changed.
+		 */
+		public void reset() {
+			fSuitesWithIgnored.clear();
+		}
 	}
 
 
@@ -178,6 +199,17 @@ public class TestViewer {
 	private final FailuresOnlyFilter fFailuresOnlyFilter= new FailuresOnlyFilter();
 	private final IgnoredOnlyFilter fIgnoredOnlyFilter= new IgnoredOnlyFilter();
 
+	/**
+	 * Maximum time in milliseconds that {@link #processChangesInUI()} spends on updating the
+	 * viewers. Remaining changes are processed in the next call.
+	 */
+	private static final long FRAME_BUDGET= TestRunnerViewPart.REFRESH_INTERVAL / 4;
+
+	/**
+	 * Number of elements updated between two checks of the {@link #FRAME_BUDGET}.
+	 */
+	private static final int UPDATE_CHUNK_SIZE= 256;
+
 	private final TestRunnerViewPart fTestRunnerPart;
 	private final Clipboard fClipboard;
 
@@ -198,7 +230,8 @@ public class TestViewer {
 
 	private boolean fTreeNeedsRefresh;
 	private boolean fTableNeedsRefresh;
-	private HashSet<TestElement> fNeedUpdate;
+	private LinkedHashSet<TestElement> fNeedUpdate;
+	private LinkedHashSet<TestElement> fNeedAdd;
 	private TestCaseElement fAutoScrollTarget;
 
 	private LinkedList<TestSuiteElement> fAutoClose;
@@ -228,7 +261,7 @@ public class TestViewer {
 		fTreeLabelProvider= new TestSessionLabelProvider(fTestRunnerPart, TestRunnerViewPart.LAYOUT_HIERARCHICAL);
 		fTreeViewer.setLabelProvider(new ColoringLabelProvider(fTreeLabelProvider));
 
-		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE);
+		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE | SWT.VIRTUAL);
 		fTableViewer.setUseHashlookup(true);
 		fTableContentProvider= new TestSessionTableContentProvider();
 		fTableViewer.setContentProvider(fTableContentProvider);
@@ -498,11 +531,11 @@ public class TestViewer {
 				selection= (IStructuredSelection) fSelectionProvider.getSelection();
 				if (layoutMode == TestRunnerViewPart.LAYOUT_HIERARCHICAL) {
 					if (fTreeNeedsRefresh) {
-						clearUpdateAndExpansion();
+						clearPendingChanges(true);
 					}
 				} else {
 					if (fTableNeedsRefresh) {
-						clearUpdateAndExpansion();
+						clearPendingChanges(false);
 					}
 				}
 				fLayoutMode= layoutMode;
@@ -513,8 +546,7 @@ public class TestViewer {
 			if (failuresOnly || ignoredOnly) {
 				if (getActiveViewerHasFilter()) {
 					//For simplicity clear both filters (only one of them is used)
-					viewer.removeFilter(fFailuresOnlyFilter);
-					viewer.removeFilter(fIgnoredOnlyFilter);
+					removeFilters(viewer);
 				}
 				setActiveViewerHasFilter(true);
 				viewer.setInput(null);
@@ -523,7 +555,8 @@ public class TestViewer {
 				if (ignoredOnly == true) {
 					filter= fIgnoredOnlyFilter;
 				}
-				viewer.addFilter(filter);
+				fIgnoredOnlyFilter.reset();
+				addFilter(viewer, filter);
 				setActiveViewerNeedsRefresh(true);
 
 			} else {
@@ -531,8 +564,7 @@ public class TestViewer {
 					setActiveViewerNeedsRefresh(true);
 					setActiveViewerHasFilter(false);
 					viewer.setInput(null);
-					viewer.removeFilter(fIgnoredOnlyFilter);
-					viewer.removeFilter(fFailuresOnlyFilter);
+					removeFilters(viewer);
 				}
 			}
 			processChangesInUI();
@@ -549,6 +581,25 @@ public class TestViewer {
 		}
 	}
 
+	/*
+	 * The table's content is lazy, so its filter is applied by the content provider.
+	 */
+	private void addFilter(StructuredViewer viewer, ViewerFilter filter) {
+		if (viewer == fTableViewer)
+			fTableContentProvider.setFilter(filter);
+		else
+			viewer.addFilter(filter);
+	}
+
+	private void removeFilters(StructuredViewer viewer) {
+		if (viewer == fTableViewer) {
+			fTableContentProvider.setFilter(null);
+		} else {
+			viewer.removeFilter(fIgnoredOnlyFilter);
+			viewer.removeFilter(fFailuresOnlyFilter);
+		}
+	}
+
 	private boolean getActiveViewerHasFilter() {
 		if (fLayoutMode == TestRunnerViewPart.LAYOUT_HIERARCHICAL)
 			return fTreeHasFilter;
@@ -586,6 +637,9 @@ public class TestViewer {
 
 	/**
 	 * To be called periodically by the TestRunnerViewPart (in the UI thread).
+	 * <p>
+	 * Spends at most {@link #FRAME_BUDGET} on updating the viewers; see {@link #hasPendingChanges()}.
+	 * </p>
 	 */
 	public void processChangesInUI() {
 		TestRoot testRoot;
@@ -600,46 +654,101 @@ public class TestViewer {
 
 		testRoot= fTestRunSession.getTestRoot();
 
+		fIgnoredOnlyFilter.reset();
 		StructuredViewer viewer= getActiveViewer();
 		if (getActiveViewerNeedsRefresh()) {
-			clearUpdateAndExpansion();
+			clearPendingChanges(fLayoutMode == TestRunnerViewPart.LAYOUT_HIERARCHICAL);
 			setActiveViewerNeedsRefresh(false);
 			viewer.setInput(testRoot);
 
 		} else {
-			Object[] toUpdate;
+			TestElement[] toAdd;
+			TestElement[] toUpdate;
 			synchronized (this) {
-				toUpdate= fNeedUpdate.toArray();
+				toAdd= fNeedAdd.toArray(new TestElement[fNeedAdd.size()]);
+				fNeedAdd.clear();
+				toUpdate= fNeedUpdate.toArray(new TestElement[fNeedUpdate.size()]);
 				fNeedUpdate.clear();
 			}
-			if (! fTreeNeedsRefresh && toUpdate.length > 0) {
-				if (fTreeHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTree((TestElement) element);
-				else {
-					HashSet<Object> toUpdateWithParents= new HashSet<>();
-					toUpdateWithParents.addAll(Arrays.asList(toUpdate));
-					for (Object element : toUpdate) {
-						TestElement parent= ((TestElement) element).getParent();
-						while (parent != null) {
-							toUpdateWithParents.add(parent);
-							parent= parent.getParent();
-						}
-					}
-					fTreeViewer.update(toUpdateWithParents.toArray(), null);
-				}
+			long deadline= System.currentTimeMillis() + FRAME_BUDGET;
+			int added= 0;
+			while (added < toAdd.length && System.currentTimeMillis() < deadline) {
+				int end= Math.min(added + UPDATE_CHUNK_SIZE, toAdd.length);
+				addElements(toAdd, added, end);
+				added= end;
 			}
-			if (! fTableNeedsRefresh && toUpdate.length > 0) {
-				if (fTableHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTable((TestElement) element);
-				else
-					fTableViewer.update(toUpdate, null);
+			int updated= 0;
+			if (added == toAdd.length) {
+				while (updated < toUpdate.length && System.currentTimeMillis() < deadline) {
+					int end= Math.min(updated + UPDATE_CHUNK_SIZE, toUpdate.length);
+					updateElements(toUpdate, updated, end);
+					updated= end;
+				}
 			}
+			if (added < toAdd.length || updated < toUpdate.length)
+				requeue(toAdd, added, toUpdate, updated);
 		}
 		autoScrollInUI();
 	}
 
+	private void addElements(TestElement[] toAdd, int start, int end) {
+		if (fTreeNeedsRefresh)
+			return;
+		for (int i= start; i < end; i++) {
+			TestElement element= toAdd[i];
+			if (fTreeHasFilter)
+				updateElementInTree(element);
+			else
+				fTreeViewer.add(element.getParent(), element);
+		}
+	}
+
+	private void updateElements(TestElement[] toUpdate, int start, int end) {
+		if (! fTreeNeedsRefresh) {
+			if (fTreeHasFilter)
+				for (int i= start; i < end; i++)
+					updateElementInTree(toUpdate[i]);
+			else {
+				HashSet<Object> toUpdateWithParents= new HashSet<>();
+				for (int i= start; i < end; i++) {
+					TestElement parent= toUpdate[i];
+					while (parent != null && toUpdateWithParents.add(parent)) {
+						parent= parent.getParent();
+					}
+				}
+				fTreeViewer.update(toUpdateWithParents.toArray(), null);
+			}
+		}
+		if (! fTableNeedsRefresh) {
+			if (fTableHasFilter)
+				for (int i= start; i < end; i++)
+					updateElementInTable(toUpdate[i]);
+			else
+				fTableViewer.update(Arrays.copyOfRange(toUpdate, start, end), null);
+		}
+	}
+
+	/*
+	 * Puts back the changes that did not fit into the frame budget, ahead of the ones that
+	 * have been registered in the meantime.
+	 */
+	private synchronized void requeue(TestElement[] toAdd, int added, TestElement[] toUpdate, int updated) {
+		LinkedHashSet<TestElement> needAdd= new LinkedHashSet<>(Arrays.asList(toAdd).subList(added, toAdd.length));
+		needAdd.addAll(fNeedAdd);
+		fNeedAdd= needAdd;
+		LinkedHashSet<TestElement> needUpdate= new LinkedHashSet<>(Arrays.asList(toUpdate).subList(updated, toUpdate.length));
+		needUpdate.addAll(fNeedUpdate);
+		fNeedUpdate= needUpdate;
+	}
+
+	/**
+	 * @return <code>true</code> iff changes have been registered that have not been processed
+	 *         by {@link #processChangesInUI()} yet
+	 */
+	public synchronized boolean hasPendingChanges() {
+		return ! fNeedAdd.isEmpty() || ! fNeedUpdate.isEmpty();
+	}
+
 	private void updateElementInTree(final TestElement testElement) {
 		if (isShown(testElement)) {
 			updateShownElementInTree(testElement);
@@ -674,20 +783,20 @@ public class TestViewer {
 
 	private void updateElementInTable(TestElement element) {
 		if (isShown(element)) {
-			if (fTableViewer.testFindItem(element) == null) {
+			if (fTableContentProvider.indexOf(element) == -1) {
 				TestElement previous= getNextFailure(element, false);
 				int insertionIndex= -1;
 				if (previous != null) {
-					TableItem item= (TableItem) fTableViewer.testFindItem(previous);
-					if (item != null)
-						insertionIndex= fTableViewer.getTable().indexOf(item);
+					int previousIndex= fTableContentProvider.indexOf(previous);
+					if (previousIndex != -1)
+						insertionIndex= previousIndex + 1;
 				}
-				fTableViewer.insert(element, insertionIndex);
+				fTableContentProvider.insert(element, insertionIndex);
 			} else  {
 				fTableViewer.update(element, null);
 			}
 		} else {
-			fTableViewer.remove(element);
+			fTableContentProvider.remove(element);
 		}
 	}
 
@@ -703,8 +812,12 @@ public class TestViewer {
 		}
 
 		if (fLayoutMode == TestRunnerViewPart.LAYOUT_FLAT) {
-			if (fAutoScrollTarget != null)
-				fTableViewer.reveal(fAutoScrollTarget);
+			if (fAutoScrollTarget != null) {
+				// the target's row may not have been materialized, so reveal it by index
+				int index= fTableContentProvider.indexOf(fAutoScrollTarget);
+				if (index != -1)
+					fTableViewer.getTable().showItem(fTableViewer.getTable().getItem(index));
+			}
 			return;
 		}
 
@@ -826,8 +939,23 @@ public class TestViewer {
 		clearUpdateAndExpansion();
 	}
 
+	/*
+	 * Drops the pending changes because one viewer is refreshed. The other viewer is refreshed
+	 * later if it has not seen all of them.
+	 */
+	private synchronized void clearPendingChanges(boolean treeRefreshed) {
+		if (! fNeedAdd.isEmpty() || ! fNeedUpdate.isEmpty()) {
+			if (treeRefreshed)
+				fTableNeedsRefresh= true;
+			else
+				fTreeNeedsRefresh= true;
+		}
+		clearUpdateAndExpansion();
+	}
+
 	private void clearUpdateAndExpansion() {
 		fNeedUpdate= new LinkedHashSet<>();
+		fNeedAdd= new LinkedHashSet<>();
 		fAutoClose= new LinkedList<>();
 		fAutoExpand= new HashSet<>();
 	}
@@ -836,8 +964,10 @@ public class TestViewer {
 	 * @param testElement the added test
 	 */
 	public synchronized void registerTestAdded(TestElement testElement) {
-		//TODO: performance: would only need to refresh parent of added element
-		fTreeNeedsRefresh= true;
+		// the tree only needs to add the element to its parent,
+		// but the element's row in the flat layout is not known without walking the session
+		if (! fTreeNeedsRefresh)
+			fNeedAdd.add(testElement);
 		fTableNeedsRefresh= true;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
@@ -25,6 +30,13 @@ import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.core.filebuffers.tests.ResourceHelper;
 
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.AnnotationModelEvent;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelListener;
+import org.eclipse.jface.text.source.IAnnotationModelListenerExtension;
+
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.part.FileEditorInput;
 
@@ -33,16 +45,46 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.ICompilationUnitDocumentProvider;
+import org.eclipse.jdt.internal.ui.javaeditor.IJavaAnnotation;
+import org.eclipse.jdt.internal.ui.text.spelling.CoreSpellingProblem;
+import org.eclipse.jdt.internal.ui.text.spelling.JavaSpellingReconcileStrategy;
 
 
 public class CompilationUnitDocumentProviderTest extends TestCase {
 
+	/**
+	 * Records the spelling annotations added to and removed from an annotation model.
+	 */
+	private static class SpellingAnnotationRecorder implements IAnnotationModelListener, IAnnotationModelListenerExtension {
+
+		final List<Annotation> fAdded= new ArrayList<>();
+		final List<Annotation> fRemoved= new ArrayList<>();
+
+		@Override
+		public void modelChanged(IAnnotationModel model) {
+		}
+
+		@Override
+		public void modelChanged(AnnotationModelEvent event) {
+			addSpellingAnnotations(event.getAddedAnnotations(), fAdded);
+			addSpellingAnnotations(event.getRemovedAnnotations(), fRemoved);
+		}
+
+		private static void addSpellingAnnotations(Annotation[] annotations, List<Annotation> result) {
+			for (int i= 0; i < annotations.length; i++) {
+				if (isSpellingAnnotation(annotations[i]))
+					result.add(annotations[i]);
+			}
+		}
+	}
+
 	private IJavaProject fJavaProject;
 	private IProject fLinkedProject;
 
@@ -123,6 +165,87 @@ public class CompilationUnitDocumentProviderTest extends TestCase {
 		assertEquals(source, cu.getSource());
 	}
 
+	public void testUnchangedSpellingAnnotationsKept() throws Exception {
+		setupProject();
+		IFile file= ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/P/src/testA/testB/A.java"));
+		IEditorInput input= new FileEditorInput(file);
+		ICompilationUnitDocumentProvider provider= JavaPlugin.getDefault().getCompilationUnitDocumentProvider();
+		provider.connect(input);
+		try {
+			IDocument document= provider.getDocument(input);
+			IAnnotationModel model= provider.getAnnotationModel(input);
+			IProblemRequestor requestor= (IProblemRequestor) model;
+
+			reportSpellingProblems(requestor, document, new String[] { "class", "void" });
+			List<Annotation> annotations= getSpellingAnnotations(model);
+			assertEquals(2, annotations.size());
+			Annotation classAnnotation= findSpellingAnnotation(model, document, "class");
+			Annotation voidAnnotation= findSpellingAnnotation(model, document, "void");
+			assertNotNull(classAnnotation);
+			assertNotNull(voidAnnotation);
+
+			SpellingAnnotationRecorder recorder= new SpellingAnnotationRecorder();
+			model.addAnnotationModelListener(recorder);
+			try {
+				// reporting the same problems again keeps all annotations
+				reportSpellingProblems(requestor, document, new String[] { "class", "void" });
+				assertTrue(recorder.fAdded.isEmpty());
+				assertTrue(recorder.fRemoved.isEmpty());
+				assertEquals(new HashSet<>(annotations), new HashSet<>(getSpellingAnnotations(model)));
+
+				// only the annotations of changed problems are replaced
+				reportSpellingProblems(requestor, document, new String[] { "class", "public" });
+				assertEquals(1, recorder.fAdded.size());
+				assertEquals(1, recorder.fRemoved.size());
+				assertSame(voidAnnotation, recorder.fRemoved.get(0));
+				assertSame(classAnnotation, findSpellingAnnotation(model, document, "class"));
+				assertSame(recorder.fAdded.get(0), findSpellingAnnotation(model, document, "public"));
+				assertNull(findSpellingAnnotation(model, document, "void"));
+			} finally {
+				model.removeAnnotationModelListener(recorder);
+			}
+		} finally {
+			provider.disconnect(input);
+		}
+	}
+
+	private static void reportSpellingProblems(IProblemRequestor requestor, IDocument document, String[] words) throws Exception {
+		requestor.beginReporting();
+		try {
+			for (int i= 0; i < words.length; i++) {
+				int offset= document.get().indexOf(words[i]);
+				int line= document.getLineOfOffset(offset) + 1;
+				requestor.acceptProblem(new CoreSpellingProblem(offset, offset + words[i].length() - 1, line, "Spelling: " + words[i], words[i], false, false, document, "A.java"));
+			}
+		} finally {
+			requestor.endReporting();
+		}
+	}
+
+	private static List<Annotation> getSpellingAnnotations(IAnnotationModel model) {
+		List<Annotation> result= new ArrayList<>();
+		for (Iterator<Annotation> iter= model.getAnnotationIterator(); iter.hasNext();) {
+			Annotation annotation= iter.next();
+			if (isSpellingAnnotation(annotation))
+				result.add(annotation);
+		}
+		return result;
+	}
+
+	private static Annotation findSpellingAnnotation(IAnnotationModel model, IDocument document, String word) {
+		int offset= document.get().indexOf(word);
+		for (Iterator<Annotation> iter= getSpellingAnnotations(model).iterator(); iter.hasNext();) {
+			Annotation annotation= iter.next();
+			if (model.getPosition(annotation).getOffset() == offset)
+				return annotation;
+		}
+		return null;
+	}
+
+	private static boolean isSpellingAnnotation(Annotation annotation) {
+		return annotation instanceof IJavaAnnotation && ((IJavaAnnotation) annotation).getId() == JavaSpellingReconcileStrategy.SPELLING_PROBLEM_ID;
+	}
+
 	private void checkFile(IFile file) throws CoreException {
 		assertNotNull(file);
 		IEditorInput input= new FileEditorInput(file);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1142,4 +1142,51 @@ public class JavaHeuristicScannerTest extends TestCase {
 		String indent= fScanner.computeIndentation(offset).toString();
 		assertEquals("\t", indent);
 	}
+
+	public void testBulkModeFindOpeningPeer() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("class A {\n");
+		buf.append("	void foo(int[] a) {\n");
+		buf.append("		if (a[0] > 0) { // }\n");
+		buf.append("			bar(\"(\", '{', a[(1)]);\n");
+		buf.append("		} /* ] */\n");
+		buf.append("	}\n");
+		buf.append("	} ) \n");
+		buf.append("	List<Map<String, int[]>> fList;\n");
+		buf.append("}\n");
+		fDocument.set(buf.toString());
+
+		JavaHeuristicScanner bulkScanner= new JavaHeuristicScanner(fDocument);
+		bulkScanner.setBulkMode(true);
+		try {
+			assertSameOpeningPeers(bulkScanner);
+
+			fDocument.replace(fDocument.get().indexOf("bar"), 0, "{(");
+			assertSameOpeningPeers(bulkScanner);
+
+			fDocument.replace(fDocument.get().indexOf("if"), 0, "/* */ {");
+			assertSameOpeningPeers(bulkScanner);
+
+			fDocument.replace(fDocument.get().indexOf("List"), 0, "/*");
+			assertSameOpeningPeers(bulkScanner);
+		} finally {
+			bulkScanner.setBulkMode(false);
+		}
+	}
+
+	private void assertSameOpeningPeers(JavaHeuristicScanner bulkScanner) {
+		JavaHeuristicScanner scanner= new JavaHeuristicScanner(fDocument);
+		String[] peers= { "{}", "()", "[]", "<>" };
+		for (int i= 0; i < peers.length; i++) {
+			char open= peers[i].charAt(0);
+			char close= peers[i].charAt(1);
+			for (int offset= fDocument.getLength() - 1; offset >= 0; offset--) {
+				int expected= scanner.findOpeningPeer(offset, open, close);
+				assertEquals("offset " + offset, expected, bulkScanner.findOpeningPeer(offset, open, close));
+				int bound= offset / 2;
+				expected= scanner.findOpeningPeer(offset, bound, open, close);
+				assertEquals("offset " + offset, expected, bulkScanner.findOpeningPeer(offset, bound, open, close));
+			}
+		}
+	}
 }
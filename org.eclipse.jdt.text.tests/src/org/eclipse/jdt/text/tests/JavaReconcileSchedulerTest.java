@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.ui.texteditor.AbstractTextEditor;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.internal.ui.text.JavaReconcileScheduler;
+import org.eclipse.jdt.internal.ui.text.JavaReconciler;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests how the {@link JavaReconcileScheduler} coalesces the reconciles forced by Java editors.
+ *
+ * @since 3.14
+ */
+public class JavaReconcileSchedulerTest extends TestCase {
+
+	private AbstractTextEditor fEditor;
+	private JavaReconciler fReconciler;
+	private IJavaProject fOtherProject;
+	private IPackageFragmentRoot fOtherSourceFolder;
+	private ICompilationUnit fCreatedUnit;
+
+	public static Test setUpTest(Test someTest) {
+		return new JUnitProjectTestSetup(someTest);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(JavaReconcileSchedulerTest.class));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IFile file= ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/" + JUnitProjectTestSetup.getProject().getElementName() + "/src/junit/framework/TestCase.java"));
+		fEditor= (AbstractTextEditor) EditorTestHelper.openInEditor(file, true);
+		fReconciler= (JavaReconciler) EditorTestHelper.getReconciler(EditorTestHelper.getSourceViewer(fEditor));
+		assertNotNull(fReconciler);
+
+		fOtherProject= JavaProjectHelper.createJavaProject("Other_" + System.currentTimeMillis(), "bin");
+		fOtherSourceFolder= JavaProjectHelper.addSourceContainer(fOtherProject, "src");
+		EditorTestHelper.joinBackgroundActivities(fEditor);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		if (fCreatedUnit != null)
+			JavaProjectHelper.delete(fCreatedUnit);
+		JavaProjectHelper.delete(fOtherProject);
+	}
+
+	public void testRequestsCoalesced() throws Exception {
+		JavaReconcileScheduler scheduler= JavaReconcileScheduler.getDefault();
+		int coalesced= scheduler.getCoalescedCount();
+		int forced= scheduler.getForcedCount();
+
+		for (int i= 0; i < 5; i++)
+			scheduler.schedule(fReconciler);
+		assertEquals(coalesced + 4, scheduler.getCoalescedCount());
+
+		long timeOut= System.currentTimeMillis() + 10000;
+		while (scheduler.getForcedCount() == forced && System.currentTimeMillis() < timeOut)
+			EditorTestHelper.runEventQueue(100);
+		assertEquals(forced + 1, scheduler.getForcedCount());
+	}
+
+	public void testUnaffectedEditorSkipped() throws Exception {
+		JavaReconcileScheduler scheduler= JavaReconcileScheduler.getDefault();
+		setJavaModelChanged(false);
+		int scheduled= scheduler.getScheduledCount();
+		int skipped= scheduler.getSkippedCount();
+
+		// the other project is not on the classpath of the edited unit
+		IPackageFragment pack= fOtherSourceFolder.createPackageFragment("other", false, null);
+		pack.createCompilationUnit("B.java", "package other;\npublic class B {}\n", true, null);
+
+		assertEquals(scheduled, scheduler.getScheduledCount());
+		assertTrue(scheduler.getSkippedCount() > skipped);
+		assertFalse(hasJavaModelChanged());
+	}
+
+	public void testAffectedEditorNotSkipped() throws Exception {
+		setJavaModelChanged(false);
+
+		IJavaProject project= JUnitProjectTestSetup.getProject();
+		IPackageFragment pack= project.getPackageFragmentRoot(project.getProject().getFolder("src")).getPackageFragment("junit.framework");
+		fCreatedUnit= pack.createCompilationUnit("Added.java", "package junit.framework;\npublic class Added {}\n", true, null);
+
+		assertTrue(hasJavaModelChanged());
+	}
+
+	private void setJavaModelChanged(boolean changed) {
+		new Accessor(fReconciler, JavaReconciler.class).invoke("setJavaModelChanged", new Class[] { boolean.class }, new Object[] { Boolean.valueOf(changed) });
+	}
+
+	private boolean hasJavaModelChanged() {
+		return ((Boolean) new Accessor(fReconciler, JavaReconciler.class).invoke("hasJavaModelChanged", new Object[0])).booleanValue();
+	}
+}
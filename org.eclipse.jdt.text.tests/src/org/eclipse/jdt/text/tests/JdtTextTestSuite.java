@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,6 +64,7 @@ public class JdtTextTestSuite {
 		suite.addTest(ArrayWithTempVarForLoopJavaContextTest.suite());
 		suite.addTest(JavaDoubleClickSelectorTest.suite());
 		suite.addTest(BreakContinueTargetFinderTest.suite());
+		suite.addTest(JavaReconcileSchedulerTest.suite());
 		suite.addTest(ContentAssistTestSuite.suite());
 		suite.addTest(IndentActionTest.suite());
 		suite.addTest(TemplatesTestSuite.suite());
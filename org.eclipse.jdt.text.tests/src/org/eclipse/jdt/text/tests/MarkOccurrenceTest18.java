@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 IBM Corporation and others.
+ * Copyright (c) 2011, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
 
@@ -21,7 +23,11 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.tests.core.Java18ProjectTestSetup;
@@ -31,6 +37,8 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.ui.search.ExceptionOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesTable;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -256,4 +264,71 @@ public class MarkOccurrenceTest18 extends TestCase {
 		checkSelection(buf, offset, length, ranges);
 	}
 
+	public void testOccurrencesTable() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("\n");
+		buf.append("import static java.lang.Math.max;\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("import java.util.function.Function;\n");
+		buf.append("\n");
+		buf.append("public class E<T> {\n");
+		buf.append("    static int COUNT= 0;\n");
+		buf.append("    int fValue;\n");
+		buf.append("    E<T> fNext;\n");
+		buf.append("    E(int value) {\n");
+		buf.append("        this.fValue= value;\n");
+		buf.append("        E.COUNT++;\n");
+		buf.append("    }\n");
+		buf.append("    int sum(List<T> list) {\n");
+		buf.append("        int s= 0;\n");
+		buf.append("        for (T t : list) {\n");
+		buf.append("            s+= t.hashCode();\n");
+		buf.append("        }\n");
+		buf.append("        fNext= new E<T>(s);\n");
+		buf.append("        fNext.fValue= max(s, fNext.fValue);\n");
+		buf.append("        Function<Integer, Integer> f= i -> i + fValue + test1.E.COUNT;\n");
+		buf.append("        return f.apply(Integer.valueOf(s)) + new ArrayList<T>(list).size();\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+
+		CompilationUnit root= createCompilationUnit(buf);
+		final List<Name> names= new ArrayList<>();
+		root.accept(new ASTVisitor(true) {
+			@Override
+			public boolean visit(SimpleName node) {
+				names.add(node);
+				return true;
+			}
+			@Override
+			public boolean visit(QualifiedName node) {
+				names.add(node);
+				return true;
+			}
+		});
+
+		OccurrencesTable table= new OccurrencesTable(root);
+		for (Name name : names) {
+			OccurrencesFinder finder= new OccurrencesFinder();
+			OccurrenceLocation[] expected= finder.initialize(root, name) == null ? finder.getOccurrences() : null;
+			OccurrenceLocation[] actual= table.getOccurrences(name);
+			String message= name.getFullyQualifiedName() + " at " + name.getStartPosition();
+			if (expected == null) {
+				assertNull(message, actual);
+				continue;
+			}
+			assertNotNull(message, actual);
+			assertEquals(message, expected.length, actual.length);
+			sortByStartIndex(expected);
+			sortByStartIndex(actual);
+			for (int i= 0; i < expected.length; i++) {
+				assertEquals(message, expected[i].getOffset(), actual[i].getOffset());
+				assertEquals(message, expected[i].getLength(), actual[i].getLength());
+				assertEquals(message, expected[i].getFlags(), actual[i].getFlags());
+				assertEquals(message, expected[i].getDescription(), actual[i].getDescription());
+			}
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -110,6 +110,31 @@ public class PartitionTokenScannerTest extends TestCase {
 		testConformance(getDocument("TestCase2.txt", "\r"));
 	}
 
+	public void testLargeDocumentCRLF() {
+		// tokens span the boundaries of the scanner's read buffer
+		String contents= getDocument("TestCase.txt", "\r\n").get();
+		StringBuffer buffer= new StringBuffer();
+		for (int i= 0; i < 50; i++)
+			buffer.append(contents);
+		testConformance(new Document(buffer.toString()));
+	}
+
+	public void testPartialRange() {
+		IDocument document= getDocument("TestCase2.txt", "\n");
+		int offset= document.getLength() / 3;
+		fReference.setRange(document, offset, document.getLength() / 2);
+		fTestee.setRange(document, offset, document.getLength() / 2);
+
+		IToken refToken= null;
+		while (refToken == null || !refToken.isEOF()) {
+			refToken= fReference.nextToken();
+			IToken testeeToken= fTestee.nextToken();
+			assertTokenEquals(refToken, testeeToken);
+			assertEquals(fReference.getTokenOffset(), fTestee.getTokenOffset());
+			assertEquals(fReference.getTokenLength(), fTestee.getTokenLength());
+		}
+	}
+
 //	XXX not fully passing because of "\<LF> and '\<LF>
 //	public void testRandom() {
 //		testConformance(getRandomDocument(2048));
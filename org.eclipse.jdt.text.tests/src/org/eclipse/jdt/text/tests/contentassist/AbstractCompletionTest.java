@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -219,6 +219,23 @@ public class AbstractCompletionTest extends TestCase {
 		assertProposal(selector, contents, preSelection, result, expectedSelection);
 	}
 
+	/**
+	 * Creates a CU with a method containing <code>before</code>, opens it in an editor and runs
+	 * code assist. The editor is closed in {@link #tearDown()}.
+	 *
+	 * @param before the contents of the method body before code completion is run
+	 * @return the computed proposals
+	 * @throws CoreException if the CU cannot be created or opened
+	 * @since 3.14
+	 */
+	protected ICompletionProposal[] computeMethodBodyProposals(String before) throws CoreException {
+		StringBuffer contents= new StringBuffer();
+		IRegion preSelection= assembleMethodBodyTestCUExtractSelection(contents, before, fBeforeImports);
+		fCU= createCU(getAnonymousTestPackage(), contents.toString());
+		fEditor= (JavaEditor) EditorUtility.openInEditor(fCU);
+		return collectProposals(preSelection);
+	}
+
 	/**
 	 * Creates a CU with a method containing <code>before</code>, then runs incremental code assist
 	 * and asserts that the method's body now has the content of <code>expected</code>.
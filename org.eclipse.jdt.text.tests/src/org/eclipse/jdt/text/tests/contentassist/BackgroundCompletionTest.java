@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tests that categories whose computers do not require the UI thread are computed in the
+ * background, see {@link BackgroundProposalComputer}.
+ *
+ * @since 3.14
+ */
+public class BackgroundCompletionTest extends AbstractCompletionTest {
+	private static final Class<BackgroundCompletionTest> THIS= BackgroundCompletionTest.class;
+
+	public static Test setUpTest(Test test) {
+		return new CompletionTestSetup(test);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS, suiteName(THIS)));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		BackgroundProposalComputer.enable();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		BackgroundProposalComputer.disable();
+		super.tearDown();
+	}
+
+	public void testComputedInBackground() throws Exception {
+		assertMethodBodyProposal("|", BackgroundProposalComputer.PROPOSAL, BackgroundProposalComputer.PROPOSAL + "|");
+		Thread thread= BackgroundProposalComputer.getComputationThread();
+		assertNotNull(thread);
+		assertNotSame(Display.getDefault().getThread(), thread);
+	}
+
+	public void testComputedConcurrently() throws Exception {
+		assertMethodBodyProposal("|", BackgroundProposalComputer.PROPOSAL, BackgroundProposalComputer.PROPOSAL + "|");
+		assertTrue(UIThreadProposalComputer.sawBackgroundComputation());
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.IContextInformation;
+
+import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
+import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
+
+import org.eclipse.jdt.internal.ui.text.java.JavaCompletionProposal;
+
+/**
+ * Computer contributed with <code>requiresUIThread="false"</code>. It only proposes something
+ * while it is enabled by {@link BackgroundCompletionTest}.
+ *
+ * @since 3.14
+ */
+public class BackgroundProposalComputer implements IJavaCompletionProposalComputer {
+
+	static final String PROPOSAL= "backgroundProposal";
+
+	private static volatile boolean fgEnabled;
+	private static volatile Thread fgThread;
+	private static volatile CountDownLatch fgStarted= new CountDownLatch(1);
+
+	static void enable() {
+		fgThread= null;
+		fgStarted= new CountDownLatch(1);
+		fgEnabled= true;
+	}
+
+	static void disable() {
+		fgEnabled= false;
+	}
+
+	static boolean isEnabled() {
+		return fgEnabled;
+	}
+
+	/**
+	 * @return the thread of the last computation, or <code>null</code>
+	 */
+	static Thread getComputationThread() {
+		return fgThread;
+	}
+
+	/**
+	 * @return the latch that is released when a computation starts
+	 */
+	static CountDownLatch getStarted() {
+		return fgStarted;
+	}
+
+	@Override
+	public List<ICompletionProposal> computeCompletionProposals(ContentAssistInvocationContext context, IProgressMonitor monitor) {
+		if (!fgEnabled)
+			return Collections.emptyList();
+		fgThread= Thread.currentThread();
+		fgStarted.countDown();
+		ICompletionProposal proposal= new JavaCompletionProposal(PROPOSAL, context.getInvocationOffset(), 0, null, PROPOSAL, 0);
+		return Collections.singletonList(proposal);
+	}
+
+	@Override
+	public List<IContextInformation> computeContextInformation(ContentAssistInvocationContext context, IProgressMonitor monitor) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public String getErrorMessage() {
+		return null;
+	}
+
+	@Override
+	public void sessionStarted() {
+	}
+
+	@Override
+	public void sessionEnded() {
+	}
+}
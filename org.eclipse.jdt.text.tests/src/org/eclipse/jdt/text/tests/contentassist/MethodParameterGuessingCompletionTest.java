@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,8 +13,17 @@ package org.eclipse.jdt.text.tests.contentassist;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+
+import org.eclipse.jdt.core.CompletionContext;
+
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.text.java.ParameterGuesser;
+import org.eclipse.jdt.internal.ui.text.java.ParameterGuessingProposal;
+
 /**
  *
  * @since 3.2
@@ -68,4 +77,45 @@ public class MethodParameterGuessingCompletionTest extends AbstractCompletionTes
 		assertMethodBodyProposal("fList.|bar", "add(int", "fList.add(|foo|, obj);");
 	}
 
+	public void testProposalsShareVisibleVariables() throws Exception {
+		ICompletionProposal[] proposals= computeMethodBodyProposals("fList.");
+		ParameterGuessingProposal addObject= findParameterGuessingProposal(proposals, "add(O");
+		ParameterGuessingProposal addIntObject= findParameterGuessingProposal(proposals, "add(int");
+
+		CompletionContext context= getCoreContext(addObject);
+		assertSame(context, getCoreContext(addIntObject));
+
+		addObject.getReplacementString();
+		Object visibleVariables= getVisibleVariables(context);
+		addIntObject.getReplacementString();
+		assertSame(visibleVariables, getVisibleVariables(context));
+
+		// the guesses are ranked as without sharing
+		assertEquals("obj", getChoices(addObject)[0][0].getDisplayString());
+		ICompletionProposal[][] choices= getChoices(addIntObject);
+		assertEquals("foo", choices[0][0].getDisplayString());
+		assertEquals("obj", choices[1][0].getDisplayString());
+	}
+
+	private static ParameterGuessingProposal findParameterGuessingProposal(ICompletionProposal[] proposals, String prefix) {
+		for (int i= 0; i < proposals.length; i++) {
+			if (proposals[i] instanceof ParameterGuessingProposal && proposals[i].getDisplayString().startsWith(prefix))
+				return (ParameterGuessingProposal) proposals[i];
+		}
+		fail("no parameter guessing proposal starting with \"" + prefix + "\"");
+		return null;
+	}
+
+	private static CompletionContext getCoreContext(ParameterGuessingProposal proposal) {
+		return (CompletionContext) new Accessor(proposal, ParameterGuessingProposal.class).get("fCoreContext");
+	}
+
+	private static ICompletionProposal[][] getChoices(ParameterGuessingProposal proposal) {
+		return (ICompletionProposal[][]) new Accessor(proposal, ParameterGuessingProposal.class).get("fChoices");
+	}
+
+	private static Object getVisibleVariables(CompletionContext context) {
+		Accessor accessor= new Accessor(null, ParameterGuesser.class.getName() + "$VisibleVariables", ParameterGuesser.class.getClassLoader());
+		return accessor.invoke("get", new Class[] { CompletionContext.class }, new Object[] { context });
+	}
 }
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.IContextInformation;
+
+import org.eclipse.jdt.ui.text.java.ContentAssistInvocationContext;
+import org.eclipse.jdt.ui.text.java.IJavaCompletionProposalComputer;
+
+/**
+ * Computer contributed without <code>requiresUIThread</code>. While {@link BackgroundProposalComputer}
+ * is enabled, it waits for the background computation to start, which only happens if both are
+ * computed at the same time.
+ *
+ * @since 3.14
+ */
+public class UIThreadProposalComputer implements IJavaCompletionProposalComputer {
+
+	private static volatile boolean fgSawBackgroundComputation;
+
+	/**
+	 * @return <code>true</code> if the last computation saw the background computation running
+	 */
+	static boolean sawBackgroundComputation() {
+		return fgSawBackgroundComputation;
+	}
+
+	@Override
+	public List<ICompletionProposal> computeCompletionProposals(ContentAssistInvocationContext context, IProgressMonitor monitor) {
+		fgSawBackgroundComputation= false;
+		if (!BackgroundProposalComputer.isEnabled())
+			return Collections.emptyList();
+		try {
+			fgSawBackgroundComputation= BackgroundProposalComputer.getStarted().await(2, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<IContextInformation> computeContextInformation(ContentAssistInvocationContext context, IProgressMonitor monitor) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public String getErrorMessage() {
+		return null;
+	}
+
+	@Override
+	public void sessionStarted() {
+	}
+
+	@Override
+	public void sessionEnded() {
+	}
+}
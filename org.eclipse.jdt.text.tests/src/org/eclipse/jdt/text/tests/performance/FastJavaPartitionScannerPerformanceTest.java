@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import junit.framework.Test;
+
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.rules.FastPartitioner;
+import org.eclipse.jface.text.rules.IToken;
+
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.text.FastJavaPartitionScanner;
+
+
+/**
+ * Performance tests for {@link FastJavaPartitionScanner}.
+ *
+ * @since 3.14
+ */
+public class FastJavaPartitionScannerPerformanceTest extends TextPerformanceTestCase2 {
+
+	private static final int MEMBERS_IN_DOCUMENT= 20000;
+
+	private static final String MEMBER=
+			"	/**\n" +
+			"	 * Returns the value of the field.\n" +
+			"	 *\n" +
+			"	 * @return the value, or <code>null</code>\n" +
+			"	 */\n" +
+			"	public String getValue() {\n" +
+			"		// answer the cached value\n" +
+			"		if (fValue == null)\n" +
+			"			fValue= computeValue(\"default\", '\\'', 42); /* inline */\n" +
+			"		return fValue;\n" +
+			"	}\n" +
+			"\n";
+
+	private static final String[] TYPES= new String[] {
+			IJavaPartitions.JAVA_DOC,
+			IJavaPartitions.JAVA_MULTI_LINE_COMMENT,
+			IJavaPartitions.JAVA_SINGLE_LINE_COMMENT,
+			IJavaPartitions.JAVA_STRING,
+			IJavaPartitions.JAVA_CHARACTER
+	};
+
+
+	public static Test suite() {
+		return new PerfTestSuite(FastJavaPartitionScannerPerformanceTest.class);
+	}
+
+
+	private Document fDocument;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		StringBuffer sb= new StringBuffer("public class Test {\n");
+		for (int i= 0; i < MEMBERS_IN_DOCUMENT; i++)
+			sb.append(MEMBER);
+		sb.append("}\n");
+		fDocument= new Document(sb.toString());
+	}
+
+	public void measureScanDocument(PerformanceMeter meter) {
+		FastJavaPartitionScanner scanner= new FastJavaPartitionScanner();
+		scanner.setRange(fDocument, 0, fDocument.getLength());
+
+		meter.start();
+		IToken token;
+		do {
+			token= scanner.nextToken();
+		} while (!token.isEOF());
+		meter.stop();
+	}
+
+	public void measureRepartitionAfterEdit(PerformanceMeter meter) throws BadLocationException {
+		IDocument document= new Document(fDocument.get());
+		FastPartitioner partitioner= new FastPartitioner(new FastJavaPartitionScanner(), TYPES);
+		partitioner.connect(document);
+		document.setDocumentPartitioner(partitioner);
+		int offset= document.getLength() / 2;
+
+		meter.start();
+		for (int i= 0; i < 100; i++) {
+			document.replace(offset, 0, "/*");
+			document.replace(offset, 2, "");
+		}
+		meter.stop();
+
+		partitioner.disconnect();
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Region;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.ui.texteditor.AbstractTextEditor;
+import org.eclipse.ui.texteditor.spelling.SpellingService;
+
+import org.eclipse.ui.editors.text.EditorsUI;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.internal.ui.text.spelling.JavaSpellingReconcileStrategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the per partition cache of the {@link JavaSpellingReconcileStrategy}.
+ *
+ * @since 3.14
+ */
+public class JavaSpellingReconcileStrategyTest extends TestCase {
+
+	private static final String DEFAULT_SPELLING_ENGINE_ID= "org.eclipse.jdt.internal.ui.text.spelling.DefaultSpellingEngine";
+
+	private IJavaProject fJavaProject;
+	private AbstractTextEditor fEditor;
+	private IDocument fDocument;
+	private JavaSpellingReconcileStrategy fStrategy;
+	private String fSpellingEnabled;
+	private String fSpellingEngine;
+
+	public static Test suite() {
+		return new TestSuite(JavaSpellingReconcileStrategyTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IPreferenceStore store= EditorsUI.getPreferenceStore();
+		fSpellingEnabled= store.getString(SpellingService.PREFERENCE_SPELLING_ENABLED);
+		fSpellingEngine= store.getString(SpellingService.PREFERENCE_SPELLING_ENGINE);
+		store.setValue(SpellingService.PREFERENCE_SPELLING_ENABLED, true);
+		store.setValue(SpellingService.PREFERENCE_SPELLING_ENGINE, DEFAULT_SPELLING_ENGINE_ID);
+
+		fJavaProject= JavaProjectHelper.createJavaProject("P", "bin");
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJavaProject, "src");
+		IPackageFragment pack= root.createPackageFragment("test", true, null);
+		ICompilationUnit cu= pack.createCompilationUnit("A.java",
+				"package test;\n/**\n * Thiss is a javadoc commment.\n */\npublic class A {\n\t// a lien comment\n\t/* a blokc comment */\n}\n", true, null);
+
+		fEditor= (AbstractTextEditor) EditorTestHelper.openInEditor((IFile) cu.getResource(), true);
+		fDocument= EditorTestHelper.getDocument(fEditor);
+		fStrategy= new JavaSpellingReconcileStrategy(EditorTestHelper.getSourceViewer(fEditor), fEditor);
+		fStrategy.setDocument(fDocument);
+		EditorTestHelper.joinBackgroundActivities(fEditor);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		if (fJavaProject != null)
+			JavaProjectHelper.delete(fJavaProject);
+
+		IPreferenceStore store= EditorsUI.getPreferenceStore();
+		store.setValue(SpellingService.PREFERENCE_SPELLING_ENABLED, fSpellingEnabled);
+		store.setValue(SpellingService.PREFERENCE_SPELLING_ENGINE, fSpellingEngine);
+	}
+
+	public void testPartitionsCached() throws Exception {
+		reconcile();
+		Map<String, List<?>> cache= getPartitionProblems();
+		assertEquals(3, cache.size());
+		assertNotNull(findKey(cache, "commment"));
+		assertNotNull(findKey(cache, "lien"));
+		assertNotNull(findKey(cache, "blokc"));
+	}
+
+	public void testUnchangedPartitionsReused() throws Exception {
+		reconcile();
+		Map<String, List<?>> cache= getPartitionProblems();
+		List<?> javadocProblems= cache.get(findKey(cache, "commment"));
+		List<?> lineProblems= cache.get(findKey(cache, "lien"));
+
+		reconcile();
+		cache= getPartitionProblems();
+		assertEquals(3, cache.size());
+		assertSame(javadocProblems, cache.get(findKey(cache, "commment")));
+		assertSame(lineProblems, cache.get(findKey(cache, "lien")));
+	}
+
+	public void testCacheInvalidatedAfterEdit() throws Exception {
+		reconcile();
+		Map<String, List<?>> cache= getPartitionProblems();
+		List<?> javadocProblems= cache.get(findKey(cache, "commment"));
+		List<?> blockProblems= cache.get(findKey(cache, "blokc"));
+
+		int offset= fDocument.get().indexOf("lien");
+		fDocument.replace(offset, "lien".length(), "liine");
+		reconcile();
+
+		cache= getPartitionProblems();
+		assertEquals(3, cache.size());
+		assertNull(findKey(cache, "lien"));
+		assertNotNull(findKey(cache, "liine"));
+		// partitions that did not change are not checked again, even if their offset moved
+		assertSame(javadocProblems, cache.get(findKey(cache, "commment")));
+		assertSame(blockProblems, cache.get(findKey(cache, "blokc")));
+	}
+
+	public void testCacheClearedWithNewDocument() throws Exception {
+		reconcile();
+		assertFalse(getPartitionProblems().isEmpty());
+
+		fStrategy.setDocument(fDocument);
+		assertTrue(getPartitionProblems().isEmpty());
+	}
+
+	private void reconcile() {
+		fStrategy.reconcile(new Region(0, fDocument.getLength()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, List<?>> getPartitionProblems() {
+		return (Map<String, List<?>>) new Accessor(fStrategy, JavaSpellingReconcileStrategy.class).get("fPartitionProblems");
+	}
+
+	private static String findKey(Map<String, List<?>> cache, String word) {
+		for (String key : cache.keySet()) {
+			if (key.indexOf(word) != -1)
+				return key;
+		}
+		return null;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.AbstractSpellDictionary;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultPhoneticDistanceAlgorithm;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckEngine;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
@@ -166,6 +167,23 @@ public class SpellCheckEngineTestCase extends TestCase {
 		assertFalse(checker.isCorrect(LORRY));
 	}
 
+	public void testModificationCount() {
+		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, Locale.US.toString());
+		final ISpellChecker checker= fEngine.getSpellChecker();
+		assertTrue(checker instanceof DefaultSpellChecker);
+
+		DefaultSpellChecker defaultChecker= (DefaultSpellChecker) checker;
+		int count= defaultChecker.getModificationCount();
+		assertTrue(checker.isCorrect(TRUCK));
+		assertEquals(count, defaultChecker.getModificationCount());
+
+		checker.ignoreWord(LORRY);
+		assertTrue(count != defaultChecker.getModificationCount());
+		count= defaultChecker.getModificationCount();
+		checker.checkWord(LORRY);
+		assertTrue(count != defaultChecker.getModificationCount());
+	}
+
 	public void testUKSpellChecker() {
 		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, Locale.UK.toString());
 		final ISpellChecker checker= fEngine.getSpellChecker();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,8 +53,10 @@ import org.eclipse.jdt.internal.corext.refactoring.reorg.IReorgDestination;
 import org.eclipse.jdt.internal.corext.refactoring.reorg.IReorgPolicy.IMovePolicy;
 import org.eclipse.jdt.internal.corext.refactoring.reorg.IReorgQueries;
 import org.eclipse.jdt.internal.corext.refactoring.reorg.JavaMoveProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.reorg.MoveCuUpdateCreator;
 import org.eclipse.jdt.internal.corext.refactoring.reorg.ReorgDestinationFactory;
 import org.eclipse.jdt.internal.corext.refactoring.reorg.ReorgPolicyFactory;
+import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
 
 import org.eclipse.jdt.ui.tests.refactoring.ParticipantTesting;
 import org.eclipse.jdt.ui.tests.refactoring.RefactoringTest;
@@ -1817,6 +1819,72 @@ public class MoveTest extends RefactoringTest {
 		performRefactoring(ref, providesUndo);
 	}
 
+	private ICompilationUnit[] createCusForParallelMove(IPackageFragment refPackage) throws Exception {
+		// more moved units than MoveCuUpdateCreator updates on the calling thread
+		String[] names= { "A", "B", "C", "D", "E", "F" };
+		ICompilationUnit[] result= new ICompilationUnit[names.length];
+		for (int i= 0; i < names.length; i++) {
+			StringBuffer buf= new StringBuffer();
+			buf.append("package p;\n");
+			buf.append("public class " + names[i] + " {\n");
+			if (i + 1 < names.length)
+				buf.append("\t" + names[i + 1] + " next;\n");
+			if (i == 0)
+				buf.append("\tG g;\n");
+			buf.append("}\n");
+			result[i]= getPackageP().createCompilationUnit(names[i] + ".java", buf.toString(), false, new NullProgressMonitor());
+		}
+		getPackageP().createCompilationUnit("G.java", "package p;\npublic class G {\n\tA a;\n\tB b;\n}\n", false, new NullProgressMonitor());
+		refPackage.createCompilationUnit("Ref.java", "package q;\n\nimport p.C;\n\npublic class Ref {\n\tC c;\n\tp.D d;\n}\n", false, new NullProgressMonitor());
+		return result;
+	}
+
+	public void testDestination_yes_cusToOtherPackageInParallel() throws Exception {
+		IPackageFragment destination= getRoot().createPackageFragment("r", true, new NullProgressMonitor());
+		IPackageFragment refPackage= getRoot().createPackageFragment("q", true, new NullProgressMonitor());
+		ICompilationUnit[] cus= createCusForParallelMove(refPackage);
+
+		JavaMoveProcessor processor= verifyEnabled(new IResource[0], cus, createReorgQueries());
+		verifyValidDestination(processor, destination);
+		RefactoringStatus status= performRefactoring(processor, true);
+		assertEquals(null, status);
+
+		for (int i= 0; i < cus.length; i++) {
+			assertFalse(cus[i].exists());
+			assertTrue(destination.getCompilationUnit(cus[i].getElementName()).exists());
+		}
+		assertEqualLines("A differs", "package r;\n\nimport p.G;\n\npublic class A {\n\tB next;\n\tG g;\n}\n", destination.getCompilationUnit("A.java").getSource());
+		assertEqualLines("B differs", "package r;\npublic class B {\n\tC next;\n}\n", destination.getCompilationUnit("B.java").getSource());
+		assertEqualLines("G differs", "package p;\n\nimport r.A;\nimport r.B;\n\npublic class G {\n\tA a;\n\tB b;\n}\n", getPackageP().getCompilationUnit("G.java").getSource());
+		assertEqualLines("Ref differs", "package q;\n\nimport r.C;\n\npublic class Ref {\n\tC c;\n\tr.D d;\n}\n", refPackage.getCompilationUnit("Ref.java").getSource());
+	}
+
+	public void testParallelUpdatesMatchSequentialUpdates() throws Exception {
+		IPackageFragment destination= getRoot().createPackageFragment("r", true, new NullProgressMonitor());
+		IPackageFragment refPackage= getRoot().createPackageFragment("q", true, new NullProgressMonitor());
+		ICompilationUnit[] cus= createCusForParallelMove(refPackage);
+
+		RefactoringStatus parallelStatus= new RefactoringStatus();
+		TextChangeManager parallel= new MoveCuUpdateCreator(cus, destination).createChangeManager(new NullProgressMonitor(), parallelStatus);
+		RefactoringStatus sequentialStatus= new RefactoringStatus();
+		MoveCuUpdateCreator sequentialCreator= new MoveCuUpdateCreator(cus, destination);
+		sequentialCreator.setParallel(false);
+		TextChangeManager sequential= sequentialCreator.createChangeManager(new NullProgressMonitor(), sequentialStatus);
+
+		assertEquals(sequentialStatus.getSeverity(), parallelStatus.getSeverity());
+		assertEquals(sequentialStatus.getEntries().length, parallelStatus.getEntries().length);
+
+		ICompilationUnit[] units= sequential.getAllCompilationUnits();
+		assertEquals(units.length, parallel.getAllCompilationUnits().length);
+		assertTrue(units.length > 0);
+		for (int i= 0; i < units.length; i++) {
+			assertTrue(units[i].getElementName(), parallel.containsChangesIn(units[i]));
+			String expected= sequential.get(units[i]).getPreviewContent(new NullProgressMonitor());
+			String actual= parallel.get(units[i]).getPreviewContent(new NullProgressMonitor());
+			assertEqualLines(units[i].getElementName(), expected, actual);
+		}
+	}
+
 	private void compareContents(String cuName) throws JavaModelException, IOException {
 		assertEqualLines(cuName, getFileContents(getOutputTestFileName(cuName)), getPackageP().getCompilationUnit(cuName + ".java").getSource());
 	}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser.BatchStatistics;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class ASTBatchParserTest extends TestCase {
+
+	private static final Class<ASTBatchParserTest> THIS= ASTBatchParserTest.class;
+
+	private static final int MB= 1 << 20;
+
+	private IJavaProject fJProject1;
+	private IPackageFragmentRoot fSourceFolder;
+
+	public ASTBatchParserTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	public void testBatchSizeUnknownMemory() throws Exception {
+		assertEquals(100, computeBatchSize(100, -1, 1000L * MB, 100, 0));
+	}
+
+	public void testBatchSizeGrowsAtMostTwice() throws Exception {
+		assertEquals(200, computeBatchSize(100, 1000, 1000L * MB, 100, 0));
+	}
+
+	public void testBatchSizeFitsFreeMemory() throws Exception {
+		// half of the free heap
+		assertEquals(30, computeBatchSize(100, MB, 60L * MB, 100, 0));
+	}
+
+	public void testBatchSizeBounds() throws Exception {
+		assertEquals(10, computeBatchSize(100, MB, 2L * MB, 100, 0));
+		assertEquals(2000, computeBatchSize(1500, 1, 1000L * MB, 100, 0));
+	}
+
+	public void testBatchSizeShrinksOnGC() throws Exception {
+		assertEquals(50, computeBatchSize(100, 1000, 1000L * MB, 100, 50));
+		assertEquals(10, computeBatchSize(12, 1000, 1000L * MB, 100, 50));
+		// little garbage collection does not shrink the batch
+		assertEquals(200, computeBatchSize(100, 1000, 1000L * MB, 100, 10));
+	}
+
+	private static int computeBatchSize(int previous, long bytesPerUnit, long freeMemory, long time, long gcTime) {
+		Accessor accessor= new Accessor(null, ASTBatchParser.class);
+		Object size= accessor.invoke("computeBatchSize", new Class[] { int.class, long.class, long.class, long.class, long.class },
+				new Object[] { Integer.valueOf(previous), Long.valueOf(bytesPerUnit), Long.valueOf(freeMemory), Long.valueOf(time), Long.valueOf(gcTime) });
+		return ((Integer) size).intValue();
+	}
+
+	public void testAdaptiveCreatesAllASTs() throws Exception {
+		List<ICompilationUnit> units= new ArrayList<>();
+		for (int p= 0; p < 3; p++) {
+			IPackageFragment pack= fSourceFolder.createPackageFragment("pack" + p, false, null);
+			for (int i= 0; i < 20; i++) {
+				String name= "C" + i;
+				units.add(pack.createCompilationUnit(name + ".java", "package pack" + p + ";\npublic class " + name + " extends pack0.C0 {\n}\n", false, null));
+			}
+		}
+
+		final Set<ICompilationUnit> accepted= new HashSet<>();
+		final int[] acceptCount= new int[1];
+		ASTBatchParser parser= new ASTBatchParser(true);
+		parser.createASTs(units.toArray(new ICompilationUnit[units.size()]), new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				assertNotNull(ast);
+				accepted.add(source);
+				acceptCount[0]++;
+			}
+		}, null);
+
+		assertEquals(units.size(), acceptCount[0]);
+		assertEquals(new HashSet<>(units), accepted);
+
+		List<BatchStatistics> statistics= parser.getStatistics();
+		assertFalse(statistics.isEmpty());
+		int total= 0;
+		for (BatchStatistics batch : statistics) {
+			assertTrue(batch.getUnitCount() > 0);
+			assertTrue(batch.getTime() >= 0);
+			total+= batch.getUnitCount();
+		}
+		assertEquals(units.size(), total);
+	}
+
+	public void testFixedHasNoStatistics() throws Exception {
+		IPackageFragment pack= fSourceFolder.createPackageFragment("pack", false, null);
+		ICompilationUnit unit= pack.createCompilationUnit("A.java", "package pack;\npublic class A {\n}\n", false, null);
+
+		final int[] acceptCount= new int[1];
+		ASTBatchParser parser= new ASTBatchParser();
+		parser.createASTs(new ICompilationUnit[] { unit }, new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				acceptCount[0]++;
+			}
+		}, null);
+
+		assertEquals(1, acceptCount[0]);
+		assertTrue(parser.getStatistics().isEmpty());
+	}
+}
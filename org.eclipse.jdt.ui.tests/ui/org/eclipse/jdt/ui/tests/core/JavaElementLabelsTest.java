@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -540,6 +540,38 @@ public class JavaElementLabelsTest extends CoreTests {
 		assertEqualString(lab, "foo(int, String...)");
 	}
 
+	public void testLabelAfterChange() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changing {\n");
+		buf.append("    public int foo(int i) {\n");
+		buf.append("        return i;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Changing.java", content, false, null);
+
+		IJavaElement elem= cu.getElementAt(content.indexOf("foo"));
+		String lab= JavaElementLabels.getTextLabel(elem, JavaElementLabels.M_PARAMETER_NAMES | JavaElementLabels.M_APP_RETURNTYPE);
+		assertEqualString(lab, "foo(i) : int");
+
+		buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changing {\n");
+		buf.append("    public long foo(int j) {\n");
+		buf.append("        return j;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		cu.getBuffer().setContents(buf.toString());
+		cu.save(null, true);
+
+		lab= JavaElementLabels.getTextLabel(elem, JavaElementLabels.M_PARAMETER_NAMES | JavaElementLabels.M_APP_RETURNTYPE);
+		assertEqualString(lab, "foo(j) : long");
+	}
+
 	public void testMethodLabelVarargsReference0() throws Exception {
 		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
 		
@@ -23,6 +23,7 @@ import org.eclipse.jdt.testplugin.JavaTestPlugin;
 import org.eclipse.jdt.testplugin.StringAsserts;
 
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -38,6 +39,9 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 
+import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchIndex;
+
 
 
 public class TypeInfoTest extends TestCase {
@@ -229,4 +233,83 @@ public class TypeInfoTest extends TestCase {
 
 	}
 
+	public void testTypeNameMatchIndex() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("com.oti", true, null);
+		ICompilationUnit cu1= pack1.getCompilationUnit("V.java");
+		cu1.createType("public class V {\n static class VInner {\n}\n}\n", null, true, null);
+
+		TypeNameMatchIndex index= TypeNameMatchIndex.getInstance();
+		waitForIndex(index);
+
+		List<TypeNameMatch> result= searchIndex(index, "VI");
+		findTypeRef(result, "com.oti.V.VInner");
+		for (int i= 0; i < result.size(); i++) {
+			assertResolve(result.get(i));
+		}
+		assertEquals(0, searchIndex(index, "W<").size());
+
+		// incremental update
+		ICompilationUnit cu2= pack1.getCompilationUnit("W.java");
+		cu2.createType("public class W {\n}\n", null, true, null);
+		waitForIndex(index);
+		result= searchIndex(index, "W<");
+		assertEquals(1, result.size());
+		findTypeRef(result, "com.oti.W");
+
+		cu2.delete(true, null);
+		waitForIndex(index);
+		assertEquals(0, searchIndex(index, "W<").size());
+		assertEquals(1, searchIndex(index, "V<").size());
+	}
+
+	public void testTypeNameMatchIndexWorkingCopy() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("com.oti", true, null);
+		ICompilationUnit cu1= pack1.getCompilationUnit("V.java");
+		cu1.createType("public class V {\n static class VInner {\n}\n}\n", null, true, null);
+
+		TypeNameMatchIndex index= TypeNameMatchIndex.getInstance();
+		waitForIndex(index);
+		assertEquals(1, searchIndex(index, "VInner<").size());
+
+		cu1.becomeWorkingCopy(null);
+		try {
+			cu1.getBuffer().setContents("public class V {\n static class VOther {\n}\n}\n");
+			cu1.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			waitForIndex(index);
+			assertEquals(0, searchIndex(index, "VInner<").size());
+			findTypeRef(searchIndex(index, "VOther<"), "com.oti.V.VOther");
+		} finally {
+			cu1.discardWorkingCopy();
+		}
+
+		// discarding the primary working copy reverts to the types of the file
+		waitForIndex(index);
+		assertEquals(0, searchIndex(index, "VOther<").size());
+		findTypeRef(searchIndex(index, "VInner<"), "com.oti.V.VInner");
+		assertEquals(1, searchIndex(index, "V<").size());
+	}
+
+	private void waitForIndex(TypeNameMatchIndex index) throws InterruptedException {
+		for (int i= 0; i < 10 && !index.isUpToDate(); i++) {
+			Job.getJobManager().join(TypeNameMatchIndex.FAMILY, null);
+		}
+		assertTrue("index not up to date", index.isUpToDate());
+	}
+
+	private List<TypeNameMatch> searchIndex(TypeNameMatchIndex index, String pattern) {
+		TypeInfoFilter filter= new TypeInfoFilter(pattern, SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+		ArrayList<TypeNameMatch> candidates= new ArrayList<>();
+		assertTrue(index.searchTypeNames(filter, new TypeNameMatchCollector(candidates), null));
+
+		ArrayList<TypeNameMatch> result= new ArrayList<>();
+		for (int i= 0; i < candidates.size(); i++) {
+			TypeNameMatch match= candidates.get(i);
+			if (filter.matchesHistoryElement(match))
+				result.add(match);
+		}
+		return result;
+	}
+
 }
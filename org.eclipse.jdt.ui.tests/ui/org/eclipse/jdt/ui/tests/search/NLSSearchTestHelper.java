@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -105,12 +105,10 @@ public class NLSSearchTestHelper {
 		StringBuffer buf= new StringBuffer();
 		InputStream contents= entry.getContents();
 		try {
-			char ch= (char)contents.read();
-			int avilable= contents.available();
-			while (avilable > 0 && ch != -1) {
-				buf.append(ch);
-				ch= (char)contents.read();
-				avilable--;
+			int ch= contents.read();
+			while (ch != -1) {
+				buf.append((char)ch);
+				ch= contents.read();
 			}
 			return buf.toString();
 		} finally {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,25 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.search.ui.ISearchResultListener;
+import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.SearchResultEvent;
+import org.eclipse.search.ui.text.MatchEvent;
+
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+
+import org.eclipse.jdt.ui.search.ElementQuerySpecification;
+
+import org.eclipse.jdt.internal.ui.search.JavaSearchQuery;
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+import org.eclipse.jdt.internal.ui.search.JavaSearchScopeFactory;
+import org.eclipse.jdt.internal.ui.search.NewSearchResultCollector;
+
 /**
  */
 public class WorkspaceReferenceTest extends TestCase {
@@ -39,4 +58,40 @@ public class WorkspaceReferenceTest extends TestCase {
 	public void testFindOverridden() throws Exception {
 		assertEquals(6, SearchTestHelper.countMethodRefs("junit.framework.TestCase", "countTestCases", new String[0]));
 	}
+
+	public void testBatchedMatchEvents() throws Exception {
+		IMethod method= SearchTestHelper.getMethod("junit.framework.Test", "countTestCases", new String[0]);
+		JavaSearchQuery query= new JavaSearchQuery(new ElementQuerySpecification(method, IJavaSearchConstants.REFERENCES, JavaSearchScopeFactory.getInstance().createWorkspaceScope(true), "workspace scope"));
+		JavaSearchResult result= (JavaSearchResult) query.getSearchResult();
+		final int[] addEvents= new int[1];
+		final int[] addedMatches= new int[1];
+		result.addListener(new ISearchResultListener() {
+			@Override
+			public void searchResultChanged(SearchResultEvent e) {
+				if (e instanceof MatchEvent && ((MatchEvent) e).getKind() == MatchEvent.ADDED) {
+					addEvents[0]++;
+					addedMatches[0]+= ((MatchEvent) e).getMatches().length;
+				}
+			}
+		});
+		NewSearchUI.runQueryInForeground(null, query);
+		assertEquals(9, result.getMatchCount());
+		assertEquals(9, addedMatches[0]);
+		assertTrue(addEvents[0] < addedMatches[0]);
+	}
+
+	public void testPendingMatchesFlushed() throws Exception {
+		IMethod method= SearchTestHelper.getMethod("junit.framework.Test", "countTestCases", new String[0]);
+		JavaSearchQuery query= new JavaSearchQuery(new ElementQuerySpecification(method, IJavaSearchConstants.REFERENCES, JavaSearchScopeFactory.getInstance().createWorkspaceScope(true), "workspace scope"));
+		JavaSearchResult result= (JavaSearchResult) query.getSearchResult();
+		NewSearchResultCollector collector= new NewSearchResultCollector(result, false);
+		collector.beginReporting();
+		collector.acceptSearchMatch(new SearchMatch(method, SearchMatch.A_ACCURATE, 0, 1, SearchEngine.getDefaultSearchParticipant(), method.getResource()));
+
+		// no further match and no endReporting(): the pending match must be added by the flush job
+		Job.getJobManager().join(collector, null);
+		assertEquals(1, result.getMatchCount());
+		collector.endReporting();
+		assertEquals(1, result.getMatchCount());
+	}
 }
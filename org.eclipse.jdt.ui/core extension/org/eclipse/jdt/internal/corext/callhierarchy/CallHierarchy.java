@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -71,6 +71,7 @@ public class CallHierarchy {
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
 
         settings.setValue(PREF_USE_IMPLEMENTORS, enabled);
+        CallHierarchyCache.getDefault().clear();
     }
     
     public boolean isFilterTestCode() {
@@ -83,6 +84,7 @@ public class CallHierarchy {
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
 
         settings.setValue(PREF_FILTER_TESTCODE, enabled);
+        CallHierarchyCache.getDefault().clear();
     }
 
 
@@ -189,7 +191,10 @@ public class CallHierarchy {
     }
 
     public void setSearchScope(IJavaSearchScope searchScope) {
+        if (searchScope == fSearchScope)
+            return;
         this.fSearchScope = searchScope;
+        CallHierarchyCache.getDefault().clear();
     }
 
 	/**
@@ -221,6 +226,7 @@ public class CallHierarchy {
     public void setFilterEnabled(boolean filterEnabled) {
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
         settings.setValue(PREF_USE_FILTERS, filterEnabled);
+        CallHierarchyCache.getDefault().clear();
     }
 
     /**
@@ -238,6 +244,7 @@ public class CallHierarchy {
 
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
         settings.setValue(PREF_FILTERS_LIST, filters);
+        CallHierarchyCache.getDefault().clear();
     }
 
     /**
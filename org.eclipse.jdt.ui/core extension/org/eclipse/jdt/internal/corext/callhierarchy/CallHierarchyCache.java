@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Workspace-wide cache of the calls found for a member, shared by all call hierarchy roots.
+ * <p>
+ * Results are keyed by the kind of wrapper that computed them, the field search mode and the
+ * member's handle identifier. The cache is flushed on every Java element change and whenever a
+ * setting of {@link CallHierarchy} that influences the results changes. A reconcile of a primary
+ * working copy, which is visible to the search engine, removes the results of the members of
+ * that compilation unit and the results containing calls from or to it. If the content of the
+ * compilation unit changed, all caller results are removed as well, since the reconcile may have
+ * added calls to any member. The number of cached call entries is bounded; least recently used
+ * results are evicted first.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class CallHierarchyCache {
+
+	/**
+	 * Maximum number of {@link MethodCall}s kept in the cache, summed over all entries.
+	 */
+	private static final int MAX_CALLS= 20000;
+
+	private static CallHierarchyCache fgInstance;
+
+	private static final class Entry {
+		final IMember fMember;
+		final Map<String, MethodCall> fCalls;
+		final boolean fCallers;
+
+		Entry(IMember member, Map<String, MethodCall> calls, boolean callers) {
+			fMember= member;
+			fCalls= calls;
+			fCallers= callers;
+		}
+
+		boolean isAffectedBy(ICompilationUnit cu, boolean contentChanged) {
+			if (contentChanged && fCallers)
+				return true;
+			if (cu.equals(fMember.getCompilationUnit()))
+				return true;
+			for (Iterator<MethodCall> iter= fCalls.values().iterator(); iter.hasNext();) {
+				if (cu.equals(iter.next().getMember().getCompilationUnit()))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private final LinkedHashMap<String, Entry> fCalls;
+	private int fSize;
+	/**
+	 * Incremented whenever the cache is cleared, so that results of searches that were started
+	 * before a change are not stored afterwards.
+	 */
+	private int fGeneration;
+	private IElementChangedListener fListener;
+
+	private CallHierarchyCache() {
+		fCalls= new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	public static synchronized CallHierarchyCache getDefault() {
+		if (fgInstance == null)
+			fgInstance= new CallHierarchyCache();
+		return fgInstance;
+	}
+
+	/**
+	 * Returns a copy of the cached calls of the given wrapper.
+	 *
+	 * @param wrapper the method wrapper
+	 * @return a map from handle identifier to {@link MethodCall}, or <code>null</code> if the
+	 *         calls of the wrapper are not cached
+	 */
+	public synchronized Map<String, MethodCall> get(MethodWrapper wrapper) {
+		Entry entry= fCalls.get(getKey(wrapper));
+		if (entry == null)
+			return null;
+		return new HashMap<>(entry.fCalls);
+	}
+
+	/**
+	 * Tells whether the calls of the given wrapper are cached.
+	 *
+	 * @param wrapper the method wrapper
+	 * @return <code>true</code> iff the calls are cached
+	 */
+	public synchronized boolean contains(MethodWrapper wrapper) {
+		return fCalls.containsKey(getKey(wrapper));
+	}
+
+	/**
+	 * Returns the current generation of the cache. Must be called before starting the search
+	 * whose results are passed to {@link #put(MethodWrapper, Map, int)}.
+	 *
+	 * @return the generation
+	 */
+	public synchronized int getGeneration() {
+		return fGeneration;
+	}
+
+	/**
+	 * Stores the calls found for the given wrapper, unless the cache has been cleared since the
+	 * given generation.
+	 *
+	 * @param wrapper the method wrapper
+	 * @param calls a map from handle identifier to {@link MethodCall}; must not be modified afterwards
+	 * @param generation the generation of the cache when the search was started
+	 */
+	public synchronized void put(MethodWrapper wrapper, Map<String, MethodCall> calls, int generation) {
+		if (generation != fGeneration || calls.size() > MAX_CALLS)
+			return;
+		if (fListener == null) {
+			fListener= new IElementChangedListener() {
+				@Override
+				public void elementChanged(ElementChangedEvent event) {
+					if (event.getType() == ElementChangedEvent.POST_RECONCILE)
+						reconciled(event.getDelta());
+					else
+						clear();
+				}
+			};
+			JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+		Entry old= fCalls.put(getKey(wrapper), new Entry(wrapper.getMember(), Collections.unmodifiableMap(calls), wrapper instanceof CallerMethodWrapper));
+		if (old != null)
+			fSize-= old.fCalls.size();
+		fSize+= calls.size();
+
+		for (Iterator<Entry> iter= fCalls.values().iterator(); fSize > MAX_CALLS && iter.hasNext();) {
+			fSize-= iter.next().fCalls.size();
+			iter.remove();
+		}
+	}
+
+	/**
+	 * Removes the calls of the given wrapper from the cache.
+	 *
+	 * @param wrapper the method wrapper
+	 */
+	public synchronized void remove(MethodWrapper wrapper) {
+		Entry old= fCalls.remove(getKey(wrapper));
+		if (old != null)
+			fSize-= old.fCalls.size();
+	}
+
+	/**
+	 * Removes all cached calls.
+	 */
+	public synchronized void clear() {
+		fCalls.clear();
+		fSize= 0;
+		fGeneration++;
+	}
+
+	/*
+	 * Reconciles of working copies with another owner are not visible to the search engine.
+	 * Searches running during the reconcile may have seen the old content of the compilation
+	 * unit, so their results are not stored either. A content change can add calls from the
+	 * compilation unit to members declared anywhere, so every caller result may be stale.
+	 */
+	private synchronized void reconciled(IJavaElementDelta delta) {
+		if (!(delta.getElement() instanceof ICompilationUnit))
+			return;
+		ICompilationUnit cu= (ICompilationUnit) delta.getElement();
+		if (cu.getOwner() != null)
+			return;
+		boolean contentChanged= (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0;
+		for (Iterator<Entry> iter= fCalls.values().iterator(); iter.hasNext();) {
+			Entry entry= iter.next();
+			if (entry.isAffectedBy(cu, contentChanged)) {
+				fSize-= entry.fCalls.size();
+				iter.remove();
+			}
+		}
+		fGeneration++;
+	}
+
+	private static String getKey(MethodWrapper wrapper) {
+		StringBuffer buf= new StringBuffer();
+		buf.append(wrapper.getClass().getName());
+		buf.append(':');
+		buf.append(wrapper.getFieldSearchMode());
+		buf.append(':');
+		buf.append(wrapper.getMethodCall().getKey());
+		return buf.toString();
+	}
+}
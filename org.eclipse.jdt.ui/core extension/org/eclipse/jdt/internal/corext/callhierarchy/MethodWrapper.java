@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -299,7 +299,13 @@ public abstract class MethodWrapper extends PlatformObject {
     }
 
     private void performSearch(IProgressMonitor progressMonitor) {
-        fElements = findChildren(progressMonitor);
+        CallHierarchyCache cache = CallHierarchyCache.getDefault();
+        fElements = cache.get(this);
+        if (fElements == null) {
+            int generation = cache.getGeneration();
+            fElements = findChildren(progressMonitor);
+            cache.put(this, new HashMap<>(fElements), generation);
+        }
 
         for (Iterator<String> iter = fElements.keySet().iterator(); iter.hasNext();) {
             checkCanceled(progressMonitor);
@@ -368,5 +374,23 @@ public abstract class MethodWrapper extends PlatformObject {
 	public void removeFromCache() {
 		fElements= null;
 		fMethodCache.remove(getMethodCall().getKey());
+		CallHierarchyCache.getDefault().remove(this);
+	}
+
+	/**
+	 * Computes the calls of this wrapper and stores them in the {@link CallHierarchyCache}, so that
+	 * a later {@link #getCalls(IProgressMonitor)} does not have to search. Unlike
+	 * {@link #getCalls(IProgressMonitor)}, this does not modify the state of the wrapper or of its
+	 * root and may therefore be run concurrently for several wrappers.
+	 *
+	 * @param progressMonitor the progress monitor
+	 * @since 3.14
+	 */
+	public void prefetchCalls(IProgressMonitor progressMonitor) {
+		CallHierarchyCache cache= CallHierarchyCache.getDefault();
+		if (!canHaveChildren() || cache.contains(this))
+			return;
+		int generation= cache.getGeneration();
+		cache.put(this, findChildren(progressMonitor), generation);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.dom;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -22,6 +26,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTRequestor;
@@ -31,11 +36,102 @@ import org.eclipse.jdt.core.dom.IBinding;
  * Creates AST from a set of compilation units. Uses the
  * batch parser. Splits the set of compilation units in subsets
  * such that it is unlikely that a out of memory exception will occur.
+ * <p>
+ * By default, the size of the subsets is fixed and depends on the maximum heap size only. In
+ * adaptive mode, the compilation units of a project are sorted by package, so that units that
+ * likely share bindings are parsed together, and the size of each subset is computed from the
+ * memory that the previous subsets retained per compilation unit, the current heap headroom and the
+ * time spent in garbage collection. The statistics of each batch are printed if debugging is
+ * enabled with {@link #setDebugging(boolean)}.
+ * </p>
  *
  * @since 3.4
  */
 public class ASTBatchParser {
 
+	/**
+	 * Statistics of one call to {@link ASTParser#createASTs(ICompilationUnit[], String[], ASTRequestor, IProgressMonitor)}.
+	 *
+	 * @since 3.14
+	 */
+	public static final class BatchStatistics {
+		private final int fUnitCount;
+		private final long fTime;
+		private final long fUsedMemory;
+		private final long fGCTime;
+
+		BatchStatistics(int unitCount, long time, long usedMemory, long gcTime) {
+			fUnitCount= unitCount;
+			fTime= time;
+			fUsedMemory= usedMemory;
+			fGCTime= gcTime;
+		}
+
+		/**
+		 * @return the number of compilation units in the batch
+		 */
+		public int getUnitCount() {
+			return fUnitCount;
+		}
+
+		/**
+		 * @return the time in milliseconds it took to create the ASTs of the batch
+		 */
+		public long getTime() {
+			return fTime;
+		}
+
+		/**
+		 * @return the used heap in bytes after the ASTs of the batch were created
+		 */
+		public long getUsedMemory() {
+			return fUsedMemory;
+		}
+
+		/**
+		 * @return the time in milliseconds spent in garbage collection while the ASTs of the
+		 *         batch were created
+		 */
+		public long getGCTime() {
+			return fGCTime;
+		}
+
+		/**
+		 * @return the number of ASTs created per second
+		 */
+		public double getASTsPerSecond() {
+			return fUnitCount * 1000d / Math.max(1, fTime);
+		}
+
+		@Override
+		public String toString() {
+			return fUnitCount + " ASTs in " + fTime + " ms (" + Math.round(getASTsPerSecond()) + " ASTs/s), used memory " + (fUsedMemory >> 20) + " MiB, GC " + fGCTime + " ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		}
+	}
+
+	/** Bounds of the batch size in adaptive mode */
+	private static final int MIN_AT_ONCE= 10;
+	private static final int MAX_ADAPTIVE_AT_ONCE= 2000;
+	/** Fraction of the free heap a batch may use in adaptive mode */
+	private static final double HEADROOM_FRACTION= 0.5;
+	/** Fraction of the batch time spent in garbage collection above which batches shrink */
+	private static final double MAX_GC_FRACTION= 0.25;
+
+	private static final Comparator<ICompilationUnit> PACKAGE_ORDER= new Comparator<ICompilationUnit>() {
+		@Override
+		public int compare(ICompilationUnit u1, ICompilationUnit u2) {
+			int result= getPackageName(u1).compareTo(getPackageName(u2));
+			if (result != 0)
+				return result;
+			return u1.getElementName().compareTo(u2.getElementName());
+		}
+
+		private String getPackageName(ICompilationUnit unit) {
+			IJavaElement parent= unit.getParent();
+			return parent == null ? "" : parent.getElementName(); //$NON-NLS-1$
+		}
+	};
+
 	private static final int MAX_AT_ONCE;
 	static {
 		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
@@ -47,6 +143,52 @@ public class ASTBatchParser {
 		else                        MAX_AT_ONCE=  25;
 	}
 
+	private static boolean fgDebugging;
+
+	private final boolean fAdaptive;
+	private final List<BatchStatistics> fStatistics= new ArrayList<>();
+	/** Estimated heap bytes retained per compilation unit, or <code>-1</code> if not measured yet */
+	private long fBytesPerUnit= -1;
+
+	/**
+	 * Creates a parser that splits the compilation units in subsets of a fixed size.
+	 */
+	public ASTBatchParser() {
+		this(false);
+	}
+
+	/**
+	 * Creates a parser.
+	 *
+	 * @param adaptive <code>true</code> to size the subsets of compilation units adaptively,
+	 *            <code>false</code> to use a fixed size
+	 * @since 3.14
+	 */
+	public ASTBatchParser(boolean adaptive) {
+		fAdaptive= adaptive;
+	}
+
+	/**
+	 * Enables or disables printing the statistics of each batch in adaptive mode.
+	 *
+	 * @param debugging <code>true</code> to print the statistics
+	 * @since 3.14
+	 */
+	public static void setDebugging(boolean debugging) {
+		fgDebugging= debugging;
+	}
+
+	/**
+	 * Returns the statistics of the batches created by the last call to
+	 * {@link #createASTs(ICompilationUnit[], String[], ASTRequestor, IProgressMonitor)}.
+	 *
+	 * @return the statistics, in the order the batches were processed
+	 * @since 3.14
+	 */
+	public List<BatchStatistics> getStatistics() {
+		return Collections.unmodifiableList(fStatistics);
+	}
+
 	/**
 	 * Creates ASTs for each compilation unit in <code>units</code>.
 	 * <p>
@@ -72,6 +214,7 @@ public class ASTBatchParser {
 		if (monitor == null)
 			monitor= new NullProgressMonitor();
 
+		fStatistics.clear();
 		monitor.beginTask("", compilationUnits.length); //$NON-NLS-1$
 		try {
 
@@ -79,7 +222,9 @@ public class ASTBatchParser {
 			for (int i= 0; i < splited.length; i++) {
 				ICompilationUnit[] units= splited[i];
 
-				if (units.length <= MAX_AT_ONCE) {
+				if (fAdaptive) {
+					createASTsAdaptively(units, bindingKeys, requestor, monitor);
+				} else if (units.length <= MAX_AT_ONCE) {
 					createParser(units[0].getJavaProject()).createASTs(units, bindingKeys, requestor, new SubProgressMonitor(monitor, units.length));
 				} else {
 					List<ICompilationUnit> list= Arrays.asList(units);
@@ -100,6 +245,78 @@ public class ASTBatchParser {
 		}
 	}
 
+	private void createASTsAdaptively(ICompilationUnit[] units, String[] bindingKeys, ASTRequestor requestor, IProgressMonitor monitor) {
+		units= units.clone();
+		Arrays.sort(units, PACKAGE_ORDER);
+
+		int cursor= 0;
+		int batchSize= Math.min(MAX_AT_ONCE, MAX_ADAPTIVE_AT_ONCE);
+		while (cursor < units.length) {
+			int end= Math.min(cursor + batchSize, units.length);
+			ICompilationUnit[] toParse= Arrays.copyOfRange(units, cursor, end);
+
+			long usedBefore= getUsedMemory();
+			long gcTimeBefore= getGCTime();
+			long start= System.currentTimeMillis();
+
+			createParser(units[0].getJavaProject()).createASTs(toParse, bindingKeys, requestor, new SubProgressMonitor(monitor, toParse.length));
+
+			long time= System.currentTimeMillis() - start;
+			long gcTime= getGCTime() - gcTimeBefore;
+			long usedAfter= getUsedMemory();
+			BatchStatistics statistics= new BatchStatistics(toParse.length, time, usedAfter, gcTime);
+			fStatistics.add(statistics);
+			if (fgDebugging)
+				System.out.println("ASTBatchParser - " + units[0].getJavaProject().getElementName() + ": " + statistics); //$NON-NLS-1$ //$NON-NLS-2$
+
+			// the heap that is still used after the batch approximates what the ASTs of the batch retain
+			if (usedAfter > usedBefore) {
+				long bytesPerUnit= (usedAfter - usedBefore) / toParse.length;
+				fBytesPerUnit= fBytesPerUnit < 0 ? bytesPerUnit : (fBytesPerUnit + bytesPerUnit) / 2;
+			}
+			batchSize= computeBatchSize(batchSize, fBytesPerUnit, Runtime.getRuntime().maxMemory() - usedAfter, time, gcTime);
+			cursor= end;
+		}
+	}
+
+	/**
+	 * Computes the size of the next batch in adaptive mode. The size halves if garbage collection
+	 * took a large part of the previous batch's time. Otherwise, the batch is sized to fit in half
+	 * of the free heap, growing at most by a factor of two.
+	 *
+	 * @param previous the size of the previous batch
+	 * @param bytesPerUnit the estimated heap bytes needed per compilation unit, or a value
+	 *            <code>&lt;= 0</code> if unknown
+	 * @param freeMemory the heap bytes that can still be allocated
+	 * @param time the time in milliseconds the previous batch took
+	 * @param gcTime the time in milliseconds spent in garbage collection during the previous batch
+	 * @return the size of the next batch
+	 */
+	static int computeBatchSize(int previous, long bytesPerUnit, long freeMemory, long time, long gcTime) {
+		if (time > 0 && gcTime > time * MAX_GC_FRACTION)
+			return Math.max(MIN_AT_ONCE, previous / 2);
+		if (bytesPerUnit <= 0)
+			return previous;
+		long size= (long) (freeMemory * HEADROOM_FRACTION) / bytesPerUnit;
+		size= Math.min(size, 2L * previous);
+		return (int) Math.max(MIN_AT_ONCE, Math.min(MAX_ADAPTIVE_AT_ONCE, size));
+	}
+
+	private static long getUsedMemory() {
+		Runtime runtime= Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long getGCTime() {
+		long time= 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			long collectionTime= bean.getCollectionTime();
+			if (collectionTime > 0)
+				time+= collectionTime;
+		}
+		return time;
+	}
+
 	/**
 	 * Creates a new parser which can be used to create ASTs
 	 * for compilation units in <code>project</code>
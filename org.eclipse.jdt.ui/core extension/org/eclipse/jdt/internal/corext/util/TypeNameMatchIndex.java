@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.corext.CorextMessages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * In-memory index of the names of all types in the workspace scope, used by the open type dialog
+ * to find candidates without running a search.
+ * <p>
+ * The index is built by a background job when it is first used. The types of compilation units
+ * that change are updated incrementally from Java element deltas; other changes (class path,
+ * archives, projects) discard the index and build it again. While the index is not available or
+ * not up to date, queries fail and clients fall back to the search engine.
+ * </p>
+ * <p>
+ * Matches are kept in flat arrays sorted by case-folded simple name. Equal names share one
+ * <code>char[]</code>. The candidates of a query are found with a binary search for the
+ * literal prefix of the name pattern: the whole pattern for prefix and exact matches, the first
+ * character for camel case matches (which must start with the same character), and the part
+ * before the first wildcard for wildcard patterns. The index is only softly referenced.
+ * </p>
+ * <p>
+ * The matches of each source compilation unit are also kept by unit, so an update finds the
+ * entries it replaces with a binary search instead of looking at every entry.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class TypeNameMatchIndex {
+
+	/**
+	 * Family of the job that builds and updates the index.
+	 */
+	public static final String FAMILY= TypeNameMatchIndex.class.getName();
+
+	private static class Snapshot {
+		/** case-folded simple names, sorted */
+		final char[][] fNames;
+		/** matches, in the order of {@link #fNames} */
+		final TypeNameMatch[] fMatches;
+		/**
+		 * matches of source types by primary compilation unit; only accessed by the update job,
+		 * which passes it on to the next snapshot
+		 */
+		final Map<ICompilationUnit, List<TypeNameMatch>> fUnitMatches;
+
+		Snapshot(char[][] names, TypeNameMatch[] matches, Map<ICompilationUnit, List<TypeNameMatch>> unitMatches) {
+			fNames= names;
+			fMatches= matches;
+			fUnitMatches= unitMatches;
+		}
+	}
+
+	private static class Entry implements Comparable<Entry> {
+		final char[] fName;
+		final TypeNameMatch fMatch;
+
+		Entry(char[] name, TypeNameMatch match) {
+			fName= name;
+			fMatch= match;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			return compare(fName, other.fName);
+		}
+	}
+
+	private class IndexDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			processDelta(event.getDelta());
+		}
+
+		private void processDelta(IJavaElementDelta delta) {
+			IJavaElement elem= delta.getElement();
+
+			boolean isAddedOrRemoved= delta.getKind() != IJavaElementDelta.CHANGED;
+			int flags= delta.getFlags();
+
+			switch (elem.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					processChildrenDelta(delta);
+					break;
+				case IJavaElement.JAVA_PROJECT:
+					if (isAddedOrRemoved || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+							| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+						invalidate();
+					} else {
+						processChildrenDelta(delta);
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (isAddedOrRemoved || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+							| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+						invalidate();
+					} else {
+						processChildrenDelta(delta);
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (delta.getKind() == IJavaElementDelta.ADDED) {
+						addPackage((IPackageFragment) elem);
+					} else if (isAddedOrRemoved) {
+						invalidate();
+					} else {
+						processChildrenDelta(delta);
+					}
+					break;
+				case IJavaElement.CLASS_FILE:
+					if (isAddedOrRemoved)
+						invalidate();
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+					ICompilationUnit unit= (ICompilationUnit) elem;
+					// Not the primary compilation unit. Ignore it
+					if (!JavaModelUtil.isPrimary(unit))
+						break;
+
+					if (isAddedOrRemoved || hasTypeChange(delta))
+						addPendingUnit(unit);
+					break;
+				default:
+					break;
+			}
+		}
+
+		private void processChildrenDelta(IJavaElementDelta delta) {
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			for (int i= 0; i < children.length; i++) {
+				processDelta(children[i]);
+			}
+		}
+
+		private void addPackage(IPackageFragment pack) {
+			try {
+				if (pack.getKind() != IPackageFragmentRoot.K_SOURCE) {
+					invalidate();
+					return;
+				}
+				ICompilationUnit[] units= pack.getCompilationUnits();
+				for (int i= 0; i < units.length; i++) {
+					addPendingUnit(units[i]);
+				}
+			} catch (JavaModelException e) {
+				invalidate();
+			}
+		}
+
+		/*
+		 * Tells whether the types declared in a changed compilation unit may have changed.
+		 */
+		private boolean hasTypeChange(IJavaElementDelta delta) {
+			int flags= delta.getFlags();
+			// a working copy became or stopped being the primary one: its types may differ from the file
+			if ((flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0)
+				return true;
+			if ((flags & IJavaElementDelta.F_FINE_GRAINED) == 0)
+				return (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0;
+			return hasTypeChildChange(delta);
+		}
+
+		private boolean hasTypeChildChange(IJavaElementDelta delta) {
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			for (int i= 0; i < children.length; i++) {
+				IJavaElementDelta child= children[i];
+				if (child.getElement().getElementType() != IJavaElement.TYPE)
+					continue;
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0)
+					return true;
+				if (hasTypeChildChange(child))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private class UpdateJob extends Job {
+		public UpdateJob() {
+			super(CorextMessages.TypeNameMatchIndex_job_name);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				while (true) {
+					boolean rebuild;
+					Snapshot snapshot;
+					ICompilationUnit[] units;
+					synchronized (TypeNameMatchIndex.this) {
+						snapshot= getSnapshot();
+						rebuild= fNeedsRebuild || snapshot == null;
+						fNeedsRebuild= false;
+						units= fPendingUnits.toArray(new ICompilationUnit[fPendingUnits.size()]);
+						fPendingUnits.clear();
+					}
+					if (rebuild) {
+						snapshot= build(monitor);
+					} else if (units.length > 0) {
+						snapshot= update(snapshot, units);
+					} else {
+						return Status.OK_STATUS;
+					}
+					synchronized (TypeNameMatchIndex.this) {
+						if (!fNeedsRebuild)
+							fSnapshot= new SoftReference<>(snapshot);
+					}
+				}
+			} catch (OperationCanceledException e) {
+				invalidate(false);
+				return Status.CANCEL_STATUS;
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+				invalidate(false);
+				return Status.OK_STATUS;
+			}
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return FAMILY.equals(family);
+		}
+	}
+
+	private static TypeNameMatchIndex fgInstance;
+
+	private final IElementChangedListener fDeltaListener;
+	private final UpdateJob fUpdateJob;
+
+	private SoftReference<Snapshot> fSnapshot;
+	private boolean fNeedsRebuild;
+	private final Set<ICompilationUnit> fPendingUnits;
+
+	public static synchronized TypeNameMatchIndex getInstance() {
+		if (fgInstance == null)
+			fgInstance= new TypeNameMatchIndex();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private TypeNameMatchIndex() {
+		fPendingUnits= new HashSet<>();
+		fNeedsRebuild= true;
+		fDeltaListener= new IndexDeltaListener();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fUpdateJob= new UpdateJob();
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		fUpdateJob.cancel();
+	}
+
+	/**
+	 * Tells whether the index reflects the current state of the workspace. Otherwise, an update
+	 * of the index is scheduled.
+	 *
+	 * @return <code>true</code> if the index is up to date
+	 */
+	public synchronized boolean isUpToDate() {
+		if (!fNeedsRebuild && fPendingUnits.isEmpty() && getSnapshot() != null)
+			return true;
+		if (getSnapshot() == null)
+			fNeedsRebuild= true;
+		fUpdateJob.schedule();
+		return false;
+	}
+
+	/**
+	 * Reports all types whose simple name may match the name pattern of the given filter. The
+	 * requestor is passed a superset of the matching types, and has to apply the filter itself.
+	 *
+	 * @param filter the filter; only filters for the workspace scope can be answered
+	 * @param requestor the requestor
+	 * @param monitor the progress monitor
+	 * @return <code>true</code> if the types have been reported, or <code>false</code> if the
+	 *         index cannot answer the query and the caller has to search for the types
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public boolean searchTypeNames(TypeInfoFilter filter, TypeNameMatchRequestor requestor, IProgressMonitor monitor) {
+		if (!filter.isWorkspaceScope())
+			return false;
+
+		Snapshot snapshot;
+		synchronized (this) {
+			if (!isUpToDate())
+				return false;
+			snapshot= getSnapshot();
+		}
+
+		char[] prefix= fold(getLiteralPrefix(filter));
+		char[][] names= snapshot.fNames;
+		TypeNameMatch[] matches= snapshot.fMatches;
+		for (int i= findFirst(names, prefix); i < names.length && startsWith(names[i], prefix); i++) {
+			if ((i & 0xff) == 0 && monitor != null && monitor.isCanceled())
+				throw new OperationCanceledException();
+			requestor.acceptTypeNameMatch(matches[i]);
+		}
+		return true;
+	}
+
+	private static String getLiteralPrefix(TypeInfoFilter filter) {
+		if (filter.getText().length() == 0)
+			return ""; //$NON-NLS-1$
+
+		String pattern= filter.getNamePattern();
+		switch (filter.getSearchFlags()) {
+			case SearchPattern.R_PATTERN_MATCH:
+				int end= 0;
+				while (end < pattern.length() && pattern.charAt(end) != '*' && pattern.charAt(end) != '?')
+					end++;
+				return pattern.substring(0, end);
+			case SearchPattern.R_CAMELCASE_MATCH:
+			case SearchPattern.R_CAMELCASE_SAME_PART_COUNT_MATCH:
+				return pattern.length() == 0 ? pattern : pattern.substring(0, 1);
+			default:
+				return pattern;
+		}
+	}
+
+	private synchronized Snapshot getSnapshot() {
+		return fSnapshot != null ? fSnapshot.get() : null;
+	}
+
+	private synchronized void addPendingUnit(ICompilationUnit unit) {
+		if (fNeedsRebuild)
+			return;
+		fPendingUnits.add(unit);
+		fUpdateJob.schedule();
+	}
+
+	private void invalidate() {
+		invalidate(true);
+	}
+
+	private synchronized void invalidate(boolean schedule) {
+		fNeedsRebuild= true;
+		fSnapshot= null;
+		fPendingUnits.clear();
+		if (schedule)
+			fUpdateJob.schedule();
+	}
+
+	private static Snapshot build(IProgressMonitor monitor) throws JavaModelException {
+		final List<TypeNameMatch> matches= new ArrayList<>();
+		new SearchEngine((WorkingCopyOwner) null).searchAllTypeNames(
+				null,
+				SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE,
+				null,
+				SearchPattern.R_PREFIX_MATCH,
+				IJavaSearchConstants.TYPE,
+				SearchEngine.createWorkspaceScope(),
+				new TypeNameMatchRequestor() {
+					@Override
+					public void acceptTypeNameMatch(TypeNameMatch match) {
+						matches.add(match);
+					}
+				},
+				IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
+				monitor);
+
+		Entry[] entries= createEntries(matches);
+		Arrays.sort(entries);
+		Map<ICompilationUnit, List<TypeNameMatch>> unitMatches= new HashMap<>();
+		for (int i= 0; i < entries.length; i++) {
+			ICompilationUnit unit= entries[i].fMatch.getType().getCompilationUnit();
+			if (unit != null)
+				addUnitMatch(unitMatches, unit.getPrimary(), entries[i].fMatch);
+		}
+		return createSnapshot(new char[0][], new TypeNameMatch[0], new BitSet(), entries, unitMatches);
+	}
+
+	/*
+	 * Replaces the types of the given compilation units.
+	 */
+	private static Snapshot update(Snapshot snapshot, ICompilationUnit[] units) throws JavaModelException {
+		char[][] names= snapshot.fNames;
+		TypeNameMatch[] matches= snapshot.fMatches;
+		Map<ICompilationUnit, List<TypeNameMatch>> unitMatches= snapshot.fUnitMatches;
+		BitSet removed= new BitSet(matches.length);
+		List<TypeNameMatch> added= new ArrayList<>();
+		for (int i= 0; i < units.length; i++) {
+			ICompilationUnit unit= units[i].getPrimary();
+			List<TypeNameMatch> old= unitMatches.remove(unit);
+			if (old != null) {
+				for (int j= 0; j < old.size(); j++) {
+					int index= indexOf(names, matches, old.get(j));
+					if (index != -1)
+						removed.set(index);
+				}
+			}
+			if (!unit.exists())
+				continue;
+			IType[] types= unit.getAllTypes();
+			for (int j= 0; j < types.length; j++) {
+				TypeNameMatch match= SearchEngine.createTypeNameMatch(types[j], types[j].getFlags());
+				added.add(match);
+				addUnitMatch(unitMatches, unit, match);
+			}
+		}
+		Entry[] addedEntries= createEntries(added);
+		Arrays.sort(addedEntries);
+		return createSnapshot(names, matches, removed, addedEntries, unitMatches);
+	}
+
+	private static void addUnitMatch(Map<ICompilationUnit, List<TypeNameMatch>> unitMatches, ICompilationUnit unit, TypeNameMatch match) {
+		List<TypeNameMatch> list= unitMatches.get(unit);
+		if (list == null) {
+			list= new ArrayList<>(1);
+			unitMatches.put(unit, list);
+		}
+		list.add(match);
+	}
+
+	/*
+	 * Returns the index of the given match, or -1 if it is not in the index.
+	 */
+	private static int indexOf(char[][] names, TypeNameMatch[] matches, TypeNameMatch match) {
+		char[] name= fold(match.getSimpleTypeName());
+		for (int i= findFirst(names, name); i < names.length && compare(names[i], name) == 0; i++) {
+			if (matches[i] == match)
+				return i;
+		}
+		return -1;
+	}
+
+	private static Entry[] createEntries(List<TypeNameMatch> matches) {
+		Map<String, char[]> interned= new HashMap<>();
+		Entry[] entries= new Entry[matches.size()];
+		for (int i= 0; i < entries.length; i++) {
+			TypeNameMatch match= matches.get(i);
+			String name= match.getSimpleTypeName();
+			char[] folded= interned.get(name);
+			if (folded == null) {
+				folded= fold(name);
+				interned.put(name, folded);
+			}
+			entries[i]= new Entry(folded, match);
+		}
+		return entries;
+	}
+
+	/*
+	 * Merges the entries of an index that are not removed with sorted added entries into a snapshot.
+	 */
+	private static Snapshot createSnapshot(char[][] names, TypeNameMatch[] matches, BitSet removed, Entry[] added, Map<ICompilationUnit, List<TypeNameMatch>> unitMatches) {
+		int count= matches.length - removed.cardinality() + added.length;
+		char[][] newNames= new char[count][];
+		TypeNameMatch[] newMatches= new TypeNameMatch[count];
+		int i= removed.nextClearBit(0), j= 0;
+		for (int k= 0; k < count; k++) {
+			if (j == added.length || (i < matches.length && compare(names[i], added[j].fName) <= 0)) {
+				newNames[k]= names[i];
+				newMatches[k]= matches[i];
+				i= removed.nextClearBit(i + 1);
+			} else {
+				newNames[k]= added[j].fName;
+				newMatches[k]= added[j].fMatch;
+				j++;
+			}
+		}
+		return new Snapshot(newNames, newMatches, unitMatches);
+	}
+
+	private static char[] fold(String name) {
+		char[] result= new char[name.length()];
+		for (int i= 0; i < result.length; i++) {
+			result[i]= Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		}
+		return result;
+	}
+
+	private static int compare(char[] name1, char[] name2) {
+		int length= Math.min(name1.length, name2.length);
+		for (int i= 0; i < length; i++) {
+			if (name1[i] != name2[i])
+				return name1[i] - name2[i];
+		}
+		return name1.length - name2.length;
+	}
+
+	private static boolean startsWith(char[] name, char[] prefix) {
+		if (name.length < prefix.length)
+			return false;
+		for (int i= 0; i < prefix.length; i++) {
+			if (name[i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Returns the index of the first name that is not smaller than the given prefix.
+	 */
+	private static int findFirst(char[][] names, char[] prefix) {
+		int low= 0;
+		int high= names.length;
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			if (compare(names[mid], prefix) < 0)
+				low= mid + 1;
+			else
+				high= mid;
+		}
+		return low;
+	}
+}
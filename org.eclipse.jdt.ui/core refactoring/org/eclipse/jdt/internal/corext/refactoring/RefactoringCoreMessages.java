@@ -727,6 +727,10 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String InferTypeArgumentsRefactoring_calculating_dependencies;
 
+	public static String InferTypeArgumentsRefactoring_choosing_types;
+
+	public static String InferTypeArgumentsRefactoring_computing_structure;
+
 	public static String InferTypeArgumentsRefactoring_creatingChanges;
 
 	public static String InferTypeArgumentsRefactoring_descriptor_description;
@@ -749,6 +753,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String InferTypeArgumentsRefactoring_original_elements;
 
+	public static String InferTypeArgumentsRefactoring_propagating;
+
 	public static String InferTypeArgumentsRefactoring_removeCast;
 
 	public static String InferTypeArgumentsRefactoring_solving;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,9 +18,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +30,7 @@ import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.ArrayType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.HierarchyType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
@@ -63,29 +64,50 @@ public class InferTypeArgumentsConstraintsSolver {
 	private final InferTypeArgumentsTCModel fTCModel;
 	private TypeSetEnvironment fTypeSetEnvironment;
 
+	private static final ITypeConstraint2[] NO_CONSTRAINTS= new ITypeConstraint2[0];
+
+	/**
+	 * Maps the nodes of the constraint graph to dense indices into the
+	 * solver's primitive tables.
+	 */
+	private IdentityHashMap<ConstraintVariable2, Integer> fIndices;
+
+	/**
+	 * The nodes of the constraint graph, by index.
+	 */
+	private ConstraintVariable2[] fVariables;
+
+	/**
+	 * The constraints a node is used in, by index. Computed lazily.
+	 */
+	private ITypeConstraint2[][] fUsedIn;
+
 	/**
 	 * The work-list used by the type constraint solver to hold the set of
-	 * nodes in the constraint graph that remain to be (re-)processed. Entries
-	 * are <code>ConstraintVariable2</code>s.
+	 * nodes in the constraint graph that remain to be (re-)processed. This is
+	 * a ring buffer of indices; a node is enqueued at most once at a time.
 	 */
-	private LinkedList<ConstraintVariable2> fWorkList;
+	private int[] fWorkList;
+	private int fWorkListHead;
+	private int fWorkListSize;
+	private boolean[] fQueued;
 
 	private InferTypeArgumentsUpdate fUpdate;
 
 
 	public InferTypeArgumentsConstraintsSolver(InferTypeArgumentsTCModel typeConstraintFactory) {
 		fTCModel= typeConstraintFactory;
-		fWorkList= new LinkedList<>();
 	}
 
 	public InferTypeArgumentsUpdate solveConstraints(IProgressMonitor pm) {
-		pm.beginTask("", 2); //$NON-NLS-1$
+		pm.beginTask("", 3); //$NON-NLS-1$
 		fUpdate= new InferTypeArgumentsUpdate();
 
 		ConstraintVariable2[] allConstraintVariables= fTCModel.getAllConstraintVariables();
 		if (allConstraintVariables.length == 0)
 			return fUpdate;
 
+		pm.subTask(RefactoringCoreMessages.InferTypeArgumentsRefactoring_computing_structure);
 		fTypeSetEnvironment= new TypeSetEnvironment(fTCModel.getTypeEnvironment());
 		ParametricStructureComputer parametricStructureComputer= new ParametricStructureComputer(allConstraintVariables, fTCModel);
 		Collection<CollectionElementVariable2> newVars= parametricStructureComputer.createElemConstraintVariables();
@@ -121,15 +143,91 @@ public class InferTypeArgumentsConstraintsSolver {
 		}
 
 		initializeTypeEstimates(allConstraintVariables);
+		pm.worked(1);
 		if (pm.isCanceled())
 			throw new OperationCanceledException();
-		fWorkList.addAll(Arrays.asList(allConstraintVariables));
+
+		initializeWorkList(allConstraintVariables);
 		runSolver(new SubProgressMonitor(pm, 1));
+		freeWorkList();
 		chooseTypes(allConstraintVariables, new SubProgressMonitor(pm, 1));
 		findCastsToRemove(fTCModel.getCastVariables());
 		return fUpdate;
 	}
 
+	private void initializeWorkList(ConstraintVariable2[] allConstraintVariables) {
+		int capacity= Math.max(16, allConstraintVariables.length);
+		fIndices= new IdentityHashMap<>(capacity);
+		fVariables= new ConstraintVariable2[capacity];
+		fUsedIn= new ITypeConstraint2[capacity][];
+		fWorkList= new int[capacity];
+		fWorkListHead= 0;
+		fWorkListSize= 0;
+		fQueued= new boolean[capacity];
+		for (int i= 0; i < allConstraintVariables.length; i++)
+			enqueue(allConstraintVariables[i]);
+	}
+
+	private void freeWorkList() {
+		fIndices= null;
+		fVariables= null;
+		fUsedIn= null;
+		fWorkList= null;
+		fQueued= null;
+	}
+
+	private int getIndex(ConstraintVariable2 cv) {
+		Integer index= fIndices.get(cv);
+		if (index != null)
+			return index.intValue();
+
+		int newIndex= fIndices.size();
+		if (newIndex == fVariables.length) {
+			int newCapacity= newIndex * 2;
+			fVariables= Arrays.copyOf(fVariables, newCapacity);
+			fUsedIn= Arrays.copyOf(fUsedIn, newCapacity);
+			fQueued= Arrays.copyOf(fQueued, newCapacity);
+		}
+		fIndices.put(cv, Integer.valueOf(newIndex));
+		fVariables[newIndex]= cv;
+		return newIndex;
+	}
+
+	private void enqueue(ConstraintVariable2 cv) {
+		int index= getIndex(cv);
+		if (fQueued[index])
+			return;
+		fQueued[index]= true;
+		if (fWorkListSize == fWorkList.length) {
+			int[] newWorkList= new int[fWorkList.length * 2];
+			int tail= fWorkList.length - fWorkListHead;
+			System.arraycopy(fWorkList, fWorkListHead, newWorkList, 0, tail);
+			System.arraycopy(fWorkList, 0, newWorkList, tail, fWorkListHead);
+			fWorkList= newWorkList;
+			fWorkListHead= 0;
+		}
+		fWorkList[(fWorkListHead + fWorkListSize) % fWorkList.length]= index;
+		fWorkListSize++;
+	}
+
+	private int dequeue() {
+		int index= fWorkList[fWorkListHead];
+		fWorkListHead= (fWorkListHead + 1) % fWorkList.length;
+		fWorkListSize--;
+		fQueued[index]= false;
+		return index;
+	}
+
+	private ITypeConstraint2[] getUsedIn(int index) {
+		ITypeConstraint2[] usedIn= fUsedIn[index];
+		if (usedIn == null) {
+			List<ITypeConstraint2> usedInList= fTCModel.getUsedIn(fVariables[index]);
+			usedIn= usedInList.isEmpty() ? NO_CONSTRAINTS : usedInList.toArray(new ITypeConstraint2[usedInList.size()]);
+			fUsedIn[index]= usedIn;
+		}
+		return usedIn;
+	}
+
 	private void initializeTypeEstimates(ConstraintVariable2[] allConstraintVariables) {
 		for (int i= 0; i < allConstraintVariables.length; i++) {
 			ConstraintVariable2 cv= allConstraintVariables[i];
@@ -192,12 +290,12 @@ public class InferTypeArgumentsConstraintsSolver {
 	}
 
 	private void runSolver(SubProgressMonitor pm) {
-		pm.beginTask("", fWorkList.size() * 3); //$NON-NLS-1$
-		while (! fWorkList.isEmpty()) {
+		pm.beginTask("", fWorkListSize * 3); //$NON-NLS-1$
+		pm.subTask(RefactoringCoreMessages.InferTypeArgumentsRefactoring_propagating);
+		while (fWorkListSize != 0) {
 			// Get a variable whose type estimate has changed
-			ConstraintVariable2 cv= fWorkList.removeFirst();
-			List<ITypeConstraint2> usedIn= fTCModel.getUsedIn(cv);
-			processConstraints(usedIn);
+			int index= dequeue();
+			processConstraints(getUsedIn(index));
 			pm.worked(1);
 			if (pm.isCanceled())
 				throw new OperationCanceledException();
@@ -206,25 +304,21 @@ public class InferTypeArgumentsConstraintsSolver {
 	}
 
 	/**
-	 * Given a list of <code>ITypeConstraint2</code>s that all refer to a
+	 * Given the <code>ITypeConstraint2</code>s that all refer to a
 	 * given <code>ConstraintVariable2</code> (whose type bound has presumably
 	 * just changed), process each <code>ITypeConstraint</code>, propagating
 	 * the type bound across the constraint as needed.
 	 *
-	 * @param usedIn the <code>List</code> of <code>ITypeConstraint2</code>s
-	 * to process
+	 * @param usedIn the <code>ITypeConstraint2</code>s to process
 	 */
-	private void processConstraints(List<ITypeConstraint2> usedIn) {
-		Iterator<ITypeConstraint2> iter= usedIn.iterator();
-		while (iter.hasNext()) {
-			ITypeConstraint2 tc= iter.next();
-
-				maintainSimpleConstraint(tc);
-				//TODO: prune tcs which cannot cause further changes
-				// Maybe these should be pruned after a special first loop over all ConstraintVariables,
-				// Since this can only happen once for every CV in the work list.
-//				if (isConstantConstraint(stc))
-//					fTypeConstraintFactory.removeUsedIn(stc, changedCv);
+	private void processConstraints(ITypeConstraint2[] usedIn) {
+		for (int i= 0; i < usedIn.length; i++) {
+			maintainSimpleConstraint(usedIn[i]);
+			//TODO: prune tcs which cannot cause further changes
+			// Maybe these should be pruned after a special first loop over all ConstraintVariables,
+			// Since this can only happen once for every CV in the work list.
+//			if (isConstantConstraint(stc))
+//				fTypeConstraintFactory.removeUsedIn(stc, changedCv);
 		}
 	}
 
@@ -253,7 +347,7 @@ public class InferTypeArgumentsConstraintsSolver {
 //				throw new IllegalStateException("Type estimate set is now empty for LHS in " + left + " <= " + right + "; estimates were " + leftEstimate + " <= " + rightEstimate); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 			leftSet.setTypeEstimate(xsection);
-			fWorkList.addAll(Arrays.asList(leftSet.getContributingVariables()));
+			enqueueAll(leftSet.getContributingVariables());
 		}
 		if (! lhsSuperTypes.containsAll(rightEstimate)) {
 			TypeSet xsection= rightEstimate.intersectedWith(lhsSuperTypes);
@@ -262,12 +356,18 @@ public class InferTypeArgumentsConstraintsSolver {
 //				throw new IllegalStateException("Type estimate set is now empty for RHS in " + left + " <= " + right + "; estimates were " + leftEstimate + " <= " + rightEstimate); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
 			rightSet.setTypeEstimate(xsection);
-			fWorkList.addAll(Arrays.asList(rightSet.getContributingVariables()));
+			enqueueAll(rightSet.getContributingVariables());
 		}
 	}
 
+	private void enqueueAll(ConstraintVariable2[] cvs) {
+		for (int i= 0; i < cvs.length; i++)
+			enqueue(cvs[i]);
+	}
+
 	private void chooseTypes(ConstraintVariable2[] allConstraintVariables, SubProgressMonitor pm) {
 		pm.beginTask("", allConstraintVariables.length); //$NON-NLS-1$
+		pm.subTask(RefactoringCoreMessages.InferTypeArgumentsRefactoring_choosing_types);
 		for (int i= 0; i < allConstraintVariables.length; i++) {
 			ConstraintVariable2 cv= allConstraintVariables[i];
 
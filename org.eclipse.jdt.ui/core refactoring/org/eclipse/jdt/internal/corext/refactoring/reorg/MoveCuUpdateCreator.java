@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,14 +12,23 @@ package org.eclipse.jdt.internal.corext.refactoring.reorg;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -66,16 +75,64 @@ import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.internal.corext.util.SearchUtils;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.JavaUIStatus;
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 public class MoveCuUpdateCreator {
 
+	/**
+	 * Moved compilation units whose references are searched concurrently before their updates
+	 * are applied. Bounds the number of search results held in memory at a time.
+	 */
+	private static final int WAVE_SIZE= 64;
+
+	/** Fewer moved compilation units are updated on the calling thread */
+	private static final int PARALLEL_THRESHOLD= 4;
+
+	private static final int MAX_THREADS= Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Result of the searches for a moved compilation unit. Computing it does not modify any
+	 * state of the creator, so it can be done on a worker thread.
+	 */
+	private static final class UnitUpdates {
+		private final IType[] fReferencedTypes;
+		private final SearchResultGroup[] fReferences;
+		private final RefactoringStatus fStatus;
+
+		UnitUpdates(IType[] referencedTypes, SearchResultGroup[] references, RefactoringStatus status) {
+			fReferencedTypes= referencedTypes;
+			fReferences= references;
+			fStatus= status;
+		}
+	}
+
+	/**
+	 * Progress monitor for searches running on a worker thread. It only forwards
+	 * cancellation, since progress monitors must not be used from several threads.
+	 */
+	private static class WorkerProgressMonitor extends NullProgressMonitor {
+		private final IProgressMonitor fMonitor;
+
+		WorkerProgressMonitor(IProgressMonitor monitor) {
+			fMonitor= monitor;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || fMonitor.isCanceled();
+		}
+	}
+
 	private final String fNewPackage;
 	private ICompilationUnit[] fCus;
 	private IPackageFragment fDestination;
+	private IType[] fDestinationTypes;
 
 	private Map<ICompilationUnit, ImportRewrite> fImportRewrites; //ICompilationUnit -> ImportEdit
 
+	private boolean fParallel= true;
+
 	public MoveCuUpdateCreator(ICompilationUnit cu, IPackageFragment pack){
 		this(new ICompilationUnit[]{cu}, pack);
 	}
@@ -85,10 +142,23 @@ public class MoveCuUpdateCreator {
 		Assert.isNotNull(pack);
 		fCus= cus;
 		fDestination= pack;
-		fImportRewrites= new HashMap<>();
+		fImportRewrites= new LinkedHashMap<>();
 		fNewPackage= fDestination.isDefaultPackage() ? "" : fDestination.getElementName() + '.'; //$NON-NLS-1$
 	}
 
+	/**
+	 * Sets whether the references of the moved compilation units may be searched on worker
+	 * threads. This is the default.
+	 * <p>
+	 * Public for testing only.
+	 * </p>
+	 *
+	 * @param parallel <code>false</code> to search on the calling thread only
+	 */
+	public void setParallel(boolean parallel) {
+		fParallel= parallel;
+	}
+
 	public TextChangeManager createChangeManager(IProgressMonitor pm, RefactoringStatus status) throws JavaModelException{
 		pm.beginTask("", 5); //$NON-NLS-1$
 		try{
@@ -118,11 +188,19 @@ public class MoveCuUpdateCreator {
 
 	private void addUpdates(TextChangeManager changeManager, IProgressMonitor pm, RefactoringStatus status) throws CoreException {
 		pm.beginTask("", fCus.length);  //$NON-NLS-1$
-		for (int i= 0; i < fCus.length; i++){
-			if (pm.isCanceled())
-				throw new OperationCanceledException();
+		try {
+			if (fParallel && fCus.length >= PARALLEL_THRESHOLD) {
+				addUpdatesInParallel(changeManager, pm, status);
+				return;
+			}
+			for (int i= 0; i < fCus.length; i++){
+				if (pm.isCanceled())
+					throw new OperationCanceledException();
 
-			addUpdates(changeManager, fCus[i], new SubProgressMonitor(pm, 1), status);
+				addUpdates(changeManager, fCus[i], new SubProgressMonitor(pm, 1), status);
+			}
+		} finally {
+			pm.done();
 		}
 	}
 
@@ -136,17 +214,93 @@ public class MoveCuUpdateCreator {
 				return;
 			}
 
-		  	addImportToSourcePackageTypes(movedUnit, new SubProgressMonitor(pm, 1));
-			removeImportsToDestinationPackageTypes(movedUnit);
-			addReferenceUpdates(changeManager, movedUnit, new SubProgressMonitor(pm, 2), status);
+			applyUpdates(changeManager, movedUnit, computeUpdates(movedUnit, pm), status);
 		} finally{
 			pm.done();
 		}
 	}
 
-	private void addReferenceUpdates(TextChangeManager changeManager, ICompilationUnit movedUnit, IProgressMonitor pm, RefactoringStatus status) throws JavaModelException, CoreException {
+	/*
+	 * Searches the references of the moved units on worker threads, a wave of units at a time.
+	 * The updates are applied on the calling thread in the order of the moved units, so the
+	 * resulting changes do not depend on the order in which the searches finish.
+	 */
+	private void addUpdatesInParallel(TextChangeManager changeManager, IProgressMonitor pm, RefactoringStatus status) throws CoreException {
+		final IProgressMonitor monitor= new WorkerProgressMonitor(pm);
+		ExecutorService executor= Executors.newFixedThreadPool(MAX_THREADS);
+		try {
+			for (int start= 0; start < fCus.length; start+= WAVE_SIZE) {
+				int end= Math.min(start + WAVE_SIZE, fCus.length);
+				List<Future<UnitUpdates>> wave= new ArrayList<>(end - start);
+				for (int i= start; i < end; i++) {
+					final ICompilationUnit movedUnit= fCus[i];
+					if (isInAnotherFragmentOfSamePackage(movedUnit, fDestination)) {
+						wave.add(null);
+					} else {
+						wave.add(executor.submit(new Callable<UnitUpdates>() {
+							@Override
+							public UnitUpdates call() throws CoreException {
+								return computeUpdates(movedUnit, monitor);
+							}
+						}));
+					}
+				}
+				for (int i= start; i < end; i++) {
+					pm.subTask(Messages.format(RefactoringCoreMessages.MoveCuUpdateCreator_searching, BasicElementLabels.getFileName(fCus[i])));
+					Future<UnitUpdates> future= wave.get(i - start);
+					if (future != null)
+						applyUpdates(changeManager, fCus[i], getUpdates(future, pm), status);
+					pm.worked(1);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static UnitUpdates getUpdates(Future<UnitUpdates> future, IProgressMonitor pm) throws CoreException {
+		try {
+			while (true) {
+				if (pm.isCanceled())
+					throw new OperationCanceledException();
+				try {
+					return future.get(100, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// check for cancellation again
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new CoreException(JavaUIStatus.createError(IStatus.ERROR, cause));
+		}
+	}
+
+	/*
+	 * Only searches and reads the Java model, see UnitUpdates.
+	 */
+	private UnitUpdates computeUpdates(ICompilationUnit movedUnit, IProgressMonitor pm) throws CoreException {
+		RefactoringStatus status= new RefactoringStatus();
+		IType[] referencedTypes= ReferenceFinderUtil.getTypesReferencedIn(movedUnit.getAllTypes(), new SubProgressMonitor(pm, 1));
+		SearchResultGroup[] references= getReferences(movedUnit, new SubProgressMonitor(pm, 2), status);
+		return new UnitUpdates(referencedTypes, references, status);
+	}
+
+	private void applyUpdates(TextChangeManager changeManager, ICompilationUnit movedUnit, UnitUpdates updates, RefactoringStatus status) throws CoreException {
+		addImportToSourcePackageTypes(movedUnit, updates.fReferencedTypes);
+		removeImportsToDestinationPackageTypes(movedUnit);
+		addReferenceUpdates(changeManager, movedUnit, updates.fReferences);
+		status.merge(updates.fStatus);
+	}
+
+	private void addReferenceUpdates(TextChangeManager changeManager, ICompilationUnit movedUnit, SearchResultGroup[] references) throws JavaModelException, CoreException {
 		List<ICompilationUnit> cuList= Arrays.asList(fCus);
-		SearchResultGroup[] references= getReferences(movedUnit, pm, status);
 		for (int i= 0; i < references.length; i++) {
 			SearchResultGroup searchResultGroup= references[i];
 			ICompilationUnit referencingCu= searchResultGroup.getCompilationUnit();
@@ -228,6 +382,8 @@ public class MoveCuUpdateCreator {
 	}
 
 	private IType[] getDestinationPackageTypes() throws JavaModelException {
+		if (fDestinationTypes != null)
+			return fDestinationTypes;
 		List<IType> types= new ArrayList<>();
 		if (fDestination.exists()) {
 			ICompilationUnit[] cus= fDestination.getCompilationUnits();
@@ -235,13 +391,12 @@ public class MoveCuUpdateCreator {
 				types.addAll(Arrays.asList(cus[i].getAllTypes()));
 			}
 		}
-		return types.toArray(new IType[types.size()]);
+		fDestinationTypes= types.toArray(new IType[types.size()]);
+		return fDestinationTypes;
 	}
 
-	private void addImportToSourcePackageTypes(ICompilationUnit movedUnit, IProgressMonitor pm) throws CoreException{
+	private void addImportToSourcePackageTypes(ICompilationUnit movedUnit, IType[] referencedTypes) throws CoreException{
 		List<ICompilationUnit> cuList= Arrays.asList(fCus);
-		IType[] allCuTypes= movedUnit.getAllTypes();
-		IType[] referencedTypes= ReferenceFinderUtil.getTypesReferencedIn(allCuTypes, pm);
 		ImportRewrite importEdit= getImportRewrite(movedUnit);
 		importEdit.setFilterImplicitImports(false);
 		IPackageFragment srcPack= (IPackageFragment)movedUnit.getParent();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -105,6 +105,7 @@ import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.ParameterType
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.ReturnTypeVariable;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.SimpleTypeConstraint;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.TypeConstraintFactory;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.TypeConstraintsASTCache;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.TypeVariable;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.internal.corext.refactoring.util.ResourceUtil;
@@ -1291,7 +1292,7 @@ public class ChangeTypeRefactoring extends Refactoring {
 		if (fConstraintCache.containsKey(unit))
 			return fConstraintCache.get(unit);
 
-		CompilationUnit cu= ASTCreator.createAST(unit, null);
+		CompilationUnit cu= getAST(unit);
 
 		// only generate type constraints for relevant MethodDeclaration subtrees
 		if (fMethodBinding != null && fCuToSearchResultGroup.containsKey(unit)){
@@ -1394,11 +1395,24 @@ public class ChangeTypeRefactoring extends Refactoring {
 	 * @return ASTNode
 	 */
 	private ASTNode getTargetNode(ICompilationUnit unit, int offset, int length) {
-		CompilationUnit root= ASTCreator.createAST(unit, null);
+		CompilationUnit root= getAST(unit);
 		ASTNode node= NodeFinder.perform(root, offset, length);
 		return node;
 	}
 
+	/**
+	 * Returns a binding-resolved AST for the given compilation unit. The AST of the unit
+	 * containing the selection is shared across invocations, since the wizard is typically
+	 * opened repeatedly on declarations of the same file.
+	 * @param unit the compilation unit
+	 * @return the AST, which must not be modified
+	 */
+	private CompilationUnit getAST(ICompilationUnit unit) {
+		if (unit.equals(fCu))
+			return TypeConstraintsASTCache.getAST(unit);
+		return ASTCreator.createAST(unit, null);
+	}
+
 	/**
 	 * Determines the set of compilation units that may give rise to type constraints that
 	 * we are interested in. This involves searching for overriding/overridden methods,
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints;
+
+import java.lang.ref.SoftReference;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Session cache for the binding-resolved AST of the last compilation unit
+ * analyzed by a type constraints based refactoring (Generalize Declared Type).
+ * <p>
+ * Users typically invoke the refactoring several times on neighboring declarations
+ * of the same file. The cached AST is reused as long as the source of the compilation
+ * unit is unchanged and no Java model change or reconcile of a working copy has been
+ * reported since it was created, so that the bindings it holds cannot refer to stale
+ * declarations in other files.
+ * </p>
+ * <p>
+ * Only one AST is kept, and only softly referenced, so the binding environment is not
+ * pinned under memory pressure. The element changed listener is only registered while
+ * an AST is cached or being created, and is removed when the cache is cleared.
+ * </p>
+ */
+public final class TypeConstraintsASTCache {
+
+	private static final class Entry {
+		final ICompilationUnit fUnit;
+		final String fSource;
+		final CompilationUnit fAST;
+
+		Entry(ICompilationUnit unit, String source, CompilationUnit ast) {
+			fUnit= unit;
+			fSource= source;
+			fAST= ast;
+		}
+	}
+
+	private static final IElementChangedListener fgListener= new IElementChangedListener() {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			clear();
+		}
+	};
+
+	private static SoftReference<Entry> fgEntry;
+
+	/** Incremented whenever the cache is cleared */
+	private static int fgGeneration;
+
+	private static boolean fgListenerInstalled;
+
+	private TypeConstraintsASTCache() {
+		//private
+	}
+
+	/**
+	 * Returns a binding-resolved AST for the given compilation unit. The AST is shared
+	 * with other clients of this cache and must not be modified.
+	 *
+	 * @param unit the compilation unit
+	 * @return the AST, created by {@link ASTCreator#createAST(ICompilationUnit, org.eclipse.jdt.core.WorkingCopyOwner)}
+	 */
+	public static CompilationUnit getAST(ICompilationUnit unit) {
+		String source;
+		try {
+			source= unit.getSource();
+		} catch (JavaModelException e) {
+			return ASTCreator.createAST(unit, null);
+		}
+		if (source == null)
+			return ASTCreator.createAST(unit, null);
+
+		int generation;
+		synchronized (TypeConstraintsASTCache.class) {
+			if (!fgListenerInstalled) {
+				JavaCore.addElementChangedListener(fgListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				fgListenerInstalled= true;
+			}
+			Entry entry= fgEntry != null ? fgEntry.get() : null;
+			if (entry != null && entry.fUnit.equals(unit) && entry.fSource.equals(source))
+				return entry.fAST;
+			generation= fgGeneration;
+		}
+
+		// don't hold the lock while parsing; the listener may be notified concurrently
+		CompilationUnit ast= ASTCreator.createAST(unit, null);
+		synchronized (TypeConstraintsASTCache.class) {
+			// the AST may have been created from stale bindings if the cache has been cleared meanwhile
+			if (generation == fgGeneration)
+				fgEntry= new SoftReference<>(new Entry(unit, source, ast));
+		}
+		return ast;
+	}
+
+	/**
+	 * Discards the cached AST and stops listening to Java element changes.
+	 */
+	public static synchronized void clear() {
+		fgEntry= null;
+		fgGeneration++;
+		if (fgListenerInstalled) {
+			JavaCore.removeElementChangedListener(fgListener);
+			fgListenerInstalled= false;
+		}
+	}
+}
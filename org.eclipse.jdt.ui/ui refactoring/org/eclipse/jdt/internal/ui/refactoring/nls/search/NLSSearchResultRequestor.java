@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,8 +15,10 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
@@ -82,6 +84,15 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	private IFile fPropertiesFile;
 	private Properties fProperties;
 	private HashSet<String> fUsedPropertyNames;
+	/**
+	 * Start positions of the escaped property names in the property file, or
+	 * <code>null</code> if not computed yet.
+	 */
+	private Map<String, Integer> fPropertyNameStartPositions;
+
+	private ICompilationUnit fScannerUnit;
+	private String fScannerSource;
+	private IScanner fScanner;
 
 	public NLSSearchResultRequestor(IFile propertiesFile, NLSSearchResult result) {
 		fPropertiesFile= propertiesFile;
@@ -240,20 +251,10 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		if (unit == null)
 			return null;
 
-		String source= unit.getSource();
-		if (source == null)
+		IScanner scanner= getScanner(unit);
+		if (scanner == null)
 			return null;
-
-		IJavaProject javaProject= unit.getJavaProject();
-		IScanner scanner= null;
-		if (javaProject != null) {
-			String complianceLevel= javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
-			String sourceLevel= javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
-			scanner= ToolFactory.createScanner(false, false, false, sourceLevel, complianceLevel);
-		} else {
-			scanner= ToolFactory.createScanner(false, false, false, false);
-		}
-		scanner.setSource(source.toCharArray());
+		String source= fScannerSource;
 		scanner.resetTo(keyPositionResult.getOffset() + keyPositionResult.getLength(), source.length());
 
 		try {
@@ -323,6 +324,38 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		}
 	}
 
+	/**
+	 * Returns a scanner on the source of the given compilation unit. Matches are reported
+	 * grouped by compilation unit, so the scanner is reused for consecutive matches in the
+	 * same unit instead of copying the source for every match.
+	 *
+	 * @param unit the compilation unit
+	 * @return the scanner, or <code>null</code> if the unit has no source
+	 * @throws CoreException if the source cannot be accessed
+	 */
+	private IScanner getScanner(ICompilationUnit unit) throws CoreException {
+		if (unit.equals(fScannerUnit))
+			return fScanner;
+
+		fScannerSource= unit.getSource();
+		fScannerUnit= unit;
+		if (fScannerSource == null) {
+			fScanner= null;
+			return null;
+		}
+
+		IJavaProject javaProject= unit.getJavaProject();
+		if (javaProject != null) {
+			String complianceLevel= javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
+			String sourceLevel= javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
+			fScanner= ToolFactory.createScanner(false, false, false, sourceLevel, complianceLevel);
+		} else {
+			fScanner= ToolFactory.createScanner(false, false, false, false);
+		}
+		fScanner.setSource(fScannerSource.toCharArray());
+		return fScanner;
+	}
+
 	/**
 	 * Finds the start position in the property file. We assume that
 	 * the key is the first match on a line.
@@ -331,7 +364,22 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	 * @return	the start position of the property name in the file, -1 if not found
 	 */
 	private int findPropertyNameStartPosition(String propertyName) {
+		if (fPropertyNameStartPositions == null)
+			fPropertyNameStartPositions= computePropertyNameStartPositions();
+		Integer start= fPropertyNameStartPositions.get(propertyName);
+		return start != null ? start.intValue() : -1; //key not found in file. See bug 63794. This can happen if the key contains escaped characters.
+	}
+
+	/**
+	 * Reads the property file once and records the start position of the (escaped) key
+	 * on each line, so that reporting many keys does not rescan the file for every key.
+	 * The key is the first token of a line, terminated by whitespace or <code>'='</code>.
+	 *
+	 * @return a map from escaped property name to the start position of its first occurrence
+	 */
+	private Map<String, Integer> computePropertyNameStartPositions() {
 		// Fix for http://dev.eclipse.org/bugs/show_bug.cgi?id=19319
+		Map<String, Integer> result= new HashMap<>();
 		InputStream stream= null;
 		LineReader lineReader= null;
 		String encoding;
@@ -346,7 +394,7 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		} catch (CoreException cex) {
 			// failed to get input stream
 			JavaPlugin.log(cex);
-			return -1;
+			return result;
 		} catch (IOException e) {
 			if (stream != null) {
 				try {
@@ -355,36 +403,36 @@ class NLSSearchResultRequestor extends SearchRequestor {
 					JavaPlugin.log(ce);
 				}
 			}
-			return -1;
+			return result;
 		}
-		int start= 0;
+		int lineStart= 0;
 		try {
 			StringBuffer buf= new StringBuffer(80);
-			int eols= lineReader.readLine(buf);
-			int keyLength= propertyName.length();
-			while (eols > 0) {
-				String line= buf.toString();
-				int i= line.indexOf(propertyName);
-				int charPos= i + keyLength;
-				char terminatorChar= 0;
-				boolean hasNoValue= (charPos >= line.length());
-				if (i > -1 && !hasNoValue)
-					terminatorChar= line.charAt(charPos);
-				if (line.trim().startsWith(propertyName) &&
-						(hasNoValue || Character.isWhitespace(terminatorChar) || terminatorChar == '=')) {
-					start += line.indexOf(propertyName);
-					eols= -17; // found key
-				} else {
-					start += line.length() + eols;
-					buf.setLength(0);
-					eols= lineReader.readLine(buf);
+			int eols;
+			do {
+				eols= lineReader.readLine(buf);
+				int length= buf.length();
+				int keyStart= 0;
+				while (keyStart < length && buf.charAt(keyStart) <= ' ')
+					keyStart++;
+				int keyEnd= keyStart;
+				while (keyEnd < length) {
+					char ch= buf.charAt(keyEnd);
+					if (Character.isWhitespace(ch) || ch == '=')
+						break;
+					if (ch == '\\' && keyEnd + 1 < length)
+						keyEnd++;
+					keyEnd++;
 				}
-			}
-			if (eols != -17)
-				start= -1; //key not found in file. See bug 63794. This can happen if the key contains escaped characters.
+				if (keyEnd > keyStart) {
+					String propertyName= buf.substring(keyStart, keyEnd);
+					if (!result.containsKey(propertyName))
+						result.put(propertyName, Integer.valueOf(lineStart + keyStart));
+				}
+				lineStart+= length + eols;
+			} while (eols > 0);
 		} catch (IOException ex) {
 			JavaPlugin.log(ex);
-			return -1;
 		} finally {
 			try {
 				lineReader.close();
@@ -392,7 +440,7 @@ class NLSSearchResultRequestor extends SearchRequestor {
 				JavaPlugin.log(ex);
 			}
 		}
-		return start;
+		return result;
 	}
 
 	private void loadProperties() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -170,8 +170,13 @@ public class IndentAction extends TextEditorAction {
 						JavaIndenter indenter= new JavaIndenter(document, scanner, getJavaProject());
 						final boolean multiLine= nLines > 1;
 						boolean hasChanged= false;
-						for (int i= 0; i < nLines; i++) {
-							hasChanged |= indentLine(document, firstLine + i, offset, indenter, scanner, multiLine);
+						scanner.setBulkMode(multiLine);
+						try {
+							for (int i= 0; i < nLines; i++) {
+								hasChanged |= indentLine(document, firstLine + i, offset, indenter, scanner, multiLine);
+							}
+						} finally {
+							scanner.setBulkMode(false);
 						}
 
 						// update caret position: move to new position when indenting just one line
@@ -264,19 +269,24 @@ public class IndentAction extends TextEditorAction {
 		int numberOfLines= document.getLineOfOffset(offset + length - minusOne) - firstLine + 1;
 
 		int shift= 0;
-		for (int i= 0; i < numberOfLines; i++) {
-			ReplaceData data= computeReplaceData(document, firstLine + i, indenter, scanner, numberOfLines > 1, false, project);
-
-			int replaceLength= data.end - data.offset;
-			String currentIndent= document.get(data.offset, replaceLength);
-
-			// only change the document if it is a real change
-			if (!data.indent.equals(currentIndent)) {
-				edits.add(new ReplaceEdit(data.offset + shift, replaceLength, data.indent));
-				//We need to change the document, the indenter depends on it.
-				document.replace(data.offset, replaceLength, data.indent);
-				shift-= data.indent.length() - replaceLength;
+		scanner.setBulkMode(true);
+		try {
+			for (int i= 0; i < numberOfLines; i++) {
+				ReplaceData data= computeReplaceData(document, firstLine + i, indenter, scanner, numberOfLines > 1, false, project);
+
+				int replaceLength= data.end - data.offset;
+				String currentIndent= document.get(data.offset, replaceLength);
+
+				// only change the document if it is a real change
+				if (!data.indent.equals(currentIndent)) {
+					edits.add(new ReplaceEdit(data.offset + shift, replaceLength, data.indent));
+					//We need to change the document, the indenter depends on it.
+					document.replace(data.offset, replaceLength, data.indent);
+					shift-= data.indent.length() - replaceLength;
+				}
 			}
+		} finally {
+			scanner.setBulkMode(false);
 		}
 
 		if (edits.size() == 0)
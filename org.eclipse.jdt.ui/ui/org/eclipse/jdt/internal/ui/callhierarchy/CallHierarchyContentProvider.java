@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,8 @@
 package org.eclipse.jdt.internal.ui.callhierarchy;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -62,6 +64,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
 
     private DeferredTreeContentManager fManager;
     private CallHierarchyViewPart fPart;
+    private final CallHierarchyPrefetcher fPrefetcher= new CallHierarchyPrefetcher();
 
     private class MethodWrapperRunnable implements IRunnableWithProgress {
         private MethodWrapper fMethodWrapper;
@@ -397,9 +400,28 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
      */
     @Override
 	public void dispose() {
-        // Nothing to dispose
+        fPrefetcher.cancel();
     }
 
+	/**
+	 * Computes the calls of the given children of an expanded node in the background, so that
+	 * expanding one of them does not have to wait for its search.
+	 * 
+	 * @param children the children that have been added to the tree
+	 * @since 3.14
+	 */
+	void prefetch(Object[] children) {
+		List<MethodWrapper> wrappers= new ArrayList<>(children.length);
+		for (int i= 0; i < children.length; i++) {
+			if (children[i] instanceof MethodWrapper) {
+				MethodWrapper wrapper= (MethodWrapper) children[i];
+				if (wrapper.canHaveChildren() && !shouldStopTraversion(wrapper) && !isExpandWithConstructors(wrapper))
+					wrappers.add(wrapper);
+			}
+		}
+		fPrefetcher.prefetch(wrappers.toArray(new MethodWrapper[wrappers.size()]));
+	}
+
     /**
 	 * @see org.eclipse.jface.viewers.ITreeContentProvider#hasChildren(java.lang.Object)
 	 */
@@ -441,6 +463,7 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
     		MethodWrapper[] roots = ((TreeRoot) oldInput).getRoots();
    			cancelJobs(roots);
     	}
+    	fPrefetcher.cancel();
         if (viewer instanceof AbstractTreeViewer) {
             fManager = new DeferredTreeContentManager((AbstractTreeViewer) viewer, fPart.getSite());
         }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.callhierarchy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyCache;
+import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Computes the calls of sibling nodes in the background after their parent has been expanded, so
+ * that expanding one of them is answered from the {@link CallHierarchyCache}. Searches run
+ * concurrently on a bounded number of low priority jobs.
+ *
+ * @since 3.14
+ */
+class CallHierarchyPrefetcher {
+
+	private static final int MAX_WORKERS= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	private class PrefetchJob extends Job {
+
+		PrefetchJob() {
+			super(CallHierarchyMessages.CallHierarchyPrefetcher_job_name);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+			// also called for jobs that are canceled before they run
+			addJobChangeListener(new JobChangeAdapter() {
+				@Override
+				public void done(IJobChangeEvent event) {
+					synchronized (CallHierarchyPrefetcher.this) {
+						fWorkers--;
+						// requests added while the last worker was finishing
+						if (fWorkers == 0 && !fQueue.isEmpty()) {
+							fWorkers++;
+							new PrefetchJob().schedule();
+						}
+					}
+				}
+			});
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			MethodWrapper wrapper;
+			while ((wrapper= fQueue.poll()) != null) {
+				if (monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				try {
+					wrapper.prefetchCalls(monitor);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} catch (RuntimeException e) {
+					JavaPlugin.log(e);
+				}
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == CallHierarchyPrefetcher.this;
+		}
+	}
+
+	private final ConcurrentLinkedQueue<MethodWrapper> fQueue= new ConcurrentLinkedQueue<>();
+	private int fWorkers;
+
+	/**
+	 * Schedules the computation of the calls of the given wrappers.
+	 *
+	 * @param wrappers the method wrappers
+	 */
+	void prefetch(MethodWrapper[] wrappers) {
+		if (wrappers.length == 0)
+			return;
+		for (int i= 0; i < wrappers.length; i++)
+			fQueue.add(wrappers[i]);
+
+		synchronized (this) {
+			int workers= Math.min(MAX_WORKERS, wrappers.length);
+			while (fWorkers < workers) {
+				fWorkers++;
+				new PrefetchJob().schedule();
+			}
+		}
+	}
+
+	/**
+	 * Discards pending requests and cancels running searches.
+	 */
+	void cancel() {
+		fQueue.clear();
+		Job.getJobManager().cancel(this);
+	}
+}
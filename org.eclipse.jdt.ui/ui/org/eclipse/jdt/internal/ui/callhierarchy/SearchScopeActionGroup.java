@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,11 +14,14 @@
 package org.eclipse.jdt.internal.ui.callhierarchy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.resources.ResourcesPlugin;
+
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -32,12 +35,18 @@ import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.actions.ActionGroup;
 
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.IContextMenuConstants;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 class SearchScopeActionGroup extends ActionGroup {
 	private static final String TAG_SEARCH_SCOPE_TYPE= "search_scope_type"; //$NON-NLS-1$
 	private static final String TAG_SELECTED_WORKING_SET= "working_set"; //$NON-NLS-1$
@@ -58,6 +67,8 @@ class SearchScopeActionGroup extends ActionGroup {
 	private SearchScopeProjectAction fSearchScopeProjectAction;
 	private SearchScopeWorkspaceAction fSearchScopeWorkspaceAction;
 	private SelectWorkingSetAction fSelectWorkingSetAction;
+	private IJavaSearchScope fSearchScope;
+	private List<Object> fSearchScopeKey;
 
 	public SearchScopeActionGroup(CallHierarchyViewPart view, IDialogSettings dialogSettings) {
 		this.fView= view;
@@ -74,12 +85,50 @@ class SearchScopeActionGroup extends ActionGroup {
 	 */
 	public IJavaSearchScope getSearchScope(int includeMask) {
 		if (fSelectedAction != null) {
-			return fSelectedAction.getSearchScope(includeMask);
+			List<Object> key= getSearchScopeKey(includeMask);
+			if (!key.equals(fSearchScopeKey)) {
+				fSearchScope= fSelectedAction.getSearchScope(includeMask);
+				fSearchScopeKey= key;
+			}
+			return fSearchScope;
 		}
 
 		return null;
 	}
 
+	/*
+	 * The scope is reused as long as this key does not change, so that CallHierarchy keeps the
+	 * calls it has cached for the scope.
+	 */
+	private List<Object> getSearchScopeKey(int includeMask) {
+		List<Object> key= new ArrayList<>();
+		key.add(fSelectedAction);
+		key.add(Integer.valueOf(includeMask));
+		if (fSelectedAction instanceof SearchScopeWorkingSetAction) {
+			IWorkingSet[] workingSets= ((SearchScopeWorkingSetAction) fSelectedAction).getWorkingSets();
+			for (int i= 0; i < workingSets.length; i++) {
+				key.add(Arrays.asList(workingSets[i].getElements()));
+			}
+		} else if (fSelectedAction instanceof SearchScopeProjectAction) {
+			IMember[] members= fView.getInputElements();
+			Set<IJavaProject> projects= new HashSet<>();
+			if (members != null) {
+				for (int i= 0; i < members.length; i++) {
+					projects.add(members[i].getJavaProject());
+				}
+			}
+			key.add(projects);
+		} else {
+			try {
+				key.add(Arrays.asList(JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()));
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+				key.add(new Object());
+			}
+		}
+		return key;
+	}
+
 	@Override
 	public void fillActionBars(IActionBars actionBars) {
 		super.fillActionBars(actionBars);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -96,6 +96,7 @@ import org.eclipse.jdt.internal.corext.util.Strings;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoRequestorAdapter;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchIndex;
 
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.IVMInstallType;
@@ -500,9 +501,17 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	protected void fillContentProvider(AbstractContentProvider provider, ItemsFilter itemsFilter, IProgressMonitor progressMonitor) throws CoreException {
 		TypeItemsFilter typeSearchFilter= (TypeItemsFilter) itemsFilter;
 		TypeSearchRequestor requestor= new TypeSearchRequestor(provider, typeSearchFilter);
+		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
+
+		/*
+		 * The index only reports candidates, which are filtered when they
+		 * are added to the content provider.
+		 */
+		if (TypeNameMatchIndex.getInstance().searchTypeNames(typeSearchFilter.getTypeInfoFilter(), requestor, progressMonitor))
+			return;
+
 		SearchEngine engine= new SearchEngine((WorkingCopyOwner) null);
 		String packPattern= typeSearchFilter.getPackagePattern();
-		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
 
 		/*
 		 * Setting the filter into match everything mode avoids filtering twice
@@ -600,6 +609,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			return fgFirstTime || history.isEmpty() || history.needConsistencyCheck();
 		}
 		private void refreshSearchIndices(IProgressMonitor monitor) throws InvocationTargetException {
+			// the search indices were ready when the type name index was built
+			if (TypeNameMatchIndex.getInstance().isUpToDate())
+				return;
 			try {
 				new SearchEngine().searchAllTypeNames(
 						null,
@@ -1042,6 +1054,10 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			return fMyTypeFilterVersion;
 		}
 
+		public TypeInfoFilter getTypeInfoFilter() {
+			return fTypeInfoFilter;
+		}
+
 		public String getNamePattern() {
 			return fTypeInfoFilter.getNamePattern();
 		}
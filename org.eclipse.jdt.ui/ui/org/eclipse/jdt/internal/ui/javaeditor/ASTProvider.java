@@ -218,6 +218,8 @@ public final class ASTProvider implements IASTSharedValues {
 			javaElement= ((JavaEditor)editor).getInputJavaElement();
 
 		synchronized (this) {
+			if (fActiveEditor instanceof JavaEditor && fActiveEditor != editor)
+				((JavaEditor)fActiveEditor).disposeOccurrencesTable();
 			fActiveEditor= editor;
 			INSTANCE.setActiveJavaElement(javaElement);
 			INSTANCE.cache(null, javaElement);
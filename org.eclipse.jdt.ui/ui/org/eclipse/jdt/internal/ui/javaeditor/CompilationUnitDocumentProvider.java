@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,9 +18,11 @@ import java.io.Reader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.GC;
@@ -672,11 +674,21 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 				fPreviouslyOverlaid= fCurrentlyOverlaid;
 				fCurrentlyOverlaid= new ArrayList<>();
 
-				if (fGeneratedAnnotations.size() > 0) {
+				Map<IProblem, ProblemAnnotation> unchanged= findUnchangedSpellingAnnotations(reportedProblems);
+				if (fGeneratedAnnotations.size() > unchanged.size()) {
 					temporaryProblemsChanged= true;
-					removeAnnotations(fGeneratedAnnotations, false, true);
-					fGeneratedAnnotations.clear();
+					Set<ProblemAnnotation> kept= new HashSet<>(unchanged.values());
+					List<ProblemAnnotation> removed= new ArrayList<>(fGeneratedAnnotations.size() - kept.size());
+					for (Iterator<ProblemAnnotation> iter= fGeneratedAnnotations.iterator(); iter.hasNext();) {
+						ProblemAnnotation annotation= iter.next();
+						if (!kept.contains(annotation))
+							removed.add(annotation);
+					}
+					removeAnnotations(removed, false, true);
 				}
+				fGeneratedAnnotations.clear();
+				// track kept annotations up front, so that they are removed later even if reporting is canceled
+				fGeneratedAnnotations.addAll(unchanged.values());
 
 				if (reportedProblems != null && reportedProblems.size() > 0) {
 
@@ -689,6 +701,12 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 						}
 
 						IProblem problem= e.next();
+						ProblemAnnotation unchangedAnnotation= unchanged.get(problem);
+						if (unchangedAnnotation != null) {
+							overlayMarkers(getPosition(unchangedAnnotation), unchangedAnnotation);
+							continue;
+						}
+
 						Position position= createPositionFromProblem(problem);
 						if (position != null) {
 
@@ -714,6 +732,48 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 				fireModelChanged();
 		}
 
+		/**
+		 * Finds the spelling annotations that can be kept for the given problems, so that
+		 * re-reporting unchanged spelling problems does not remove and add their annotations.
+		 * An annotation can be kept if its problem has the same range and message as a reported
+		 * problem and its position still covers that range.
+		 *
+		 * @param reportedProblems the problems to report, can be <code>null</code>
+		 * @return a map from reported problem to the annotation that is kept for it
+		 * @since 3.14
+		 */
+		private Map<IProblem, ProblemAnnotation> findUnchangedSpellingAnnotations(List<IProblem> reportedProblems) {
+			Map<IProblem, ProblemAnnotation> unchanged= new HashMap<>();
+			if (reportedProblems == null || reportedProblems.isEmpty() || fGeneratedAnnotations.isEmpty())
+				return unchanged;
+
+			Map<String, ProblemAnnotation> existing= new HashMap<>();
+			for (Iterator<ProblemAnnotation> iter= fGeneratedAnnotations.iterator(); iter.hasNext();) {
+				ProblemAnnotation annotation= iter.next();
+				IProblem problem= annotation.fProblem;
+				if (problem.getID() != JavaSpellingReconcileStrategy.SPELLING_PROBLEM_ID || annotation.isMarkedDeleted())
+					continue;
+				Position position= getPosition(annotation);
+				if (position == null || position.isDeleted() || position.getOffset() != problem.getSourceStart() || position.getLength() != problem.getSourceEnd() - problem.getSourceStart() + 1)
+					continue;
+				existing.put(getSpellingProblemKey(problem), annotation);
+			}
+
+			for (Iterator<IProblem> iter= reportedProblems.iterator(); iter.hasNext() && !existing.isEmpty();) {
+				IProblem problem= iter.next();
+				if (problem.getID() != JavaSpellingReconcileStrategy.SPELLING_PROBLEM_ID)
+					continue;
+				ProblemAnnotation annotation= existing.remove(getSpellingProblemKey(problem));
+				if (annotation != null)
+					unchanged.put(problem, annotation);
+			}
+			return unchanged;
+		}
+
+		private static String getSpellingProblemKey(IProblem problem) {
+			return problem.getSourceStart() + ":" + problem.getSourceEnd() + ":" + problem.getMessage(); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
 		private void removeMarkerOverlays(boolean isCanceled) {
 			if (isCanceled) {
 				fCurrentlyOverlaid.addAll(fPreviouslyOverlaid);
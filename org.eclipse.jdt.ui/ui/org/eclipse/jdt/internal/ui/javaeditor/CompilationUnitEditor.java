@@ -1690,6 +1690,10 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 			listener.reconciled(ast, forced, progressMonitor);
 		}
 
+		// Index the AST for mark occurrences
+		if (!progressMonitor.isCanceled())
+			prepareOccurrencesTable(ast);
+
 		// Update Java Outline page selection
 		if (!forced && !progressMonitor.isCanceled()) {
 			Shell shell= getSite().getShell();
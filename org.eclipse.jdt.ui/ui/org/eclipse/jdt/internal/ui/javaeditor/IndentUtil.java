@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -93,8 +93,13 @@ public final class IndentUtil {
 		JavaIndenter indenter= new JavaIndenter(document, scanner, project);
 		boolean changed= false;
 		int tabSize= CodeFormatterUtil.getTabWidth(project);
-		for (int line= lines.getStartLine(), last= line + numberOfLines, i= 0; line < last; line++) {
-			changed |= indentLine(document, line, indenter, scanner, result.commentLinesAtColumnZero, i++, tabSize);
+		scanner.setBulkMode(numberOfLines > 1);
+		try {
+			for (int line= lines.getStartLine(), last= line + numberOfLines, i= 0; line < last; line++) {
+				changed |= indentLine(document, line, indenter, scanner, result.commentLinesAtColumnZero, i++, tabSize);
+			}
+		} finally {
+			scanner.setBulkMode(false);
 		}
 		result.hasChanged= changed;
 
@@ -186,11 +186,12 @@ import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.util.IModifierConstants;
 
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
-import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesTable;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 import org.eclipse.jdt.ui.IContextMenuConstants;
@@ -1230,8 +1231,10 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		 */
 		@Override
 		public void windowDeactivated(IWorkbenchWindow window) {
-			if (window == getEditorSite().getWorkbenchWindow() && fMarkOccurrenceAnnotations && isActivePart())
+			if (window == getEditorSite().getWorkbenchWindow() && fMarkOccurrenceAnnotations && isActivePart()) {
 				removeOccurrenceAnnotations();
+				disposeOccurrencesTable();
+			}
 		}
 
 		/*
@@ -1677,6 +1680,12 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 	private OccurrencesFinderJob fOccurrencesFinderJob;
 	/** The occurrences finder job canceler */
 	private OccurrencesFinderJobCanceler fOccurrencesFinderJobCanceler;
+	/**
+	 * The table answering occurrence queries for the most recent AST, or <code>null</code>.
+	 * Only kept while this editor is the active Java editor, whose AST is shared anyway.
+	 * @since 3.14
+	 */
+	private volatile OccurrencesTable fOccurrencesTable;
 	/**
 	 * This editor's projection support
 	 * @since 3.0
@@ -3361,10 +3370,7 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		if (locations == null && selectedNode instanceof Name) {
 			IBinding binding= ((Name)selectedNode).resolveBinding();
 			if (binding != null && markOccurrencesOfType(binding)) {
-				OccurrencesFinder finder= new OccurrencesFinder();
-				if (finder.initialize(astRoot, selectedNode) == null) {
-					locations= finder.getOccurrences();
-				}
+				locations= getOccurrencesTable(astRoot).getOccurrences((Name)selectedNode);
 			}
 		}
 
@@ -3383,6 +3389,51 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		fOccurrencesFinderJob.run(new NullProgressMonitor());
 	}
 
+	/**
+	 * Returns the occurrences table for the given AST. If this is the active Java editor, the
+	 * table replaces the one of the previous AST.
+	 *
+	 * @param astRoot the compilation unit AST
+	 * @return the occurrences table
+	 * @since 3.14
+	 */
+	OccurrencesTable getOccurrencesTable(CompilationUnit astRoot) {
+		OccurrencesTable table= fOccurrencesTable;
+		if (table == null || table.getASTRoot() != astRoot) {
+			table= new OccurrencesTable(astRoot);
+			if (isActiveJavaEditor())
+				fOccurrencesTable= table;
+		}
+		return table;
+	}
+
+	/**
+	 * Drops the occurrences table, so that the AST it was built for can be garbage collected.
+	 * Called when this editor is no longer the active Java editor.
+	 *
+	 * @since 3.14
+	 */
+	void disposeOccurrencesTable() {
+		fOccurrencesTable= null;
+	}
+
+	private boolean isActiveJavaEditor() {
+		ITypeRoot inputJavaElement= getInputJavaElement();
+		return inputJavaElement != null && inputJavaElement.equals(CoreASTProvider.getInstance().getActiveJavaElement());
+	}
+
+	/**
+	 * Builds the occurrences table for a new AST, so that marking occurrences after the next
+	 * caret move does not have to traverse the AST. Called in the reconciler thread.
+	 *
+	 * @param astRoot the reconciled compilation unit AST, may be <code>null</code>
+	 * @since 3.14
+	 */
+	void prepareOccurrencesTable(CompilationUnit astRoot) {
+		if (astRoot != null && fMarkOccurrenceAnnotations && isActiveJavaEditor())
+			getOccurrencesTable(astRoot).build();
+	}
+
 	protected void installOccurrencesFinder(boolean forceUpdate) {
 		fMarkOccurrenceAnnotations= true;
 
@@ -3425,6 +3476,8 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 			fOccurrencesFinderJobCanceler= null;
 		}
 
+		fOccurrencesTable= null;
+
 		if (fPostSelectionListenerWithAST != null) {
 			SelectionListenerWithASTManager.getDefault().removeListener(this, fPostSelectionListenerWithAST);
 			fPostSelectionListenerWithAST= null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 package org.eclipse.jdt.internal.ui.search;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.DND;
@@ -57,6 +59,7 @@ import org.eclipse.ui.views.navigator.LocalSelectionTransfer;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import org.eclipse.search.ui.IContextMenuConstants;
+import org.eclipse.search.ui.ISearchResult;
 import org.eclipse.search.ui.ISearchResultViewPart;
 import org.eclipse.search.ui.NewSearchUI;
 import org.eclipse.search.ui.text.AbstractTextSearchResult;
@@ -135,6 +138,15 @@ public class JavaSearchResultPage extends AbstractTextSearchViewPage implements
 	private static final String GROUP_GROUPING= "org.eclipse.jdt.search.resultpage.grouping"; //$NON-NLS-1$
 	private static final String GROUP_FILTERING = "org.eclipse.jdt.search.resultpage.filtering"; //$NON-NLS-1$
 
+	/**
+	 * Maximum time in milliseconds spent updating the viewer before yielding to the event loop.
+	 */
+	private static final long UPDATE_BUDGET= 50;
+	/**
+	 * Number of changed elements passed to the content provider at once.
+	 */
+	private static final int UPDATE_CHUNK_SIZE= 200;
+
 	private NewSearchViewActionGroup fActionGroup;
 	private JavaSearchContentProvider fContentProvider;
 	private int fCurrentSortOrder;
@@ -153,6 +165,13 @@ public class JavaSearchResultPage extends AbstractTextSearchViewPage implements
 
 	private int fCurrentGrouping;
 
+	/**
+	 * Changed elements that have not been passed to the content provider yet, in the order
+	 * in which they were reported. Only accessed in the UI thread.
+	 */
+	private final LinkedHashSet<Object> fPendingElements= new LinkedHashSet<>();
+	private boolean fPendingUpdateScheduled;
+
 	private static final String[] SHOW_IN_TARGETS= new String[] { JavaUI.ID_PACKAGES , JavaPlugin.ID_RES_NAV };
 	public static final IShowInTargetList SHOW_IN_TARGET_LIST= new IShowInTargetList() {
 		@Override
@@ -303,14 +322,67 @@ public class JavaSearchResultPage extends AbstractTextSearchViewPage implements
 		super.dispose();
 	}
 
+	@Override
+	public void setInput(ISearchResult newSearch, Object viewState) {
+		fPendingElements.clear();
+		super.setInput(newSearch, viewState);
+	}
+
 	@Override
 	protected void elementsChanged(Object[] objects) {
-		if (fContentProvider != null)
-			fContentProvider.elementsChanged(objects);
+		if (fContentProvider == null)
+			return;
+		for (int i= 0; i < objects.length; i++)
+			fPendingElements.add(objects[i]);
+		processPendingElements();
+	}
+
+	/**
+	 * Passes the pending changed elements to the content provider in chunks, until all are
+	 * processed or {@link #UPDATE_BUDGET} is used up. The rest is processed in a later runnable,
+	 * so that the UI stays responsive while a search reports many matches.
+	 */
+	private void processPendingElements() {
+		if (fContentProvider == null) {
+			fPendingElements.clear();
+			return;
+		}
+		long start= System.currentTimeMillis();
+		while (!fPendingElements.isEmpty()) {
+			int size= Math.min(UPDATE_CHUNK_SIZE, fPendingElements.size());
+			Object[] chunk= new Object[size];
+			Iterator<Object> iter= fPendingElements.iterator();
+			for (int i= 0; i < size; i++) {
+				chunk[i]= iter.next();
+				iter.remove();
+			}
+			fContentProvider.elementsChanged(chunk);
+			if (System.currentTimeMillis() - start >= UPDATE_BUDGET)
+				break;
+		}
+		if (!fPendingElements.isEmpty() && !fPendingUpdateScheduled) {
+			final StructuredViewer viewer= getViewer();
+			if (viewer == null || viewer.getControl().isDisposed()) {
+				fPendingElements.clear();
+				return;
+			}
+			fPendingUpdateScheduled= true;
+			viewer.getControl().getDisplay().asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					fPendingUpdateScheduled= false;
+					if (viewer.getControl().isDisposed())
+						fPendingElements.clear();
+					else
+						processPendingElements();
+				}
+			});
+		}
 	}
 
 	@Override
 	protected void clear() {
+		fPendingElements.clear();
 		if (fContentProvider != null)
 			fContentProvider.clear();
 	}
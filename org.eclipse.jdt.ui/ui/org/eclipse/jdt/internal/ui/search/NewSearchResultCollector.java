@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.search.ui.text.AbstractTextSearchResult;
+import org.eclipse.search.ui.text.Match;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.search.FieldDeclarationMatch;
@@ -24,14 +32,51 @@ import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
+/**
+ * Collects the matches reported by the search engine into an {@link AbstractTextSearchResult}.
+ * <p>
+ * Matches are buffered and added with {@link AbstractTextSearchResult#addMatches(Match[])}, so that
+ * listeners receive one event per batch instead of one per match. A batch is flushed when it is
+ * full, in {@link #endReporting()}, and by a job {@link #FLUSH_INTERVAL} milliseconds after the
+ * first match of a batch has been buffered, so that the results of slow searches still show up
+ * progressively even if no further match is reported. The flush job belongs to the family of
+ * its collector.
+ * </p>
+ * <p>
+ * A collector must not be shared between concurrent searches.
+ * </p>
+ */
 public class NewSearchResultCollector extends SearchRequestor {
+
+	private static final int BATCH_SIZE= 500;
+	/**
+	 * Maximum time in milliseconds that a match stays in the buffer before it is added to the result.
+	 */
+	private static final long FLUSH_INTERVAL= 200;
+
 	private AbstractTextSearchResult fSearch;
 	private boolean fIgnorePotentials;
+	private final List<Match> fBuffer;
+	private final Job fFlushJob;
 
 	public NewSearchResultCollector(AbstractTextSearchResult search, boolean ignorePotentials) {
 		super();
 		fSearch= search;
 		fIgnorePotentials= ignorePotentials;
+		fBuffer= new ArrayList<>(BATCH_SIZE);
+		fFlushJob= new Job(SearchMessages.NewSearchResultCollector_flush_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == NewSearchResultCollector.this;
+			}
+		};
+		fFlushJob.setSystem(true);
 	}
 
 	@Override
@@ -60,16 +105,59 @@ public class NewSearchResultCollector extends SearchRequestor {
 				MethodReferenceMatch methodRef= (MethodReferenceMatch) match;
 				isSuperInvocation= methodRef.isSuperInvocation();
 			}
-			fSearch.addMatch(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			addMatch(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+		}
+	}
+
+	private void addMatch(Match match) {
+		Match[] batch= null;
+		synchronized (fBuffer) {
+			if (fBuffer.isEmpty())
+				fFlushJob.schedule(FLUSH_INTERVAL);
+			fBuffer.add(match);
+			if (fBuffer.size() >= BATCH_SIZE)
+				batch= takeBuffer();
+		}
+		if (batch != null) {
+			fFlushJob.cancel();
+			fSearch.addMatches(batch);
+		}
+	}
+
+	/**
+	 * Adds the buffered matches to the search result.
+	 */
+	public void flush() {
+		Match[] batch;
+		synchronized (fBuffer) {
+			batch= takeBuffer();
 		}
+		if (batch.length > 0)
+			fSearch.addMatches(batch);
+	}
+
+	private Match[] takeBuffer() {
+		Match[] batch= fBuffer.toArray(new Match[fBuffer.size()]);
+		fBuffer.clear();
+		return batch;
 	}
 
 	@Override
 	public void beginReporting() {
 	}
 
+	/*
+	 * Waits for a running flush, so that no match is added after reporting has ended.
+	 */
 	@Override
 	public void endReporting() {
+		fFlushJob.cancel();
+		try {
+			fFlushJob.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -261,6 +261,7 @@ public final class SearchMessages extends NLS {
 	public static String BreakContinueTargetFinder_no_break_or_continue_selected;
 	public static String BreakContinueTargetFinder_occurrence_description;
 	public static String TextSearchLabelProvider_matchCountFormat;
+	public static String NewSearchResultCollector_flush_job_name;
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, SearchMessages.class);
 	}
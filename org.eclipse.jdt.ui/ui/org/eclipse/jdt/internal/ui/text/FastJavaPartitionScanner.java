@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.ui.text;
 
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.rules.ICharacterScanner;
 import org.eclipse.jface.text.rules.IPartitionTokenScanner;
@@ -23,6 +24,11 @@ import org.eclipse.jdt.ui.text.IJavaPartitions;
 /**
  * This scanner recognizes the JavaDoc comments, Java multi line comments, Java single line comments,
  * Java strings and Java characters.
+ * <p>
+ * The scanner reads the document in blocks into a character buffer. Runs of characters that cannot
+ * end the current token are consumed directly from the buffer, without going through the state
+ * machine for every character.
+ * </p>
  */
 public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPartitions {
 
@@ -43,8 +49,24 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 	private static final int STAR= 5; // postfix for MULTI_LINE_COMMENT or JAVADOC
 	private static final int CARRIAGE_RETURN=6; // postfix for STRING, CHARACTER and SINGLE_LINE_COMMENT
 
-	/** The scanner. */
-	private final BufferedDocumentScanner fScanner= new BufferedDocumentScanner(1000);	// faster implementation
+	/**
+	 * Size of the character buffer.
+	 * @since 3.14
+	 */
+	private static final int BUFFER_SIZE= 8192;
+
+	/** The document being scanned. */
+	private IDocument fDocument;
+	/** The end offset of the document range to scan. */
+	private int fRangeEnd;
+	/** The buffer. */
+	private final char[] fBuffer= new char[BUFFER_SIZE];
+	/** The offset of the buffer within the document. */
+	private int fBufferOffset;
+	/** The valid length of the buffer. */
+	private int fBufferLength;
+	/** The offset of the next character within the buffer. */
+	private int fBufferIndex;
 
 	/** The offset of the last returned token. */
 	private int fTokenOffset;
@@ -101,7 +123,10 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 		fTokenLength= fPrefixLength;
 
 		while (true) {
-			final int ch= fScanner.read();
+			if (fLast == NONE)
+				fTokenLength+= skip(fState);
+
+			final int ch= read();
 
 			// characters
 	 		switch (ch) {
@@ -416,6 +441,109 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 		}
 	}
 
+	/**
+	 * Reads the next character of the range.
+	 *
+	 * @return the character, or {@link ICharacterScanner#EOF}
+	 */
+	private final int read() {
+		if (fBufferIndex == fBufferLength && !fillBuffer())
+			return ICharacterScanner.EOF;
+		return fBuffer[fBufferIndex++];
+	}
+
+	/**
+	 * Fills the buffer with the next block of the range.
+	 *
+	 * @return <code>false</code> if the end of the range has been reached
+	 */
+	private boolean fillBuffer() {
+		int offset= fBufferOffset + fBufferLength;
+		int end= Math.min(fRangeEnd, fDocument.getLength());
+		if (offset >= end)
+			return false;
+
+		int length= Math.min(BUFFER_SIZE, end - offset);
+		try {
+			fDocument.get(offset, length).getChars(0, length, fBuffer, 0);
+		} catch (BadLocationException e) {
+			return false;
+		}
+		fBufferOffset= offset;
+		fBufferLength= length;
+		fBufferIndex= 0;
+		return true;
+	}
+
+	/**
+	 * Skips the characters that {@link #nextToken()} would just {@link #consume()} in the given
+	 * state. Must only be called if the last significant character is {@link #NONE}, since
+	 * otherwise the next character may complete a prefix or postfix.
+	 *
+	 * @param state the current state
+	 * @return the number of skipped characters
+	 * @since 3.14
+	 */
+	private int skip(int state) {
+		int skipped= 0;
+		while (fBufferIndex < fBufferLength || fillBuffer()) {
+			final char[] buffer= fBuffer;
+			final int end= fBufferLength;
+			final int start= fBufferIndex;
+			int i= start;
+			switch (state) {
+				case JAVA:
+					while (i < end) {
+						char ch= buffer[i];
+						if (ch == '/' || ch == '\'' || ch == '"' || ch == '\r' || ch == '\n')
+							break;
+						i++;
+					}
+					break;
+				case SINGLE_LINE_COMMENT:
+					while (i < end) {
+						char ch= buffer[i];
+						if (ch == '\r' || ch == '\n')
+							break;
+						i++;
+					}
+					break;
+				case MULTI_LINE_COMMENT:
+				case JAVADOC:
+					while (i < end) {
+						char ch= buffer[i];
+						if (ch == '*' || ch == '\r' || ch == '\n')
+							break;
+						i++;
+					}
+					break;
+				case STRING:
+					while (i < end) {
+						char ch= buffer[i];
+						if (ch == '"' || ch == '\\' || ch == '\r' || ch == '\n')
+							break;
+						i++;
+					}
+					break;
+				case CHARACTER:
+					while (i < end) {
+						char ch= buffer[i];
+						if (ch == '\'' || ch == '\\' || ch == '\r' || ch == '\n')
+							break;
+						i++;
+					}
+					break;
+				default:
+					return skipped;
+			}
+			skipped+= i - start;
+			fBufferIndex= i;
+			if (i < end)
+				break;
+		}
+		return skipped;
+	}
+
 	private final void consume() {
 		fTokenLength++;
 		fLast= NONE;
@@ -481,7 +609,7 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 	@Override
 	public void setPartialRange(IDocument document, int offset, int length, String contentType, int partitionOffset) {
 
-		fScanner.setRange(document, offset, length);
+		setBufferRange(document, offset, length);
 		fTokenOffset= partitionOffset;
 		fTokenLength= 0;
 		fPrefixLength= offset - partitionOffset;
@@ -507,7 +635,7 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 	@Override
 	public void setRange(IDocument document, int offset, int length) {
 
-		fScanner.setRange(document, offset, length);
+		setBufferRange(document, offset, length);
 		fTokenOffset= offset;
 		fTokenLength= 0;
 		fPrefixLength= 0;
@@ -521,6 +649,14 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 		}
 	}
 
+	private void setBufferRange(IDocument document, int offset, int length) {
+		fDocument= document;
+		fRangeEnd= offset + length;
+		fBufferOffset= offset;
+		fBufferLength= 0;
+		fBufferIndex= 0;
+	}
+
 	/*
 	 * @see ITokenScanner#getTokenLength()
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,16 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.Region;
@@ -243,6 +247,134 @@ public final class JavaHeuristicScanner implements Symbols {
 		}
 	}
 
+	/**
+	 * Table of the peer characters of one kind in the default partition, built by a single
+	 * forward pass over the document. For every peer, the table stores the index of the innermost
+	 * opening peer that is still open after it, so that the opening peer enclosing a position is
+	 * found without scanning backwards. The result is the same as the one of the backward search
+	 * in {@link JavaHeuristicScanner#findOpeningPeer(int, int, char, char)}.
+	 *
+	 * @since 3.14
+	 */
+	private final class PeerTable {
+		private final char fOpeningPeer;
+		private final char fClosingPeer;
+		/** The positions of the peers, in ascending order. */
+		private int[] fPositions= new int[64];
+		/** For each peer, the index of the innermost open peer after it, or <code>-1</code>. */
+		private int[] fOpen= new int[64];
+		private int fSize;
+		/** The end of the scanned part of the document. */
+		private int fEnd;
+
+		PeerTable(char openingPeer, char closingPeer) {
+			fOpeningPeer= openingPeer;
+			fClosingPeer= closingPeer;
+		}
+
+		boolean isFor(char openingPeer, char closingPeer) {
+			return fOpeningPeer == openingPeer && fClosingPeer == closingPeer;
+		}
+
+		/**
+		 * Returns the position of the innermost opening peer that is open at <code>start</code>.
+		 *
+		 * @param start the last position to consider
+		 * @return the position of the opening peer, or <code>NOT_FOUND</code>
+		 * @throws BadLocationException if the document is accessed outside its bounds
+		 */
+		int findOpeningPeer(int start) throws BadLocationException {
+			if (start >= fEnd)
+				scan(start + 1);
+			int index= indexOf(start + 1) - 1;
+			int open= index < 0 ? -1 : fOpen[index];
+			return open < 0 ? NOT_FOUND : fPositions[open];
+		}
+
+		/**
+		 * Discards the part of the table at or after the given position.
+		 *
+		 * @param position the position
+		 */
+		void truncate(int position) {
+			if (position < fEnd) {
+				fSize= indexOf(position);
+				fEnd= position;
+			}
+		}
+
+		/*
+		 * Returns the number of peers before the given position.
+		 */
+		private int indexOf(int position) {
+			int low= 0;
+			int high= fSize;
+			while (low < high) {
+				int mid= (low + high) >>> 1;
+				if (fPositions[mid] < position)
+					low= mid + 1;
+				else
+					high= mid;
+			}
+			return low;
+		}
+
+		private void scan(int end) throws BadLocationException {
+			ITypedRegion[] partitions= TextUtilities.computePartitioning(fDocument, fPartitioning, fEnd, end - fEnd, false);
+			for (int i= 0; i < partitions.length; i++) {
+				ITypedRegion partition= partitions[i];
+				if (!fPartition.equals(partition.getType()))
+					continue;
+				int offset= Math.max(partition.getOffset(), fEnd);
+				int length= Math.min(partition.getOffset() + partition.getLength(), end) - offset;
+				if (length <= 0)
+					continue;
+				String content= fDocument.get(offset, length);
+				for (int j= 0; j < length; j++) {
+					char ch= content.charAt(j);
+					if (ch == fOpeningPeer) {
+						add(offset + j, fSize);
+					} else if (ch == fClosingPeer) {
+						int open= fSize == 0 ? -1 : fOpen[fSize - 1];
+						// the peer that was open before the matching opening peer
+						add(offset + j, open <= 0 ? -1 : fOpen[open - 1]);
+					}
+				}
+			}
+			fEnd= end;
+		}
+
+		private void add(int position, int open) {
+			if (fSize == fPositions.length) {
+				fPositions= Arrays.copyOf(fPositions, fSize * 2);
+				fOpen= Arrays.copyOf(fOpen, fSize * 2);
+			}
+			fPositions[fSize]= position;
+			fOpen[fSize]= open;
+			fSize++;
+		}
+	}
+
+	/**
+	 * Discards the parts of the peer tables that are affected by a document change.
+	 *
+	 * @since 3.14
+	 */
+	private final class PeerTableUpdater implements IDocumentListener {
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+			// the change may turn the preceding character into the start of a comment
+			int position= Math.max(0, event.getOffset() - 1);
+			for (int i= 0; i < fPeerTables.size(); i++)
+				fPeerTables.get(i).truncate(position);
+		}
+
+		@Override
+		public void documentChanged(DocumentEvent event) {
+			fCachedPartition= new TypedRegion(-1, 0, "__no_partition_at_all"); //$NON-NLS-1$
+		}
+	}
+
 	/** The document being scanned. */
 	private final IDocument fDocument;
 	/** The partitioning being used for scanning. */
@@ -267,6 +399,17 @@ public final class JavaHeuristicScanner implements Symbols {
 	private final static StopCondition fNonWS= new NonWhitespace();
 	private final StopCondition fNonIdent= new NonJavaIdentifierPartDefaultPartition();
 
+	/**
+	 * The peer tables used in bulk mode, or <code>null</code> if not in bulk mode.
+	 * @since 3.14
+	 */
+	private List<PeerTable> fPeerTables;
+	/**
+	 * The listener that keeps the peer tables up to date in bulk mode.
+	 * @since 3.14
+	 */
+	private IDocumentListener fPeerTableUpdater;
+
 	/**
 	 * Creates a new instance.
 	 *
@@ -292,6 +435,41 @@ public final class JavaHeuristicScanner implements Symbols {
 		this(document, IJavaPartitions.JAVA_PARTITIONING, IDocument.DEFAULT_CONTENT_TYPE);
 	}
 
+	/**
+	 * Enables or disables bulk mode. In bulk mode, {@link #findOpeningPeer(int, int, char, char)}
+	 * answers from tables of the peer characters that are built with a single forward pass over
+	 * the document and kept up to date while the document changes, instead of scanning backwards.
+	 * This pays off when many positions of the same document are queried, e.g. when indenting a
+	 * whole file. Clients that enable bulk mode must disable it when done.
+	 *
+	 * @param bulk <code>true</code> to enable bulk mode, <code>false</code> to disable it
+	 * @since 3.14
+	 */
+	public void setBulkMode(boolean bulk) {
+		if (bulk == isBulkMode())
+			return;
+		if (bulk) {
+			fPeerTables= new ArrayList<>(4);
+			fPeerTableUpdater= new PeerTableUpdater();
+			fDocument.addDocumentListener(fPeerTableUpdater);
+		} else {
+			fDocument.removeDocumentListener(fPeerTableUpdater);
+			fPeerTableUpdater= null;
+			fPeerTables= null;
+		}
+	}
+
+	/**
+	 * Tells whether this scanner is in bulk mode.
+	 *
+	 * @return <code>true</code> if this scanner is in bulk mode
+	 * @see #setBulkMode(boolean)
+	 * @since 3.14
+	 */
+	public boolean isBulkMode() {
+		return fPeerTables != null;
+	}
+
 	/**
 	 * Returns the most recent internal scan position.
 	 *
@@ -614,6 +792,17 @@ public final class JavaHeuristicScanner implements Symbols {
 		Assert.isLegal(start < fDocument.getLength());
 
 		try {
+			if (fPeerTables != null) {
+				int peer= getPeerTable(openingPeer, closingPeer).findOpeningPeer(start);
+				if (peer != NOT_FOUND && (bound == UNBOUND || peer > bound)) {
+					fPos= peer;
+					fChar= openingPeer;
+					return peer;
+				}
+				fPos= bound == UNBOUND ? -1 : bound;
+				return NOT_FOUND;
+			}
+
 			final CharacterMatch match= new CharacterMatch(new char[] {openingPeer, closingPeer});
 			int depth= 1;
 			start += 1;
@@ -636,6 +825,25 @@ public final class JavaHeuristicScanner implements Symbols {
 		}
 	}
 
+	/**
+	 * Returns the peer table for the given peers, creating it if necessary.
+	 *
+	 * @param openingPeer the opening peer character
+	 * @param closingPeer the closing peer character
+	 * @return the peer table
+	 * @since 3.14
+	 */
+	private PeerTable getPeerTable(char openingPeer, char closingPeer) {
+		for (int i= 0; i < fPeerTables.size(); i++) {
+			PeerTable table= fPeerTables.get(i);
+			if (table.isFor(openingPeer, closingPeer))
+				return table;
+		}
+		PeerTable table= new PeerTable(openingPeer, closingPeer);
+		fPeerTables.add(table);
+		return table;
+	}
+
 	/**
 	 * Computes the surrounding block around <code>offset</code>. The search is started at the
 	 * beginning of <code>offset</code>, i.e. an opening brace at <code>offset</code> will not be
@@ -2155,6 +2155,8 @@ public final class JavaIndenter {
 	 *         otherwise
 	 */
 	private boolean skipScope(int openToken, int closeToken) {
+		if (fScanner.isBulkMode())
+			return skipScopeInBulkMode(openToken, closeToken);
 
 		int depth= 1;
 
@@ -2172,4 +2174,47 @@ public final class JavaIndenter {
 			}
 		}
 	}
+
+	/**
+	 * Does the same as {@link #skipScope(int, int)}, but looks up the opening peer in the peer
+	 * tables of the scanner instead of reading all tokens of the scope.
+	 *
+	 * @param openToken the opening peer token
+	 * @param closeToken the closing peer token
+	 * @return <code>true</code> if a matching token was found, <code>false</code>
+	 *         otherwise
+	 * @since 3.14
+	 */
+	private boolean skipScopeInBulkMode(int openToken, int closeToken) {
+		int start= fPosition;
+		int peer= fScanner.findOpeningPeer(start - 1, getPeerCharacter(openToken), getPeerCharacter(closeToken));
+		// leave the same state as reading the tokens one by one
+		nextToken(peer == JavaHeuristicScanner.NOT_FOUND ? 0 : peer + 1);
+		int next= fScanner.findNonWhitespaceForward(fPosition + (peer == JavaHeuristicScanner.NOT_FOUND ? 0 : 1), start);
+		fPreviousPos= next == JavaHeuristicScanner.NOT_FOUND ? start : next;
+		return peer != JavaHeuristicScanner.NOT_FOUND;
+	}
+
+	private static char getPeerCharacter(int token) {
+		switch (token) {
+			case Symbols.TokenLPAREN:
+				return '(';
+			case Symbols.TokenRPAREN:
+				return ')';
+			case Symbols.TokenLBRACKET:
+				return '[';
+			case Symbols.TokenRBRACKET:
+				return ']';
+			case Symbols.TokenLBRACE:
+				return '{';
+			case Symbols.TokenRBRACE:
+				return '}';
+			case Symbols.TokenLESSTHAN:
+				return '<';
+			case Symbols.TokenGREATERTHAN:
+				return '>';
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
 }
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Schedules the reconciles that {@link JavaReconciler}s force in response to Java model and
+ * problem marker changes.
+ * <p>
+ * Builds and team operations send many change events in a short time, each of which used to
+ * restart the reconciler of every affected editor. Requests are now collected for a short delay
+ * and each reconciler is forced at most once per batch, no matter how many requests it received.
+ * The scheduler also counts the requests that were coalesced this way and the reconciles that
+ * reconcilers skipped because the change cannot affect their editor, or because their editor was
+ * inactive. The counts are printed after each batch if the
+ * <code>org.eclipse.jdt.ui/debug/ReconcileScheduler</code> debug option is set.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class JavaReconcileScheduler {
+
+	/**
+	 * Time in milliseconds during which reconcile requests are collected.
+	 */
+	private static final long COALESCE_DELAY= 200;
+
+	private static JavaReconcileScheduler fgInstance;
+
+	private final Set<JavaReconciler> fPending= new LinkedHashSet<>();
+	private final Job fJob;
+	private int fScheduledCount;
+	private int fCoalescedCount;
+	private int fSkippedCount;
+	private int fForcedCount;
+	/**
+	 * Set once the plug-in has been stopped. Reconcilers that are uninstalled afterwards still
+	 * find this scheduler instead of creating a new one.
+	 */
+	private boolean fDisposed;
+
+	public static synchronized JavaReconcileScheduler getDefault() {
+		if (fgInstance == null)
+			fgInstance= new JavaReconcileScheduler();
+		return fgInstance;
+	}
+
+	private JavaReconcileScheduler() {
+		fJob= new Job(TextMessages.JavaReconcileScheduler_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				List<JavaReconciler> reconcilers;
+				synchronized (JavaReconcileScheduler.this) {
+					reconcilers= new ArrayList<>(fPending);
+					fPending.clear();
+				}
+				for (int i= 0; i < reconcilers.size(); i++) {
+					try {
+						reconcilers.get(i).forceReconciling();
+					} catch (RuntimeException e) {
+						JavaPlugin.log(e);
+					}
+				}
+				synchronized (JavaReconcileScheduler.this) {
+					fForcedCount+= reconcilers.size();
+					if (JavaPlugin.DEBUG_RECONCILE_SCHEDULER)
+						System.out.println("JavaReconcileScheduler - forced " + reconcilers.size() + " reconcilers, total: forced " + fForcedCount + ", requested " + fScheduledCount //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+								+ ", coalesced " + fCoalescedCount + ", skipped " + fSkippedCount); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		fJob.setSystem(true);
+	}
+
+	/**
+	 * Requests a forced reconcile of the given reconciler. The reconcile happens after a short
+	 * delay, together with other requests received in the meantime.
+	 *
+	 * @param reconciler the reconciler
+	 */
+	public void schedule(JavaReconciler reconciler) {
+		synchronized (this) {
+			if (fDisposed)
+				return;
+			fScheduledCount++;
+			if (!fPending.add(reconciler)) {
+				fCoalescedCount++;
+				return;
+			}
+		}
+		fJob.schedule(COALESCE_DELAY);
+	}
+
+	/**
+	 * Removes pending requests of the given reconciler, e.g. because it is being uninstalled.
+	 *
+	 * @param reconciler the reconciler
+	 */
+	public synchronized void cancel(JavaReconciler reconciler) {
+		fPending.remove(reconciler);
+	}
+
+	/**
+	 * Records that a reconciler did not request a reconcile for a change.
+	 */
+	public synchronized void skipped() {
+		fSkippedCount++;
+	}
+
+	/**
+	 * Returns the number of reconciles requested through {@link #schedule(JavaReconciler)}.
+	 *
+	 * @return the number of requests
+	 */
+	public synchronized int getScheduledCount() {
+		return fScheduledCount;
+	}
+
+	/**
+	 * Returns the number of requests that were merged with a pending request of the same
+	 * reconciler.
+	 *
+	 * @return the number of coalesced requests
+	 */
+	public synchronized int getCoalescedCount() {
+		return fCoalescedCount;
+	}
+
+	/**
+	 * Returns the number of reconciles that have been forced.
+	 *
+	 * @return the number of forced reconciles
+	 */
+	public synchronized int getForcedCount() {
+		return fForcedCount;
+	}
+
+	/**
+	 * Returns the number of changes for which reconcilers skipped a reconcile.
+	 *
+	 * @return the number of skipped reconciles
+	 */
+	public synchronized int getSkippedCount() {
+		return fSkippedCount;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		synchronized (fgInstance) {
+			fgInstance.fDisposed= true;
+			fgInstance.fPending.clear();
+		}
+		fgInstance.fJob.cancel();
+	}
+}
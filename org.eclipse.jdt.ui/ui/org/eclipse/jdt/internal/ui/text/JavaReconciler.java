@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@
 package org.eclipse.jdt.internal.ui.text;
 
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.eclipse.swt.events.ShellAdapter;
 import org.eclipse.swt.events.ShellEvent;
 import org.eclipse.swt.events.ShellListener;
@@ -46,11 +49,15 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import org.eclipse.ui.texteditor.spelling.SpellingService;
 
 import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.CompilationUnitEditor;
@@ -165,9 +172,50 @@ public class JavaReconciler extends MonoReconciler {
 			if (event.getDelta().getFlags() == IJavaElementDelta.F_AST_AFFECTED || canIgnore(event.getDelta().getAffectedChildren()))
 				return;
 
+			if (!canAffect(event.getDelta())) {
+				JavaReconcileScheduler.getDefault().skipped();
+				return;
+			}
+
 			setJavaModelChanged(true);
 			if (isEditorActive())
-				JavaReconciler.this.forceReconciling();
+				JavaReconcileScheduler.getDefault().schedule(JavaReconciler.this);
+			else
+				JavaReconcileScheduler.getDefault().skipped();
+		}
+
+		/**
+		 * Tells whether the given delta can affect the reconciled element, i.e. whether it
+		 * changes the element's project or a project on its classpath.
+		 *
+		 * @param delta the delta
+		 * @return <code>true</code> if the delta can affect the reconciled element
+		 * @since 3.14
+		 */
+		private boolean canAffect(IJavaElementDelta delta) {
+			IJavaElement element= delta.getElement();
+			if (element.getElementType() == IJavaElement.JAVA_MODEL) {
+				IJavaElementDelta[] children= delta.getAffectedChildren();
+				if (children.length == 0)
+					return true;
+				for (int i= 0; i < children.length; i++) {
+					if (canAffect(children[i]))
+						return true;
+				}
+				return false;
+			}
+
+			IJavaProject project= element.getJavaProject();
+			Set<String> classpathProjects= getClasspathProjectNames();
+			if (project == null || classpathProjects == null)
+				return true;
+			if (!classpathProjects.contains(project.getElementName()))
+				return false;
+
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0)
+				setClasspathProjectNames(null);
+			return true;
 		}
 
 		/**
@@ -233,7 +281,13 @@ public class JavaReconciler extends MonoReconciler {
 					int i= deltas.length;
 					while (--i >= 0) {
 						if (deltas[i].isSubtypeOf(IMarker.PROBLEM)) {
-							forceReconciling();
+							if (isEditorActive()) {
+								JavaReconcileScheduler.getDefault().schedule(JavaReconciler.this);
+							} else {
+								// reconcile when the editor gets activated
+								setJavaModelChanged(true);
+								JavaReconcileScheduler.getDefault().skipped();
+							}
 							return;
 						}
 					}
@@ -287,6 +341,13 @@ public class JavaReconciler extends MonoReconciler {
 	 */
 	private ITypeRoot fReconciledElement;
 
+	/**
+	 * The names of the projects on the classpath of the reconciled element's project, including
+	 * that project, or <code>null</code> if not yet computed.
+	 * @since 3.14
+	 */
+	private Set<String> fClasspathProjectNames;
+
 	/**
 	 * Creates a new reconciler.
 	 *
@@ -367,6 +428,7 @@ public class JavaReconciler extends MonoReconciler {
 
 		JavaCore.removeElementChangedListener(fJavaElementChangedListener);
 		fJavaElementChangedListener= null;
+		JavaReconcileScheduler.getDefault().cancel(this);
 
 		IWorkspace workspace= JavaPlugin.getWorkspace();
 		workspace.removeResourceChangeListener(fResourceChangeListener);
@@ -442,6 +504,43 @@ public class JavaReconciler extends MonoReconciler {
 		fHasJavaModelChanged= state;
 	}
 
+	/**
+	 * Returns the names of the projects on the classpath of the reconciled element's project,
+	 * including required projects of required projects and the project itself.
+	 *
+	 * @return the project names, or <code>null</code> if they cannot be determined
+	 * @since 3.14
+	 */
+	private synchronized Set<String> getClasspathProjectNames() {
+		if (fClasspathProjectNames == null) {
+			if (fReconciledElement == null)
+				return null;
+			Set<String> names= new HashSet<>();
+			try {
+				collectClasspathProjectNames(fReconciledElement.getJavaProject(), names);
+			} catch (JavaModelException e) {
+				return null;
+			}
+			fClasspathProjectNames= names;
+		}
+		return fClasspathProjectNames;
+	}
+
+	private synchronized void setClasspathProjectNames(Set<String> names) {
+		fClasspathProjectNames= names;
+	}
+
+	private static void collectClasspathProjectNames(IJavaProject project, Set<String> names) throws JavaModelException {
+		if (!names.add(project.getElementName()) || !project.exists())
+			return;
+		IClasspathEntry[] entries= project.getResolvedClasspath(true);
+		for (int i= 0; i < entries.length; i++) {
+			IClasspathEntry entry= entries[i];
+			if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT)
+				collectClasspathProjectNames(project.getJavaModel().getJavaProject(entry.getPath().segment(0)), names);
+		}
+	}
+
 	/**
 	 * Tells whether this reconciler's editor is active.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,7 @@ final class TextMessages extends NLS {
 	public static String JavaOutlineInformationControl_GoIntoTopLevelType_label;
 	public static String JavaOutlineInformationControl_GoIntoTopLevelType_tooltip;
 	public static String JavaOutlineInformationControl_GoIntoTopLevelType_description;
+	public static String JavaReconcileScheduler_job_name;
 
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, TextMessages.class);
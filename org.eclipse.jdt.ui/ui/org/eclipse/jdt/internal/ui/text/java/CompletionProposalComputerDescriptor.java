@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,6 +64,8 @@ final class CompletionProposalComputerDescriptor {
 	private static final String ACTIVATE= "activate"; //$NON-NLS-1$
 	/** The extension schema name of the needsSortingAfterFiltering attribute. */
 	private static final String NEEDS_SORTING_AFTER_FILTERING= "needsSortingAfterFiltering"; //$NON-NLS-1$
+	/** The extension schema name of the requiresUIThread attribute. */
+	private static final String REQUIRES_UI_THREAD= "requiresUIThread"; //$NON-NLS-1$
 	/** The extension schema name of the partition child elements. */
 	private static final String PARTITION= "partition"; //$NON-NLS-1$
 	/** Set of Java partition types. */
@@ -144,6 +146,13 @@ final class CompletionProposalComputerDescriptor {
 	 */
 	private boolean fNeedsSortingAfterFiltering;
 
+	/**
+	 * Tells whether the computer must be called in the UI thread.
+	 *
+	 * @since 3.14
+	 */
+	private final boolean fRequiresUIThread;
+
 
 	/**
 	 * Creates a new descriptor.
@@ -189,6 +198,9 @@ final class CompletionProposalComputerDescriptor {
 		String needsSortingAfterFilteringAttribute= element.getAttribute(NEEDS_SORTING_AFTER_FILTERING);
 		fNeedsSortingAfterFiltering= Boolean.valueOf(needsSortingAfterFilteringAttribute).booleanValue();
 
+		String requiresUIThreadAttribute= element.getAttribute(REQUIRES_UI_THREAD);
+		fRequiresUIThread= requiresUIThreadAttribute == null || Boolean.valueOf(requiresUIThreadAttribute).booleanValue();
+
 		fClass= element.getAttribute(CLASS);
 		checkNotNull(fClass, CLASS);
 
@@ -588,4 +600,14 @@ final class CompletionProposalComputerDescriptor {
 	public boolean isSortingAfterFilteringNeeded() {
 		return fNeedsSortingAfterFiltering;
 	}
+
+	/**
+	 * Returns the <code>requiresUIThread</code> flag of the described extension.
+	 *
+	 * @return <code>true</code> if the computer must be called in the UI thread
+	 * @since 3.14
+	 */
+	public boolean requiresUIThread() {
+		return fRequiresUIThread;
+	}
 }
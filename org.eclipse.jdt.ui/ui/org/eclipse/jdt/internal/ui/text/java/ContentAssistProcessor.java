@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -35,9 +37,12 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.InvalidRegistryObjectException;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.action.LegacyActionTools;
 import org.eclipse.jface.bindings.TriggerSequence;
@@ -90,12 +95,74 @@ import org.eclipse.jdt.internal.ui.dialogs.OptionalMessageDialog;
  * <li><code>getErrorMessage</code> to change error reporting</li>
  * </ul>
  * </p>
+ * <p>
+ * Categories whose computers do not require the UI thread (see the <code>requiresUIThread</code>
+ * attribute of the extension point) are computed in background jobs, concurrently with the
+ * categories that are computed in the UI thread. Their proposals are discarded if they are not
+ * available within the code assist timeout.
+ * </p>
  *
  * @since 3.2
  */
 public class ContentAssistProcessor implements IContentAssistProcessor {
 
 
+	/**
+	 * Computes the proposals of a category that does not require the UI thread in a job.
+	 *
+	 * @since 3.14
+	 */
+	private static final class CategoryComputation extends Job {
+
+		private final CompletionProposalCategory fCategory;
+		private final ContentAssistInvocationContext fContext;
+		private final String fPartition;
+		private final long fDeadline;
+		private final CountDownLatch fDone= new CountDownLatch(1);
+		private volatile List<ICompletionProposal> fProposals;
+
+		CategoryComputation(CompletionProposalCategory category, ContentAssistInvocationContext context, String partition) {
+			super(JavaTextMessages.ContentAssistProcessor_computing_proposals);
+			fCategory= category;
+			fContext= context;
+			fPartition= partition;
+			fDeadline= System.currentTimeMillis() + JavaCompletionProposalComputer.JAVA_CODE_ASSIST_TIMEOUT;
+			setSystem(true);
+			setPriority(Job.INTERACTIVE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fProposals= fCategory.computeCompletionProposals(fContext, fPartition, new SubProgressMonitor(monitor, 1));
+			} finally {
+				fDone.countDown();
+			}
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+		/**
+		 * Waits until the proposals are computed or the deadline of this computation has passed.
+		 *
+		 * @return the proposals, or <code>null</code> if they were not computed in time
+		 */
+		List<ICompletionProposal> getProposals() {
+			try {
+				long remaining= fDeadline - System.currentTimeMillis();
+				if (fDone.await(Math.max(0, remaining), TimeUnit.MILLISECONDS))
+					return fProposals;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			cancel();
+			return null;
+		}
+
+		CompletionProposalCategory getCategory() {
+			return fCategory;
+		}
+	}
+
 	/**
 	 * The completion listener class for this processor.
 	 *
@@ -327,13 +394,36 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 		boolean needsSortingAfterFiltering= false;
 		List<ICompletionProposal> proposals= new ArrayList<>();
 		List<CompletionProposalCategory> providers= getCategories();
+		List<CompletionProposalCategory> uiCategories= new ArrayList<>(providers.size());
+		List<CategoryComputation> computations= new ArrayList<>();
 		for (CompletionProposalCategory cat : providers) {
+			if (cat.requiresUIThread(fPartition)) {
+				uiCategories.add(cat);
+			} else {
+				// the context computes its values lazily, don't share it between threads
+				CategoryComputation computation= new CategoryComputation(cat, createContext(viewer, offset), fPartition);
+				computation.schedule();
+				computations.add(computation);
+			}
+		}
+		for (CompletionProposalCategory cat : uiCategories) {
 			List<ICompletionProposal> computed= cat.computeCompletionProposals(context, fPartition, new SubProgressMonitor(monitor, 1));
 			proposals.addAll(computed);
 			needsSortingAfterFiltering= needsSortingAfterFiltering || (cat.isSortingAfterFilteringNeeded() && !computed.isEmpty());
 			if (fErrorMessage == null)
 				fErrorMessage= cat.getErrorMessage();
 		}
+		for (CategoryComputation computation : computations) {
+			List<ICompletionProposal> computed= computation.getProposals();
+			monitor.worked(1);
+			if (computed == null)
+				continue;
+			CompletionProposalCategory cat= computation.getCategory();
+			proposals.addAll(computed);
+			needsSortingAfterFiltering= needsSortingAfterFiltering || (cat.isSortingAfterFilteringNeeded() && !computed.isEmpty());
+			if (fErrorMessage == null)
+				fErrorMessage= cat.getErrorMessage();
+		}
 		if (fNeedsSortingAfterFiltering && !needsSortingAfterFiltering)
 			fAssistant.setSorter(null);
 		fNeedsSortingAfterFiltering= needsSortingAfterFiltering;
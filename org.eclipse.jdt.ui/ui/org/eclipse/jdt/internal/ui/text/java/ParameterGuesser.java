@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,15 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.java;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.swt.graphics.Image;
@@ -26,6 +29,7 @@ import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
 import org.eclipse.jdt.core.BindingKey;
+import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
@@ -44,7 +48,6 @@ import org.eclipse.jdt.ui.JavaElementImageDescriptor;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaPluginImages;
 import org.eclipse.jdt.internal.ui.text.template.contentassist.PositionBasedCompletionProposal;
-import org.eclipse.jdt.internal.ui.util.StringMatcher;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementImageProvider;
 
 
@@ -78,6 +81,11 @@ public class ParameterGuesser {
 
 		public boolean alreadyMatched;
 
+		/**
+		 * The score computed by {@link ParameterGuesser#orderMatches(List, String)}.
+		 */
+		public int score;
+
 		public Variable(String qualifiedTypeName, String name, int variableType, boolean isAutoboxMatch, int positionScore, char[] triggerChars, ImageDescriptor descriptor) {
 			this.qualifiedTypeName= qualifiedTypeName;
 			this.name= name;
@@ -107,10 +115,93 @@ public class ParameterGuesser {
 		}
 	}
 
+	/**
+	 * The parts of a {@link Variable} that only depend on the Java element.
+	 */
+	private static final class VariableInfo {
+
+		static final VariableInfo NONE= new VariableInfo(null, null, -1, null);
+
+		final String fType;
+		final String fName;
+		final int fVariableType;
+		final ImageDescriptor fDescriptor;
+
+		VariableInfo(String type, String name, int variableType, ImageDescriptor descriptor) {
+			fType= type;
+			fName= name;
+			fVariableType= variableType;
+			fDescriptor= descriptor;
+		}
+	}
+
+	/**
+	 * The variables visible at a completion location. An instance is shared by the guessers of all
+	 * proposals of a completion session: the visible elements are requested once per parameter
+	 * type, and the type name and image of each element are computed once.
+	 *
+	 * @since 3.14
+	 */
+	static final class VisibleVariables {
+
+		private static WeakReference<VisibleVariables> fgLast= new WeakReference<>(null);
+
+		private final CompletionContext fContext;
+		/** Visible elements, keyed by type signature */
+		private final Map<String, IJavaElement[]> fElements= new HashMap<>();
+		private final Map<IJavaElement, VariableInfo> fInfos= new HashMap<>();
+
+		/**
+		 * Returns the visible variables for the given completion context.
+		 *
+		 * @param context the core completion context, must be extended
+		 * @return the visible variables, shared with other callers passing the same context
+		 */
+		static synchronized VisibleVariables get(CompletionContext context) {
+			VisibleVariables last= fgLast.get();
+			if (last == null || last.fContext != context) {
+				last= new VisibleVariables(context);
+				fgLast= new WeakReference<>(last);
+			}
+			return last;
+		}
+
+		private VisibleVariables(CompletionContext context) {
+			fContext= context;
+		}
+
+		/**
+		 * Returns the elements visible at the completion location that are assignable to the given
+		 * type.
+		 *
+		 * @param typeSignature the type signature
+		 * @return the visible elements
+		 * @see CompletionContext#getVisibleElements(String)
+		 */
+		synchronized IJavaElement[] getVisibleElements(String typeSignature) {
+			IJavaElement[] elements= fElements.get(typeSignature);
+			if (elements == null) {
+				elements= fContext.getVisibleElements(typeSignature);
+				fElements.put(typeSignature, elements);
+			}
+			return elements;
+		}
+
+		synchronized VariableInfo getInfo(IJavaElement element, IType enclosingType) throws JavaModelException {
+			VariableInfo info= fInfos.get(element);
+			if (info == null) {
+				info= createInfo(element, enclosingType);
+				fInfos.put(element, info);
+			}
+			return info == VariableInfo.NONE ? null : info;
+		}
+	}
+
 	private static final char[] NO_TRIGGERS= new char[0];
 
 	private final Set<String> fAlreadyMatchedNames;
 	private final IJavaElement fEnclosingElement;
+	private final VisibleVariables fVisibleVariables;
 
 	/**
 	 * Creates a parameter guesser
@@ -118,7 +209,19 @@ public class ParameterGuesser {
 	 * @param enclosingElement the enclosing Java element
 	 */
 	public ParameterGuesser(IJavaElement enclosingElement) {
+		this(enclosingElement, new VisibleVariables(null));
+	}
+
+	/**
+	 * Creates a parameter guesser that shares the analysis of the visible variables.
+	 *
+	 * @param enclosingElement the enclosing Java element
+	 * @param visibleVariables the variables visible at the completion location
+	 * @since 3.14
+	 */
+	ParameterGuesser(IJavaElement enclosingElement, VisibleVariables visibleVariables) {
 		fEnclosingElement= enclosingElement;
+		fVisibleVariables= visibleVariables;
 		fAlreadyMatchedNames= new HashSet<>();
 	}
 
@@ -168,6 +271,15 @@ public class ParameterGuesser {
 	}
 
 	public Variable createVariable(IJavaElement element, IType enclosingType, String expectedType, int positionScore) throws JavaModelException {
+		VariableInfo info= fVisibleVariables.getInfo(element, enclosingType);
+		if (info == null)
+			return null;
+
+		boolean isAutoboxMatch= isPrimitiveType(expectedType) != isPrimitiveType(info.fType);
+		return new Variable(info.fType, info.fName, info.fVariableType, isAutoboxMatch, positionScore, NO_TRIGGERS, info.fDescriptor);
+	}
+
+	private static VariableInfo createInfo(IJavaElement element, IType enclosingType) throws JavaModelException {
 		int variableType;
 		int elementType= element.getElementType();
 		String elementName= element.getElementName();
@@ -209,27 +321,24 @@ public class ParameterGuesser {
 					}
 					elementName= elementName + "()";  //$NON-NLS-1$
 				} else {
-					return null;
+					return VariableInfo.NONE;
 				}
 				break;
 			}
 			default:
-				return null;
+				return VariableInfo.NONE;
 		}
-		String type= Signature.toString(typeSignature);
-
-		boolean isAutoboxMatch= isPrimitiveType(expectedType) != isPrimitiveType(type);
-		return new Variable(type, elementName, variableType, isAutoboxMatch, positionScore, NO_TRIGGERS, getImageDescriptor(element));
+		return new VariableInfo(Signature.toString(typeSignature), elementName, variableType, getImageDescriptor(element));
 	}
 
-	private ImageDescriptor getImageDescriptor(IJavaElement elem) {
+	private static ImageDescriptor getImageDescriptor(IJavaElement elem) {
 		JavaElementImageProvider imageProvider= new JavaElementImageProvider();
 		ImageDescriptor desc= imageProvider.getBaseImageDescriptor(elem, JavaElementImageProvider.OVERLAY_ICONS);
 		imageProvider.dispose();
 		return desc;
 	}
 
-	private boolean isPrimitiveType(String type) {
+	private static boolean isPrimitiveType(String type) {
 		return PrimitiveType.toCode(type) != null;
 	}
 
@@ -272,7 +381,7 @@ public class ParameterGuesser {
 		return null;
 	}
 
-	private boolean isMethodToSuggest(IMethod method) {
+	private static boolean isMethodToSuggest(IMethod method) {
 		try {
 			String methodName= method.getElementName();
 			return method.getNumberOfParameters() == 0 && !Signature.SIG_VOID.equals(method.getReturnType())
@@ -332,43 +441,37 @@ public class ParameterGuesser {
 		return ret;
 	}
 
-	private static class MatchComparator implements Comparator<Variable> {
-
-		private String fParamName;
-
-		MatchComparator(String paramName) {
-			fParamName= paramName;
-		}
+	private static final Comparator<Variable> MATCH_COMPARATOR= new Comparator<Variable>() {
 		@Override
 		public int compare(Variable one, Variable two) {
-			return score(two) - score(one);
-		}
-
-		/**
-		 * The four order criteria as described below - put already used into bit 10, all others
-		 * into bits 0-9, 11-20, 21-30; 31 is sign - always 0
-		 * 
-		 * @param v the variable
-		 * @return the score for <code>v</code>
-		 */
-		private int score(Variable v) {
-			int variableScore= 100 - v.variableType; // since these are increasing with distance
-			int subStringScore= getLongestCommonSubstring(v.name, fParamName).length();
-			// substring scores under 60% are not considered
-			// this prevents marginal matches like a - ba and false - isBool that will
-			// destroy the sort order
-			int shorter= Math.min(v.name.length(), fParamName.length());
-			if (subStringScore < 0.6 * shorter)
-				subStringScore= 0;
-
-			int positionScore= v.positionScore; // since ???
-			int matchedScore= v.alreadyMatched ? 0 : 1;
-			int autoboxingScore= v.isAutoboxingMatch ? 0 : 1;
-
-			int score= autoboxingScore << 30 | variableScore << 21 | subStringScore << 11 | matchedScore << 10 | positionScore;
-			return score;
+			return two.score - one.score;
 		}
+	};
 
+	/**
+	 * The four order criteria as described below - put already used into bit 10, all others
+	 * into bits 0-9, 11-20, 21-30; 31 is sign - always 0
+	 * 
+	 * @param v the variable
+	 * @param paramName the parameter name
+	 * @return the score for <code>v</code>
+	 */
+	private static int score(Variable v, String paramName) {
+		int variableScore= 100 - v.variableType; // since these are increasing with distance
+		int subStringScore= getLongestCommonSubstringLength(v.name, paramName);
+		// substring scores under 60% are not considered
+		// this prevents marginal matches like a - ba and false - isBool that will
+		// destroy the sort order
+		int shorter= Math.min(v.name.length(), paramName.length());
+		if (subStringScore < 0.6 * shorter)
+			subStringScore= 0;
+
+		int positionScore= v.positionScore; // since ???
+		int matchedScore= v.alreadyMatched ? 0 : 1;
+		int autoboxingScore= v.isAutoboxingMatch ? 0 : 1;
+
+		int score= autoboxingScore << 30 | variableScore << 21 | subStringScore << 11 | matchedScore << 10 | positionScore;
+		return score;
 	}
 
 	/**
@@ -391,44 +494,48 @@ public class ParameterGuesser {
 	 * @param paramName the parameter name
 	 */
 	private static void orderMatches(List<Variable> typeMatches, String paramName) {
-		if (typeMatches != null) Collections.sort(typeMatches, new MatchComparator(paramName));
+		if (typeMatches != null) {
+			for (int i= 0, size= typeMatches.size(); i < size; i++) {
+				Variable v= typeMatches.get(i);
+				v.score= score(v, paramName);
+			}
+			Collections.sort(typeMatches, MATCH_COMPARATOR);
+		}
 	}
 
 	/**
-	 * Returns the longest common substring of two strings.
+	 * Returns the length of the longest case insensitive common substring of two strings.
 	 *
 	 * @param first the first string
 	 * @param second the second string
-	 * @return the longest common substring
+	 * @return the length of the longest common substring
 	 */
-	private static String getLongestCommonSubstring(String first, String second) {
-
-		String shorter= (first.length() <= second.length()) ? first : second;
-		String longer= shorter == first ? second : first;
-
-		int minLength= shorter.length();
-
-		StringBuffer pattern= new StringBuffer(shorter.length() + 2);
-		String longestCommonSubstring= ""; //$NON-NLS-1$
-
-		for (int i= 0; i < minLength; i++) {
-			for (int j= i + 1; j <= minLength; j++) {
-				if (j - i < longestCommonSubstring.length())
-					continue;
-
-				String substring= shorter.substring(i, j);
-				pattern.setLength(0);
-				pattern.append('*');
-				pattern.append(substring);
-				pattern.append('*');
-
-				StringMatcher matcher= new StringMatcher(pattern.toString(), true, false);
-				if (matcher.match(longer))
-					longestCommonSubstring= substring;
+	private static int getLongestCommonSubstringLength(String first, String second) {
+		int firstLength= first.length();
+		int secondLength= second.length();
+		int longest= 0;
+		for (int i= 0; i < firstLength - longest; i++) {
+			for (int j= 0; j < secondLength - longest; j++) {
+				int length= 0;
+				while (i + length < firstLength && j + length < secondLength
+						&& equalsIgnoreCase(first.charAt(i + length), second.charAt(j + length)))
+					length++;
+				if (length > longest)
+					longest= length;
 			}
 		}
+		return longest;
+	}
 
-		return longestCommonSubstring;
+	/*
+	 * Same comparison as String#regionMatches(boolean, int, String, int, int).
+	 */
+	private static boolean equalsIgnoreCase(char c1, char c2) {
+		if (c1 == c2)
+			return true;
+		char u1= Character.toUpperCase(c1);
+		char u2= Character.toUpperCase(c2);
+		return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
 	}
 
 	private Image getImage(ImageDescriptor descriptor) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,7 @@ import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorHighlightingSynchronizer;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.text.java.ParameterGuesser.VisibleVariables;
 
 
 /**
@@ -100,13 +101,13 @@ public class ParameterGuessingProposal extends JavaMethodCompletionProposal {
 		return fCoreContext.getEnclosingElement();
 	}
 
-	private IJavaElement[][] getAssignableElements() {
+	private IJavaElement[][] getAssignableElements(VisibleVariables visibleVariables) {
 		char[] signature= SignatureUtil.fix83600(getProposal().getSignature());
 		char[][] types= Signature.getParameterTypes(signature);
 
 		IJavaElement[][] assignableElements= new IJavaElement[types.length][];
 		for (int i= 0; i < types.length; i++) {
-			assignableElements[i]= fCoreContext.getVisibleElements(new String(types[i]));
+			assignableElements[i]= visibleVariables.getVisibleElements(new String(types[i]));
 		}
 		return assignableElements;
 	}
@@ -322,8 +323,9 @@ public class ParameterGuessingProposal extends JavaMethodCompletionProposal {
 		fChoices= new ICompletionProposal[count][];
 
 		String[] parameterTypes= getParameterTypes();
-		ParameterGuesser guesser= new ParameterGuesser(getEnclosingElement());
-		IJavaElement[][] assignableElements= getAssignableElements();
+		VisibleVariables visibleVariables= VisibleVariables.get(fCoreContext);
+		ParameterGuesser guesser= new ParameterGuesser(getEnclosingElement(), visibleVariables);
+		IJavaElement[][] assignableElements= getAssignableElements(visibleVariables);
 
 		for (int i= count - 1; i >= 0; i--) {
 			String paramName= new String(parameterNames[i]);
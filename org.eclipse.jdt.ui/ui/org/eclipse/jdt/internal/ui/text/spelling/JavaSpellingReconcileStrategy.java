@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,24 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.content.IContentType;
 
+import org.eclipse.jface.preference.IPreferenceStore;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.TextUtilities;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.ISourceViewer;
 
@@ -24,6 +36,8 @@ import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingContext;
+import org.eclipse.ui.texteditor.spelling.SpellingEngineDescriptor;
 import org.eclipse.ui.texteditor.spelling.SpellingProblem;
 import org.eclipse.ui.texteditor.spelling.SpellingReconcileStrategy;
 import org.eclipse.ui.texteditor.spelling.SpellingService;
@@ -34,6 +48,12 @@ import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
 
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+
 
 /**
  * Reconcile strategy for spell checking comments.
@@ -54,27 +74,7 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 		 */
 		@Override
 		public void accept(SpellingProblem problem) {
-			IProblemRequestor requestor= fRequestor;
-			if (requestor != null) {
-				try {
-					int line= getDocument().getLineOfOffset(problem.getOffset()) + 1;
-					String word= getDocument().get(problem.getOffset(), problem.getLength());
-					boolean dictionaryMatch= false;
-					boolean sentenceStart= false;
-					if (problem instanceof JavaSpellingProblem) {
-						dictionaryMatch= ((JavaSpellingProblem)problem).isDictionaryMatch();
-						sentenceStart= ((JavaSpellingProblem) problem).isSentenceStart();
-					}
-					// see https://bugs.eclipse.org/bugs/show_bug.cgi?id=81514
-					IEditorInput editorInput= fEditor.getEditorInput();
-					if (editorInput != null) {
-						CoreSpellingProblem iProblem= new CoreSpellingProblem(problem.getOffset(), problem.getOffset() + problem.getLength() - 1, line, problem.getMessage(), word, dictionaryMatch, sentenceStart, getDocument(), editorInput.getName());
-						requestor.acceptProblem(iProblem);
-					}
-				} catch (BadLocationException x) {
-					// drop this SpellingProblem
-				}
-			}
+			acceptProblem(new PartitionProblem(problem, 0), 0);
 		}
 
 		/*
@@ -97,9 +97,66 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 	}
 
 
+	/**
+	 * A spelling problem found in a partition.
+	 *
+	 * @since 3.14
+	 */
+	private static final class PartitionProblem {
+		/** Offset of the problem, relative to the partition when cached */
+		final int fOffset;
+		final int fLength;
+		final String fMessage;
+		final boolean fDictionaryMatch;
+		final boolean fSentenceStart;
+
+		PartitionProblem(SpellingProblem problem, int partitionOffset) {
+			fOffset= problem.getOffset() - partitionOffset;
+			fLength= problem.getLength();
+			fMessage= problem.getMessage();
+			if (problem instanceof JavaSpellingProblem) {
+				fDictionaryMatch= ((JavaSpellingProblem) problem).isDictionaryMatch();
+				fSentenceStart= ((JavaSpellingProblem) problem).isSentenceStart();
+			} else {
+				fDictionaryMatch= false;
+				fSentenceStart= false;
+			}
+		}
+	}
+
+	/**
+	 * Collects the spelling problems of the checked partitions.
+	 *
+	 * @since 3.14
+	 */
+	private static class SpellingProblemRecorder implements ISpellingProblemCollector {
+
+		final List<SpellingProblem> fProblems= new ArrayList<>();
+
+		@Override
+		public void accept(SpellingProblem problem) {
+			fProblems.add(problem);
+		}
+
+		@Override
+		public void beginCollecting() {
+		}
+
+		@Override
+		public void endCollecting() {
+		}
+	}
+
+
 	/** The id of the problem */
 	public static final int SPELLING_PROBLEM_ID= 0x80000000;
 
+	/**
+	 * Id of the spelling engine whose results are cached per partition.
+	 * @since 3.14
+	 */
+	private static final String DEFAULT_SPELLING_ENGINE_ID= "org.eclipse.jdt.internal.ui.text.spelling.DefaultSpellingEngine"; //$NON-NLS-1$
+
 	/** Properties file content type */
 	private static final IContentType JAVA_CONTENT_TYPE= Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE);
 
@@ -109,6 +166,37 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 	/** The problem requester. */
 	private IProblemRequestor fRequestor;
 
+	/**
+	 * The spelling service.
+	 * @since 3.14
+	 */
+	private final SpellingService fSpellingService;
+
+	/**
+	 * The spelling context used to check partitions.
+	 * @since 3.14
+	 */
+	private final SpellingContext fSpellingContext;
+
+	/**
+	 * The progress monitor.
+	 * @since 3.14
+	 */
+	private IProgressMonitor fProgressMonitor;
+
+	/**
+	 * The spelling problems of the partitions checked by the last reconcile, keyed by partition
+	 * type and content.
+	 * @since 3.14
+	 */
+	private Map<String, List<PartitionProblem>> fPartitionProblems= new HashMap<>();
+
+	/**
+	 * The spell checker and settings the cached problems were computed with.
+	 * @since 3.14
+	 */
+	private String fConfiguration;
+
 
 	/**
 	 * Creates a new comment reconcile strategy.
@@ -119,6 +207,9 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 	public JavaSpellingReconcileStrategy(ISourceViewer viewer, ITextEditor editor) {
 		super(viewer, EditorsUI.getSpellingService());
 		fEditor= editor;
+		fSpellingService= EditorsUI.getSpellingService();
+		fSpellingContext= new SpellingContext();
+		fSpellingContext.setContentType(getContentType());
 	}
 
 	/*
@@ -126,14 +217,189 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 	 */
 	@Override
 	public void reconcile(IRegion region) {
-		if (fRequestor != null && isSpellingEnabled())
-			super.reconcile(region);
+		if (fRequestor != null && isSpellingEnabled()) {
+			DefaultSpellChecker checker= getDefaultSpellChecker();
+			if (checker != null && getDocument() instanceof IDocumentExtension4) {
+				reconcileIncrementally(region, checker);
+			} else {
+				fPartitionProblems.clear();
+				super.reconcile(region);
+			}
+		}
+	}
+
+	/**
+	 * Checks the comment and string partitions of the given region, using the cached problems of
+	 * partitions whose content did not change since the last reconcile, and reports all problems
+	 * of the region.
+	 *
+	 * @param region the region to check
+	 * @param checker the spell checker
+	 * @since 3.14
+	 */
+	private void reconcileIncrementally(IRegion region, DefaultSpellChecker checker) {
+		IDocument document= getDocument();
+		long modificationStamp= ((IDocumentExtension4) document).getModificationStamp();
+
+		String configuration= getConfiguration(checker);
+		if (!configuration.equals(fConfiguration)) {
+			fPartitionProblems.clear();
+			fConfiguration= configuration;
+		}
+
+		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		List<ITypedRegion> partitions= new ArrayList<>();
+		List<String> keys= new ArrayList<>();
+		List<ITypedRegion> changed= new ArrayList<>();
+		Map<String, List<PartitionProblem>> partitionProblems= new HashMap<>();
+		try {
+			ITypedRegion[] allPartitions= TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false);
+			for (int i= 0; i < allPartitions.length; i++) {
+				ITypedRegion partition= allPartitions[i];
+				String type= partition.getType();
+				if (type.equals(IDocument.DEFAULT_CONTENT_TYPE) || type.equals(IJavaPartitions.JAVA_CHARACTER) || isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
+					continue;
+
+				String key= type + ':' + document.get(partition.getOffset(), partition.getLength());
+				partitions.add(partition);
+				keys.add(key);
+				List<PartitionProblem> problems= fPartitionProblems.get(key);
+				if (problems != null)
+					partitionProblems.put(key, problems);
+				else
+					changed.add(partition);
+			}
+		} catch (BadLocationException x) {
+			// ignore: the document has been changed in another thread and will be checked again
+			return;
+		}
+
+		int threshold= PreferenceConstants.getPreferenceStore().getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
+		if (!changed.isEmpty()) {
+			SpellingProblemRecorder recorder= new SpellingProblemRecorder();
+			fSpellingService.check(document, changed.toArray(new IRegion[changed.size()]), fSpellingContext, recorder, fProgressMonitor);
+			if (fProgressMonitor != null && fProgressMonitor.isCanceled())
+				return;
+
+			// problems are reported in document order
+			List<SpellingProblem> problems= recorder.fProblems;
+			int next= 0;
+			for (int i= 0; i < partitions.size(); i++) {
+				ITypedRegion partition= partitions.get(i);
+				String key= keys.get(i);
+				if (partitionProblems.containsKey(key))
+					continue;
+				int start= partition.getOffset();
+				int end= start + partition.getLength();
+				while (next < problems.size() && problems.get(next).getOffset() < start)
+					next++;
+				List<PartitionProblem> result= new ArrayList<>();
+				while (next < problems.size() && problems.get(next).getOffset() < end)
+					result.add(new PartitionProblem(problems.get(next++), start));
+				partitionProblems.put(key, result.isEmpty() ? Collections.<PartitionProblem> emptyList() : result);
+			}
+
+			// results are incomplete if the threshold was reached, or unreliable if the document changed
+			if (problems.size() >= threshold || modificationStamp != ((IDocumentExtension4) document).getModificationStamp())
+				fPartitionProblems= new HashMap<>();
+			else
+				fPartitionProblems= partitionProblems;
+		} else {
+			fPartitionProblems= partitionProblems;
+		}
+
+		IProblemRequestor requestor= fRequestor;
+		if (requestor == null)
+			return;
+		requestor.beginReporting();
+		try {
+			int count= 0;
+			for (int i= 0; i < partitions.size() && count < threshold; i++) {
+				int partitionOffset= partitions.get(i).getOffset();
+				List<PartitionProblem> problems= partitionProblems.get(keys.get(i));
+				for (int j= 0; j < problems.size() && count < threshold; j++, count++)
+					acceptProblem(problems.get(j), partitionOffset);
+			}
+		} finally {
+			requestor.endReporting();
+		}
+	}
+
+	/**
+	 * Returns the spell checker if partitions are checked by the default spelling engine.
+	 *
+	 * @return the spell checker, or <code>null</code> if another engine is used
+	 * @since 3.14
+	 */
+	private DefaultSpellChecker getDefaultSpellChecker() {
+		SpellingEngineDescriptor descriptor= fSpellingService.getActiveSpellingEngineDescriptor(EditorsUI.getPreferenceStore());
+		if (descriptor == null || !DEFAULT_SPELLING_ENGINE_ID.equals(descriptor.getId()))
+			return null;
+		try {
+			ISpellChecker checker= SpellCheckEngine.getInstance().getSpellChecker();
+			return checker instanceof DefaultSpellChecker ? (DefaultSpellChecker) checker : null;
+		} catch (IllegalStateException x) {
+			// the engine has been shut down
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a string describing the spell checker and the settings that influence its results.
+	 *
+	 * @param checker the spell checker
+	 * @return the configuration
+	 * @since 3.14
+	 */
+	private static String getConfiguration(DefaultSpellChecker checker) {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuffer buf= new StringBuffer();
+		buf.append(System.identityHashCode(checker)).append(':').append(checker.getModificationCount());
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_MIXED));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SENTENCE));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_URLS));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_NON_LETTERS));
+		buf.append(':').append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS));
+		buf.append(':').append(store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD));
+		buf.append(':').append(JavaCore.getOption(JavaCore.COMPILER_TASK_TAGS));
+		return buf.toString();
+	}
+
+	private void acceptProblem(PartitionProblem problem, int partitionOffset) {
+		IProblemRequestor requestor= fRequestor;
+		if (requestor != null) {
+			try {
+				int offset= partitionOffset + problem.fOffset;
+				int line= getDocument().getLineOfOffset(offset) + 1;
+				String word= getDocument().get(offset, problem.fLength);
+				// see https://bugs.eclipse.org/bugs/show_bug.cgi?id=81514
+				IEditorInput editorInput= fEditor.getEditorInput();
+				if (editorInput != null) {
+					CoreSpellingProblem iProblem= new CoreSpellingProblem(offset, offset + problem.fLength - 1, line, problem.fMessage, word, problem.fDictionaryMatch, problem.fSentenceStart, getDocument(), editorInput.getName());
+					requestor.acceptProblem(iProblem);
+				}
+			} catch (BadLocationException x) {
+				// drop this SpellingProblem
+			}
+		}
 	}
 
 	private boolean isSpellingEnabled() {
 		return EditorsUI.getPreferenceStore().getBoolean(SpellingService.PREFERENCE_SPELLING_ENABLED);
 	}
 
+	/*
+	 * @see org.eclipse.ui.texteditor.spelling.SpellingReconcileStrategy#setProgressMonitor(org.eclipse.core.runtime.IProgressMonitor)
+	 * @since 3.14
+	 */
+	@Override
+	public void setProgressMonitor(IProgressMonitor monitor) {
+		super.setProgressMonitor(monitor);
+		fProgressMonitor= monitor;
+	}
+
 	/*
 	 * @see org.eclipse.ui.texteditor.spelling.SpellingReconcileStrategy#createSpellingProblemCollector()
 	 * @since 3.3
@@ -158,6 +424,7 @@ public class JavaSpellingReconcileStrategy extends SpellingReconcileStrategy {
 	@Override
 	public void setDocument(IDocument document) {
 		super.setDocument(document);
+		fPartitionProblems.clear();
 		updateProblemRequester();
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -143,6 +143,12 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 */
 	private Locale fLocale;
 
+	/**
+	 * Incremented whenever the dictionaries or the ignored words change.
+	 * @since 3.14
+	 */
+	private volatile int fModificationCount;
+
 	/**
 	 * Creates a new default spell checker.
 	 *
@@ -161,6 +167,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void addDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.add(dictionary);
+		fModificationCount++;
 	}
 
 	@Override
@@ -197,13 +204,14 @@ public class DefaultSpellChecker implements ISpellChecker {
 			if (dictionary.acceptsWords())
 				dictionary.addWord(addable);
 		}
-
+		fModificationCount++;
 	}
 
 	@Override
 	public final void checkWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.remove(word.toLowerCase());
+		fModificationCount++;
 	}
 
 	@Override
@@ -287,6 +295,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void ignoreWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.add(word.toLowerCase());
+		fModificationCount++;
 	}
 
 	@Override
@@ -314,10 +323,22 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void removeDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.remove(dictionary);
+		fModificationCount++;
 	}
 
 	@Override
 	public Locale getLocale() {
 		return fLocale;
 	}
+
+	/**
+	 * Returns a counter that changes whenever words are added or ignored, or dictionaries
+	 * are added or removed. Results of previous checks are outdated if the counter changed.
+	 *
+	 * @return the modification count
+	 * @since 3.14
+	 */
+	public int getModificationCount() {
+		return fModificationCount;
+	}
 }
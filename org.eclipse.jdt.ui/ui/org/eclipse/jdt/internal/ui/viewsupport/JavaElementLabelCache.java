@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.jface.viewers.StyledString;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+/**
+ * Cache for the labels computed by {@link JavaElementLabelComposer#appendElementLabel(IJavaElement, long)},
+ * used by {@link org.eclipse.jdt.ui.JavaElementLabels}.
+ * <p>
+ * Plain and styled labels are cached per element, rendering flags and (for resolved elements)
+ * binding key. The labels of an element are discarded when its compilation unit or class file
+ * changes; all labels are discarded on structural changes above that level and on changes of
+ * the Java UI preferences (e.g. package name compression and abbreviation). The number of
+ * cached elements is bounded; least recently used labels are evicted first.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class JavaElementLabelCache {
+
+	private static final int MAX_ENTRIES= 50000;
+
+	private static final class Key {
+		final IJavaElement fElement;
+		final long fFlags;
+		final String fResolvedKey;
+		final IJavaElement fOpenable;
+
+		Key(IJavaElement element, long flags) {
+			fElement= element;
+			fFlags= flags;
+			fResolvedKey= getResolvedKey(element);
+			fOpenable= (IJavaElement) element.getOpenable();
+		}
+
+		@Override
+		public int hashCode() {
+			return fElement.hashCode() * 31 + (int) (fFlags ^ (fFlags >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other= (Key) obj;
+			return fFlags == other.fFlags && fElement.equals(other.fElement)
+					&& (fResolvedKey == null ? other.fResolvedKey == null : fResolvedKey.equals(other.fResolvedKey));
+		}
+
+		private static String getResolvedKey(IJavaElement element) {
+			switch (element.getElementType()) {
+				case IJavaElement.TYPE:
+					IType type= (IType) element;
+					return type.isResolved() ? type.getKey() : null;
+				case IJavaElement.METHOD:
+					IMethod method= (IMethod) element;
+					return method.isResolved() ? method.getKey() : null;
+				case IJavaElement.FIELD:
+					IField field= (IField) element;
+					return field.isResolved() ? field.getKey() : null;
+				default:
+					return null;
+			}
+		}
+	}
+
+	private static final class Labels {
+		String fLabel;
+		StyledString fStyledLabel;
+	}
+
+	private class LabelDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			Set<IJavaElement> changed= new HashSet<>();
+			if (collectChangedOpenables(event.getDelta(), changed))
+				clear();
+			else if (!changed.isEmpty())
+				removeAll(changed);
+		}
+
+		/*
+		 * Returns true if all labels must be discarded.
+		 */
+		private boolean collectChangedOpenables(IJavaElementDelta delta, Set<IJavaElement> changed) {
+			switch (delta.getElement().getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+				case IJavaElement.JAVA_PROJECT:
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (delta.getKind() != IJavaElementDelta.CHANGED
+							|| (delta.getFlags() & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0)
+						return true;
+					IJavaElementDelta[] children= delta.getAffectedChildren();
+					for (int i= 0; i < children.length; i++) {
+						if (collectChangedOpenables(children[i], changed))
+							return true;
+					}
+					return false;
+				default:
+					changed.add((IJavaElement) delta.getElement().getOpenable());
+					return false;
+			}
+		}
+	}
+
+	private static JavaElementLabelCache fgInstance;
+
+	private final LinkedHashMap<Key, Labels> fLabels;
+	/**
+	 * Incremented whenever labels are discarded, so that labels computed before a change are not
+	 * stored afterwards.
+	 */
+	private int fGeneration;
+	private final IElementChangedListener fDeltaListener;
+	private final IPropertyChangeListener fPropertyListener;
+
+	public static synchronized JavaElementLabelCache getDefault() {
+		if (fgInstance == null)
+			fgInstance= new JavaElementLabelCache();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private JavaElementLabelCache() {
+		fLabels= new LinkedHashMap<>(256, 0.75f, true);
+		fDeltaListener= new LabelDeltaListener();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fPropertyListener= new IPropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				clear();
+			}
+		};
+		getPreferenceStore().addPropertyChangeListener(fPropertyListener);
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		getPreferenceStore().removePropertyChangeListener(fPropertyListener);
+	}
+
+	private static IPreferenceStore getPreferenceStore() {
+		return PreferenceConstants.getPreferenceStore();
+	}
+
+	/**
+	 * Returns the label for a Java element, as computed by
+	 * {@link JavaElementLabelComposer#appendElementLabel(IJavaElement, long)}.
+	 *
+	 * @param element the element to render
+	 * @param flags the rendering flags
+	 * @return the label
+	 */
+	public String getLabel(IJavaElement element, long flags) {
+		if (!isCacheable(element)) {
+			StringBuffer buf= new StringBuffer();
+			new JavaElementLabelComposer(buf).appendElementLabel(element, flags);
+			return buf.toString();
+		}
+		Key key= new Key(element, flags);
+		int generation;
+		synchronized (this) {
+			Labels labels= fLabels.get(key);
+			if (labels != null && labels.fLabel != null)
+				return labels.fLabel;
+			generation= fGeneration;
+		}
+		StringBuffer buf= new StringBuffer();
+		new JavaElementLabelComposer(buf).appendElementLabel(element, flags);
+		String label= buf.toString();
+		synchronized (this) {
+			Labels labels= getLabelsForUpdate(key, generation);
+			if (labels != null)
+				labels.fLabel= label;
+		}
+		return label;
+	}
+
+	/**
+	 * Returns the styled label for a Java element, as computed by
+	 * {@link JavaElementLabelComposer#appendElementLabel(IJavaElement, long)}.
+	 *
+	 * @param element the element to render
+	 * @param flags the rendering flags
+	 * @return a new styled string holding the label
+	 */
+	public StyledString getStyledLabel(IJavaElement element, long flags) {
+		StyledString result= new StyledString();
+		if (!isCacheable(element)) {
+			new JavaElementLabelComposer(result).appendElementLabel(element, flags);
+			return result;
+		}
+		Key key= new Key(element, flags);
+		int generation;
+		synchronized (this) {
+			Labels labels= fLabels.get(key);
+			if (labels != null && labels.fStyledLabel != null)
+				return result.append(labels.fStyledLabel);
+			generation= fGeneration;
+		}
+		StyledString label= new StyledString();
+		new JavaElementLabelComposer(label).appendElementLabel(element, flags);
+		synchronized (this) {
+			Labels labels= getLabelsForUpdate(key, generation);
+			if (labels != null)
+				labels.fStyledLabel= label;
+		}
+		return result.append(label);
+	}
+
+	/*
+	 * Local variables carry their type in the handle, which is not part of handle equality.
+	 */
+	private static boolean isCacheable(IJavaElement element) {
+		return element.getElementType() != IJavaElement.LOCAL_VARIABLE;
+	}
+
+	private Labels getLabelsForUpdate(Key key, int generation) {
+		if (generation != fGeneration)
+			return null;
+		Labels labels= fLabels.get(key);
+		if (labels == null) {
+			labels= new Labels();
+			fLabels.put(key, labels);
+			if (fLabels.size() > MAX_ENTRIES) {
+				Iterator<Key> iter= fLabels.keySet().iterator();
+				iter.next();
+				iter.remove();
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Removes all cached labels.
+	 */
+	public synchronized void clear() {
+		fLabels.clear();
+		fGeneration++;
+	}
+
+	private synchronized void removeAll(Set<IJavaElement> openables) {
+		for (Iterator<Map.Entry<Key, Labels>> iter= fLabels.entrySet().iterator(); iter.hasNext();) {
+			IJavaElement openable= iter.next().getKey().fOpenable;
+			if (openable != null && openables.contains(openable))
+				iter.remove();
+		}
+		fGeneration++;
+	}
+}
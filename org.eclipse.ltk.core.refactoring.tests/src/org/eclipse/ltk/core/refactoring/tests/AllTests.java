@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,7 +23,12 @@ public class AllTests {
 	public static Test suite() {
 		TestSuite suite= new TestSuite(AllTests.class.getName());
 		
+		suite.addTestSuite(BulkChangeValidationTest.class);
+		suite.addTestSuite(ContentHashValidationStateTest.class);
 		suite.addTestSuite(RefactoringContextTest.class);
+		suite.addTestSuite(RefactoringStatusTest.class);
+		suite.addTestSuite(TextChangePreviewTest.class);
+		suite.addTestSuite(UndoStoreTest.class);
 		
 		suite.addTest(ParticipantTests.suite());
 		suite.addTest(RefactoringHistoryTests.suite());
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourceAttributes;
+
+import org.eclipse.text.edits.ReplaceEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+
+/**
+ * Performs change trees with enough text file changes to be validated in bulk.
+ */
+public class BulkChangeValidationTest extends TestCase {
+
+	private static final int COUNT= 60;
+
+	private static final String CONTENT= "class A {}\n";
+	private static final String CHANGED= "class B {}\n";
+
+	private SimpleTestProject fProject;
+	private IFile[] fFiles;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject= new SimpleTestProject();
+		IFolder folder= fProject.createFolder("bulk");
+		fFiles= new IFile[COUNT];
+		for (int i= 0; i < COUNT; i++)
+			fFiles[i]= fProject.createFile(folder, "file" + i + ".txt", CONTENT);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (int i= 0; i < fFiles.length; i++)
+			setReadOnly(fFiles[i], false);
+		fProject.delete();
+	}
+
+	public void testPerformed() throws Exception {
+		Change change= createChange();
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getValidationStatus().isOK());
+		assertTrue(operation.changeExecuted());
+		assertContents(CHANGED);
+
+		Change undo= operation.getUndoChange();
+		assertNotNull(undo);
+		operation= new PerformChangeOperation(undo);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.changeExecuted());
+		assertContents(CONTENT);
+	}
+
+	public void testContentChanged() throws Exception {
+		Change change= createChange();
+		fFiles[COUNT / 2].setContents(new ByteArrayInputStream("class C {}\n".getBytes()), IResource.FORCE, null);
+
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getValidationStatus().hasFatalError());
+		assertFalse(operation.changeExecuted());
+		assertEquals(CONTENT, fProject.getContent(fFiles[0]));
+		assertEquals(CONTENT, fProject.getContent(fFiles[COUNT - 1]));
+		change.dispose();
+	}
+
+	public void testReadOnly() throws Exception {
+		Change change= createChange();
+		setReadOnly(fFiles[COUNT - 1], true);
+
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getValidationStatus().hasFatalError());
+		assertFalse(operation.changeExecuted());
+		assertEquals(CONTENT, fProject.getContent(fFiles[0]));
+		change.dispose();
+	}
+
+	public void testStatusNotReused() throws Exception {
+		// a failed bulk validation must not leave results behind for the next validation
+		CompositeChange change= createChange();
+		fFiles[0].setContents(new ByteArrayInputStream("class C {}\n".getBytes()), IResource.FORCE, null);
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		assertFalse(operation.changeExecuted());
+
+		setReadOnly(fFiles[COUNT - 1], true);
+		Change last= change.getChildren()[COUNT - 1];
+		RefactoringStatus status= last.isValid(new NullProgressMonitor());
+		assertTrue(status.hasFatalError());
+		change.dispose();
+	}
+
+	public void testSameStatusAsPerChange() throws Exception {
+		// the operation is only run on trees that fail validation, so nothing is performed
+		CompositeChange change= createChange();
+		fFiles[COUNT / 2].setContents(new ByteArrayInputStream("class C {}\n".getBytes()), IResource.FORCE, null);
+		assertSameStatus(change);
+
+		setReadOnly(fFiles[COUNT - 1], true);
+		assertSameStatus(change);
+
+		fFiles[COUNT / 2].setContents(new ByteArrayInputStream(CONTENT.getBytes()), IResource.FORCE, null);
+		assertSameStatus(change);
+		change.dispose();
+	}
+
+	/*
+	 * Validates the change on its own, and as part of a change operation, which validates
+	 * changes with at least BulkChangeValidator.THRESHOLD text file changes in bulk.
+	 */
+	private static void assertSameStatus(CompositeChange change) throws Exception {
+		RefactoringStatus expected= change.isValid(new NullProgressMonitor());
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.run(new NullProgressMonitor());
+		assertFalse(operation.changeExecuted());
+		RefactoringStatus actual= operation.getValidationStatus();
+
+		assertEquals(expected.getSeverity(), actual.getSeverity());
+		RefactoringStatusEntry[] expectedEntries= expected.getEntries();
+		RefactoringStatusEntry[] actualEntries= actual.getEntries();
+		assertEquals(expectedEntries.length, actualEntries.length);
+		for (int i= 0; i < expectedEntries.length; i++) {
+			assertEquals(expectedEntries[i].getSeverity(), actualEntries[i].getSeverity());
+			assertEquals(expectedEntries[i].getMessage(), actualEntries[i].getMessage());
+		}
+	}
+
+	private CompositeChange createChange() throws Exception {
+		CompositeChange result= new CompositeChange("bulk");
+		for (int i= 0; i < COUNT; i++) {
+			TextFileChange change= new TextFileChange(fFiles[i].getName(), fFiles[i]);
+			change.setEdit(new ReplaceEdit(6, 1, "B"));
+			result.add(change);
+		}
+		result.initializeValidationData(new NullProgressMonitor());
+		return result;
+	}
+
+	private void assertContents(String expected) throws Exception {
+		for (int i= 0; i < fFiles.length; i++)
+			assertEquals(fFiles[i].getName(), expected, fProject.getContent(fFiles[i]));
+	}
+
+	private static void setReadOnly(IFile file, boolean readOnly) throws Exception {
+		if (!file.exists())
+			return;
+		ResourceAttributes attributes= file.getResourceAttributes();
+		if (attributes == null || attributes.isReadOnly() == readOnly)
+			return;
+		attributes.setReadOnly(readOnly);
+		file.setResourceAttributes(attributes);
+	}
+}
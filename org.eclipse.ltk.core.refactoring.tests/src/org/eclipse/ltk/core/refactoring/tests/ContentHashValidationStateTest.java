@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+import org.eclipse.ltk.internal.core.refactoring.BufferValidationState;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
+
+public class ContentHashValidationStateTest extends TestCase {
+
+	private SimpleTestProject fProject;
+	private IFolder fFolder;
+	private BufferValidationState fState;
+
+	@Override
+	protected void setUp() throws Exception {
+		getPreferences().putBoolean(RefactoringPreferenceConstants.PREFERENCE_CONTENT_HASH_VALIDATION, true);
+		fProject= new SimpleTestProject();
+		fFolder= fProject.createFolder("validation");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fState != null)
+			fState.dispose();
+		fProject.delete();
+		getPreferences().remove(RefactoringPreferenceConstants.PREFERENCE_CONTENT_HASH_VALIDATION);
+	}
+
+	public void testUnchanged() throws Exception {
+		IFile file= fProject.createFile(fFolder, "unchanged.txt", "first line\nsecond line\n");
+		fState= BufferValidationState.create(file);
+		assertTrue(fState.isValid(false).isOK());
+	}
+
+	public void testRewrittenWithSameContent() throws Exception {
+		String content= "first line\nsecond line\n";
+		IFile file= fProject.createFile(fFolder, "same.txt", content);
+		fState= BufferValidationState.create(file);
+		long stamp= file.getModificationStamp();
+		setContents(file, content);
+		assertTrue(stamp != file.getModificationStamp());
+		assertTrue(fState.isValid(false).isOK());
+	}
+
+	public void testContentChanged() throws Exception {
+		IFile file= fProject.createFile(fFolder, "changed.txt", "first line\nsecond line\n");
+		fState= BufferValidationState.create(file);
+		setContents(file, "first line\nsecond lime\n");
+		assertContentChanged(fState.isValid(false));
+	}
+
+	public void testLengthChanged() throws Exception {
+		IFile file= fProject.createFile(fFolder, "length.txt", "first line\nsecond line\n");
+		fState= BufferValidationState.create(file);
+		setContents(file, "first line\n");
+		assertContentChanged(fState.isValid(false));
+	}
+
+	public void testSameCRC32() throws Exception {
+		// "plumless" and "buckeroo" have the same length and the same CRC32
+		IFile file= fProject.createFile(fFolder, "collision.txt", "plumless");
+		fState= BufferValidationState.create(file);
+		setContents(file, "buckeroo");
+		assertContentChanged(fState.isValid(false));
+	}
+
+	public void testLargeFile() throws Exception {
+		// larger than the read buffer, with a change in the last chunk
+		String content= createContent(200 * 1024);
+		IFile file= fProject.createFile(fFolder, "large.txt", content);
+		fState= BufferValidationState.create(file);
+
+		setContents(file, content);
+		assertTrue(fState.isValid(false).isOK());
+
+		setContents(file, content.substring(0, content.length() - 1) + "!");
+		assertContentChanged(fState.isValid(false));
+	}
+
+	public void testFileNotLocked() throws Exception {
+		IFile file= fProject.createFile(fFolder, "locked.txt", createContent(200 * 1024));
+		fState= BufferValidationState.create(file);
+		assertTrue(fState.isValid(false).isOK());
+		file.delete(true, null);
+		assertFalse(file.getLocation().toFile().exists());
+	}
+
+	private static void assertContentChanged(RefactoringStatus status) {
+		assertTrue(status.hasFatalError());
+	}
+
+	private static void setContents(IFile file, String content) throws Exception {
+		file.setContents(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), IResource.FORCE, null);
+	}
+
+	private static String createContent(int size) {
+		StringBuffer buffer= new StringBuffer(size);
+		for (int i= 0; buffer.length() < size; i++) {
+			buffer.append("line ").append(i).append('\n');
+		}
+		return buffer.toString();
+	}
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(RefactoringCorePlugin.getPluginId());
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusContext;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+
+public class RefactoringStatusTest extends TestCase {
+
+	private static class TestContext extends RefactoringStatusContext {
+		@Override
+		public Object getCorrespondingElement() {
+			return null;
+		}
+	}
+
+	public void testDefaultStatusKeepsDuplicates() throws Exception {
+		RefactoringStatus status= new RefactoringStatus();
+		status.addWarning("duplicate");
+		status.addWarning("duplicate");
+		assertFalse(status.isCompact());
+		assertEquals(2, status.getEntries().length);
+		assertEquals(1, status.getEntryCount(status.getEntryAt(0)));
+	}
+
+	public void testCompactStatusCountsDuplicates() throws Exception {
+		RefactoringStatus status= RefactoringStatus.createCompactStatus();
+		TestContext first= new TestContext();
+		status.addWarning("duplicate", first);
+		status.addWarning("duplicate", new TestContext());
+		status.addError("duplicate");
+		status.addWarning("other");
+
+		RefactoringStatusEntry[] entries= status.getEntries();
+		assertEquals(3, entries.length);
+		assertEquals(RefactoringStatus.ERROR, status.getSeverity());
+		assertSame(first, entries[0].getContext());
+		assertEquals(2, status.getEntryCount(entries[0]));
+		assertEquals(1, status.getEntryCount(entries[1]));
+		assertEquals(1, status.getEntryCount(entries[2]));
+	}
+
+	public void testMergeIntoDefaultStatus() throws Exception {
+		RefactoringStatus compact= RefactoringStatus.createCompactStatus();
+		TestContext first= new TestContext();
+		TestContext second= new TestContext();
+		compact.addWarning("duplicate", first);
+		compact.addWarning("duplicate", second);
+
+		RefactoringStatus status= new RefactoringStatus();
+		status.addWarning("duplicate");
+		status.addInfo("info");
+		status.merge(compact);
+
+		assertFalse(status.isCompact());
+		RefactoringStatusEntry[] entries= status.getEntries();
+		assertEquals(4, entries.length);
+		assertSame(first, entries[2].getContext());
+		assertSame(second, entries[3].getContext());
+		assertEquals(1, status.getEntryCount(entries[0]));
+		assertEquals(RefactoringStatus.WARNING, status.getSeverity());
+	}
+
+	public void testMergeIntoCompactStatus() throws Exception {
+		RefactoringStatus other= new RefactoringStatus();
+		other.addWarning("duplicate", new TestContext());
+		other.addWarning("duplicate", new TestContext());
+
+		RefactoringStatus status= RefactoringStatus.createCompactStatus();
+		status.addWarning("duplicate");
+		status.merge(other);
+
+		assertTrue(status.isCompact());
+		assertEquals(1, status.getEntries().length);
+		assertEquals(3, status.getEntryCount(status.getEntryAt(0)));
+	}
+
+	public void testRepeatedEntriesKeepContexts() throws Exception {
+		int count= 2500;
+		TestContext[] contexts= new TestContext[count];
+		RefactoringStatus status= RefactoringStatus.createCompactStatus();
+		status.addEntry(RefactoringStatus.ERROR, "duplicate", null, "plugin", 4711, "data");
+		for (int i= 0; i < count; i++) {
+			contexts[i]= i % 2 == 0 ? new TestContext() : null;
+			status.addEntry(RefactoringStatus.ERROR, "duplicate", contexts[i], "plugin", 4711, "data");
+		}
+
+		RefactoringStatusEntry entry= status.getEntryAt(0);
+		assertEquals(1, status.getEntries().length);
+		assertEquals(count + 1, status.getEntryCount(entry));
+
+		RefactoringStatusEntry[] repeated= status.getRepeatedEntries(entry);
+		assertEquals(count, repeated.length);
+		for (int i= 0; i < count; i++) {
+			assertSame(contexts[i], repeated[i].getContext());
+			assertEquals(RefactoringStatus.ERROR, repeated[i].getSeverity());
+			assertEquals("duplicate", repeated[i].getMessage());
+			assertEquals("plugin", repeated[i].getPluginId());
+			assertEquals(4711, repeated[i].getCode());
+			assertEquals("data", repeated[i].getData());
+		}
+	}
+
+	public void testNoRepeatedEntries() throws Exception {
+		RefactoringStatus status= new RefactoringStatus();
+		status.addWarning("duplicate");
+		status.addWarning("duplicate");
+		assertEquals(0, status.getRepeatedEntries(status.getEntryAt(0)).length);
+
+		status= RefactoringStatus.createCompactStatus();
+		status.addWarning("single");
+		assertEquals(0, status.getRepeatedEntries(status.getEntryAt(0)).length);
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEditGroup;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ltk.core.refactoring.DocumentChange;
+import org.eclipse.ltk.core.refactoring.TextEditChangeGroup;
+
+public class TextChangePreviewTest extends TestCase {
+
+	private IDocument fDocument;
+	private DocumentChange fChange;
+	private TextEditChangeGroup fFirst;
+	private TextEditChangeGroup fSecond;
+
+	@Override
+	protected void setUp() throws Exception {
+		fDocument= new Document("aaa\nbbb\nccc\n");
+		fChange= new DocumentChange("test", fDocument);
+		fChange.setEdit(new MultiTextEdit());
+
+		ReplaceEdit first= new ReplaceEdit(0, 3, "xx");
+		fChange.addEdit(first);
+		fFirst= new TextEditChangeGroup(fChange, new TextEditGroup("first", first));
+		fChange.addTextEditChangeGroup(fFirst);
+
+		ReplaceEdit second= new ReplaceEdit(8, 3, "yyyy");
+		fChange.addEdit(second);
+		fSecond= new TextEditChangeGroup(fChange, new TextEditGroup("second", second));
+		fChange.addTextEditChangeGroup(fSecond);
+	}
+
+	public void testRepeatedPreview() throws Exception {
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		assertEquals("aaa\nbbb\nccc\n", fDocument.get());
+	}
+
+	public void testPreviewDocumentIsNotShared() throws Exception {
+		IDocument preview= fChange.getPreviewDocument(null);
+		preview.replace(0, preview.getLength(), "");
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+	}
+
+	public void testPreviewFollowsEnablement() throws Exception {
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		fSecond.setEnabled(false);
+		assertEquals("xx\nbbb\nccc\n", fChange.getPreviewContent(null));
+		fSecond.setEnabled(true);
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+	}
+
+	public void testPreviewFollowsDocument() throws Exception {
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		fDocument.replace(4, 3, "BBB");
+		assertEquals("xx\nBBB\nyyyy\n", fChange.getPreviewContent(null));
+	}
+
+	public void testPreviewFollowsEdits() throws Exception {
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		fChange.addEdit(new ReplaceEdit(4, 3, "z"));
+		assertEquals("xx\nz\nyyyy\n", fChange.getPreviewContent(null));
+	}
+
+	public void testPreviewFollowsEditsAddedToTree() throws Exception {
+		assertEquals("xx\nbbb\nyyyy\n", fChange.getPreviewContent(null));
+		fChange.getEdit().addChild(new ReplaceEdit(4, 3, "z"));
+		assertEquals("xx\nz\nyyyy\n", fChange.getPreviewContent(null));
+	}
+
+	public void testGroupPreview() throws Exception {
+		TextEditChangeGroup[] first= { fFirst };
+		TextEditChangeGroup[] second= { fSecond };
+		assertEquals("xx", fChange.getPreviewContent(first, fFirst.getRegion(), true, 0, null));
+		assertEquals("yyyy", fChange.getPreviewContent(second, fSecond.getRegion(), true, 0, null));
+		assertEquals("xx", fChange.getPreviewContent(first, fFirst.getRegion(), true, 0, null));
+	}
+
+	public void testKeepPreviewEdits() throws Exception {
+		fChange.setKeepPreviewEdits(true);
+		fChange.getPreviewContent(null);
+		fChange.getPreviewContent(null);
+		assertEquals(8 - 1, fChange.getPreviewEdit(fSecond.getTextEdits()[0]).getOffset());
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ltk.internal.core.refactoring.UndoStore;
+
+public class UndoStoreTest extends TestCase {
+
+	private static final String CONTENT= "first line\nsecond line \u00e4\u00f6\u00fc\nthird line\n";
+
+	private static final String EDITED= "1st line\n line \u00e4\u00f6\u00fc\nthird line\nfourth line\n";
+
+	private File fDirectory;
+	private IDocument fDocument;
+	private UndoEdit fUndo;
+
+	@Override
+	protected void setUp() throws Exception {
+		fDirectory= new File(System.getProperty("java.io.tmpdir"), "UndoStoreTest");
+		fDocument= new Document(CONTENT);
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new ReplaceEdit(0, 5, "1st"));
+		edit.addChild(new ReplaceEdit(11, 6, ""));
+		edit.addChild(new ReplaceEdit(CONTENT.length(), 0, "fourth line\n"));
+		fUndo= edit.apply(fDocument, TextEdit.CREATE_UNDO);
+		assertEquals(EDITED, fDocument.get());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files= fDirectory.listFiles();
+		if (files != null) {
+			for (int i= 0; i < files.length; i++)
+				files[i].delete();
+		}
+		fDirectory.delete();
+	}
+
+	public void testKeptInMemory() throws Exception {
+		UndoStore store= new UndoStore(fDirectory, 0, Long.MAX_VALUE);
+		UndoStore.Entry entry= store.store(fUndo);
+		assertFalse(entry.isOnDisk());
+		assertSame(fUndo, entry.getEdit());
+		assertTrue(store.getRetainedSize() > 0);
+		entry.dispose();
+		assertEquals(0, store.getRetainedSize());
+	}
+
+	public void testStoredOnDisk() throws Exception {
+		UndoStore store= new UndoStore(fDirectory, 0, 0);
+		UndoStore.Entry entry= store.store(fUndo);
+		assertTrue(entry.isOnDisk());
+		assertTrue(entry.getDiskSize() > 0);
+		assertEquals(0, store.getRetainedSize());
+
+		entry.getEdit().apply(fDocument);
+		assertEquals(CONTENT, fDocument.get());
+
+		entry.dispose();
+		assertEquals(0, entry.getDiskSize());
+		String[] files= fDirectory.list();
+		assertTrue(files == null || files.length == 0);
+	}
+
+	public void testRedoFromDisk() throws Exception {
+		UndoStore store= new UndoStore(fDirectory, 0, 0);
+		UndoStore.Entry entry= store.store(fUndo);
+		assertTrue(entry.isOnDisk());
+
+		UndoEdit redo= entry.getEdit().apply(fDocument, TextEdit.CREATE_UNDO);
+		assertEquals(CONTENT, fDocument.get());
+		redo.apply(fDocument);
+		assertEquals(EDITED, fDocument.get());
+		entry.dispose();
+	}
+
+	public void testUnpairedSurrogatesStoredOnDisk() throws Exception {
+		// a document edit can split a surrogate pair
+		String content= "a\ud83d\ude00b\ud800c";
+		IDocument document= new Document(content);
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new ReplaceEdit(1, 1, ""));
+		edit.addChild(new ReplaceEdit(4, 2, "x"));
+		UndoEdit undo= edit.apply(document, TextEdit.CREATE_UNDO);
+
+		UndoStore store= new UndoStore(fDirectory, 0, 0);
+		UndoStore.Entry entry= store.store(undo);
+		assertTrue(entry.isOnDisk());
+		entry.getEdit().apply(document);
+		assertEquals(content, document.get());
+		entry.dispose();
+	}
+
+	public void testSmallEditsKeptInMemory() throws Exception {
+		UndoStore store= new UndoStore(fDirectory, Long.MAX_VALUE, 0);
+		UndoStore.Entry entry= store.store(fUndo);
+		assertFalse(entry.isOnDisk());
+		entry.getEdit().apply(fDocument);
+		assertEquals(CONTENT, fDocument.get());
+	}
+}
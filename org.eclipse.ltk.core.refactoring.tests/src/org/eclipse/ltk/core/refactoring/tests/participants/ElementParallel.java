@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * The element to be renamed by participants running in parallel
+ */
+public class ElementParallel {
+
+	private final IFile fFile;
+
+	public ElementParallel(IFile file) {
+		fFile= file;
+	}
+
+	public IFile getFile() {
+		return fFile;
+	}
+}
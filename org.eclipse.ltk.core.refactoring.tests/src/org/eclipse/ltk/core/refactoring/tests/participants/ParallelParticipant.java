@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.text.edits.InsertEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextChange;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
+import org.eclipse.ltk.core.refactoring.participants.ResourceChangeChecker;
+
+/**
+ * A participant declared with <code>parallel="true"</code>. Its conditions are only met if
+ * all participants check their conditions at the same time. It records how many participants
+ * access shared state at the same time.
+ */
+public class ParallelParticipant extends RenameParticipant {
+
+	static CountDownLatch fgChecking;
+	static final AtomicInteger fgActive= new AtomicInteger();
+	static final AtomicInteger fgMaxActive= new AtomicInteger();
+
+	private ElementParallel fElement;
+
+	static void reset(int participants) {
+		fgChecking= new CountDownLatch(participants);
+		fgActive.set(0);
+		fgMaxActive.set(0);
+	}
+
+	@Override
+	protected boolean initialize(Object element) {
+		fElement= (ElementParallel) element;
+		return true;
+	}
+
+	@Override
+	public String getName() {
+		return ParallelParticipant.class.getName();
+	}
+
+	@Override
+	public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+		fgChecking.countDown();
+		try {
+			if (!fgChecking.await(10, TimeUnit.SECONDS))
+				return RefactoringStatus.createErrorStatus("participants did not run in parallel");
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		}
+		ResourceChangeChecker checker= context.getChecker(ResourceChangeChecker.class);
+		enter();
+		checker.getDeltaFactory().change(fElement.getFile());
+		leave();
+		return new RefactoringStatus();
+	}
+
+	@Override
+	public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+		TextChange change= getTextChange(fElement.getFile());
+		enter();
+		change.addEdit(new InsertEdit(0, "x"));
+		leave();
+		return null;
+	}
+
+	private static void enter() {
+		int active= fgActive.incrementAndGet();
+		int max;
+		while (active > (max= fgMaxActive.get()) && !fgMaxActive.compareAndSet(max, active)) {
+			// retry
+		}
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static void leave() {
+		fgActive.decrementAndGet();
+	}
+}
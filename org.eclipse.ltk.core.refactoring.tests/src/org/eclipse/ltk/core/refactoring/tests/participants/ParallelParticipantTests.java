@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CheckConditionsOperation;
+import org.eclipse.ltk.core.refactoring.PerformRefactoringOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.ParticipantManager;
+import org.eclipse.ltk.core.refactoring.participants.RefactoringParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
+import org.eclipse.ltk.core.refactoring.participants.RenameProcessor;
+import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.SharableParticipants;
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+
+public class ParallelParticipantTests extends TestCase {
+
+	private static final int PARTICIPANTS= 2;
+
+	private SimpleTestProject fProject;
+
+	private static class Processor extends RenameProcessor {
+
+		private ElementParallel fElement;
+
+		public Processor(IFile file) {
+			fElement= new ElementParallel(file);
+		}
+		@Override
+		public Object[] getElements() {
+			return new Object[] { fElement };
+		}
+		@Override
+		public String getIdentifier() {
+			return "org.eclipse.ltk.core.refactoring.tests.ParallelProcessor";
+		}
+		@Override
+		public String getProcessorName() {
+			return "processor";
+		}
+		@Override
+		public boolean isApplicable() throws CoreException {
+			return true;
+		}
+		@Override
+		public RefactoringStatus checkInitialConditions(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditionsContext context) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			TextFileChange result= new TextFileChange("", fElement.getFile());
+			MultiTextEdit root= new MultiTextEdit();
+			root.addChild(new ReplaceEdit(8, 3, "three"));
+			result.setEdit(root);
+			return result;
+		}
+		@Override
+		public RefactoringParticipant[] loadParticipants(RefactoringStatus status, SharableParticipants sharedParticipants) throws CoreException {
+			return ParticipantManager.loadRenameParticipants(status, this, fElement, new RenameArguments("test", true), new String[0], sharedParticipants);
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= new SimpleTestProject();
+		ParallelParticipant.reset(PARTICIPANTS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete();
+		super.tearDown();
+	}
+
+	public void testParallelParticipants() throws Exception {
+		IFolder folder= fProject.createFolder("test");
+		IFile file= fProject.createFile(folder, "test.txt", "section one section two");
+		RenameRefactoring refactoring= new RenameRefactoring(new Processor(file));
+		PerformRefactoringOperation op= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
+		ResourcesPlugin.getWorkspace().run(op, null);
+
+		assertTrue(op.getConditionStatus().toString(), op.getConditionStatus().isOK());
+		assertEquals(0, ParallelParticipant.fgChecking.getCount());
+		assertEquals(1, ParallelParticipant.fgMaxActive.get());
+		assertEquals("xxsection three section two", fProject.getContent(file));
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.expressions.EvaluationContext;
+import org.eclipse.core.runtime.IConfigurationElement;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
+
+/**
+ * Tests which enablement results a {@link ParticipantDescriptor} caches.
+ */
+public class ParticipantDescriptorTests extends TestCase {
+
+	private static final String PROCESSOR= "org.eclipse.ltk.core.refactoring.tests.processor";
+
+	/**
+	 * A configuration element that only answers the queries of the expression converter.
+	 */
+	private static class Node implements InvocationHandler {
+
+		private final String fName;
+		private final Map<String, String> fAttributes= new HashMap<>();
+		private final List<IConfigurationElement> fChildren= new ArrayList<>();
+
+		Node(String name) {
+			fName= name;
+		}
+
+		Node attribute(String name, String value) {
+			fAttributes.put(name, value);
+			return this;
+		}
+
+		Node child(Node child) {
+			fChildren.add(child.create());
+			return this;
+		}
+
+		IConfigurationElement create() {
+			return (IConfigurationElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { IConfigurationElement.class }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name= method.getName();
+			if ("getName".equals(name))
+				return fName;
+			if ("getAttribute".equals(name))
+				return fAttributes.get(args[0]);
+			if ("getChildren".equals(name)) {
+				if (args == null)
+					return fChildren.toArray(new IConfigurationElement[fChildren.size()]);
+				List<IConfigurationElement> result= new ArrayList<>();
+				for (IConfigurationElement child : fChildren) {
+					if (child.getName().equals(args[0]))
+						result.add(child);
+				}
+				return result.toArray(new IConfigurationElement[result.size()]);
+			}
+			if ("isValid".equals(name))
+				return Boolean.TRUE;
+			if ("getNamespaceIdentifier".equals(name))
+				return "org.eclipse.ltk.core.refactoring.tests";
+			if ("equals".equals(name))
+				return Boolean.valueOf(proxy == args[0]);
+			if ("hashCode".equals(name))
+				return Integer.valueOf(System.identityHashCode(proxy));
+			if ("toString".equals(name))
+				return fName;
+			throw new UnsupportedOperationException(name);
+		}
+	}
+
+	public void testInstanceofCached() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(with("element", new Node("instanceof").attribute("value", Element.class.getName())));
+
+		assertTrue(matches(descriptor, new Element(), "nature.a"));
+		assertTrue(matches(descriptor, new Element(), "nature.a"));
+		assertEquals(1, getCachedResults(descriptor));
+		assertFalse(matches(descriptor, new Object(), "nature.a"));
+		assertEquals(2, getCachedResults(descriptor));
+	}
+
+	public void testIterateElementNotCached() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(with("element",
+				new Node("iterate").attribute("operator", "or").child(new Node("equals").attribute("value", "a"))));
+
+		assertTrue(matches(descriptor, new ArrayList<>(Arrays.asList("a")), "nature.a"));
+		assertFalse(matches(descriptor, new ArrayList<>(Arrays.asList("b")), "nature.a"));
+		assertEquals(0, getCachedResults(descriptor));
+	}
+
+	public void testCountElementNotCached() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(with("element", new Node("count").attribute("value", "1")));
+
+		assertTrue(matches(descriptor, new ArrayList<>(Arrays.asList("a")), "nature.a"));
+		assertFalse(matches(descriptor, new ArrayList<>(Arrays.asList("a", "b")), "nature.a"));
+		assertEquals(0, getCachedResults(descriptor));
+	}
+
+	public void testEqualsElementNotCached() throws Exception {
+		// the element is the default variable
+		ParticipantDescriptor descriptor= createDescriptor(new Node("equals").attribute("value", "element"));
+
+		assertFalse(matches(descriptor, new Element(), "nature.a"));
+		assertEquals(0, getCachedResults(descriptor));
+	}
+
+	public void testIterateNaturesCached() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(with("affectedNatures",
+				new Node("iterate").attribute("operator", "or").child(new Node("equals").attribute("value", "nature.a"))));
+
+		assertTrue(matches(descriptor, new Element(), "nature.a"));
+		assertFalse(matches(descriptor, new Element(), "nature.b"));
+		assertTrue(matches(descriptor, new Element(), "nature.a"));
+		assertEquals(2, getCachedResults(descriptor));
+	}
+
+	public void testOtherVariableNotCached() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(with("other", new Node("instanceof").attribute("value", String.class.getName())));
+
+		EvaluationContext context= createContext(new Element(), "nature.a");
+		context.addVariable("other", "value");
+		assertTrue(descriptor.matches(context, null, new RefactoringStatus()));
+		assertEquals(0, getCachedResults(descriptor));
+	}
+
+	private static Node with(String variable, Node child) {
+		return new Node("with").attribute("variable", variable).child(child);
+	}
+
+	private static ParticipantDescriptor createDescriptor(Node expression) {
+		Node participant= new Node("renameParticipant")
+				.attribute("id", "participant")
+				.attribute("name", "participant")
+				.attribute("class", "participant")
+				.child(new Node("enablement").child(expression));
+		return new ParticipantDescriptor(participant.create());
+	}
+
+	private static boolean matches(ParticipantDescriptor descriptor, Object element, String nature) throws Exception {
+		return descriptor.matches(createContext(element, nature), null, new RefactoringStatus());
+	}
+
+	private static EvaluationContext createContext(Object element, String nature) {
+		EvaluationContext result= new EvaluationContext(null, element);
+		result.addVariable("element", element);
+		result.addVariable("affectedNatures", Arrays.asList(nature));
+		result.addVariable("processorIdentifier", PROCESSOR);
+		return result;
+	}
+
+	private static int getCachedResults(ParticipantDescriptor descriptor) throws Exception {
+		Field field= ParticipantDescriptor.class.getDeclaredField("fResults");
+		field.setAccessible(true);
+		return ((Map<?, ?>) field.get(descriptor)).size();
+	}
+}
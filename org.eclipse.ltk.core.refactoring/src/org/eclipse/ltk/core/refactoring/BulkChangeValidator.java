@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.ltk.internal.core.refactoring.Changes;
+
+/**
+ * Validates the text file changes of a large change tree before the tree is validated and
+ * performed by {@link PerformChangeOperation}.
+ * <p>
+ * Validating each {@link TextFileChange} on its own asks the workspace once per file whether the
+ * file can be modified, which involves the team provider. The validator asks for all files that
+ * are saved in one call, and checks the buffer states of the files. The results are handed to the
+ * changes and returned by their next {@link TextFileChange#isValid(IProgressMonitor)} call.
+ * </p>
+ * <p>
+ * The status of the combined call cannot be attributed to single files. If it is not OK, no results
+ * are handed out, and each change validates its file on its own, so that the validation of the tree
+ * reports the same status as without the validator.
+ * </p>
+ * <p>
+ * The buffer states are checked on the calling thread. They look up file buffers and read the
+ * modification stamps of documents that may be shown in editors, which is not safe to do from
+ * several threads at once.
+ * </p>
+ */
+final class BulkChangeValidator {
+
+	/** The number of text file changes above which changes are validated in bulk */
+	static final int THRESHOLD= 50;
+
+	private final List<TextFileChange> fChanges= new ArrayList<>();
+
+	/**
+	 * Creates a validator for the enabled text file changes in the given change tree.
+	 *
+	 * @param change the root of the change tree
+	 */
+	BulkChangeValidator(Change change) {
+		collect(change);
+	}
+
+	private void collect(Change change) {
+		if (!change.isEnabled())
+			return;
+		if (change instanceof TextFileChange) {
+			fChanges.add((TextFileChange) change);
+		} else if (change instanceof CompositeChange) {
+			Change[] children= ((CompositeChange) change).getChildren();
+			for (int i= 0; i < children.length; i++)
+				collect(children[i]);
+		}
+	}
+
+	/**
+	 * Tells whether the change tree has enough text file changes to be validated in bulk.
+	 *
+	 * @return <code>true</code> if {@link #prevalidate(IProgressMonitor)} should be used
+	 */
+	boolean isBulk() {
+		return fChanges.size() >= THRESHOLD;
+	}
+
+	/**
+	 * Validates all text file changes and hands the results to the changes, unless some file
+	 * cannot be modified or is out of sync.
+	 *
+	 * @param pm the progress monitor
+	 * @throws CoreException if the validation of a change fails
+	 */
+	void prevalidate(IProgressMonitor pm) throws CoreException {
+		List<IFile> saved= new ArrayList<>();
+		List<IFile> read= new ArrayList<>();
+		for (int i= 0; i < fChanges.size(); i++) {
+			TextFileChange change= fChanges.get(i);
+			if (change.needsSaving())
+				saved.add(change.getFile());
+			else
+				read.add(change.getFile());
+		}
+
+		RefactoringStatus filesStatus= new RefactoringStatus();
+		if (!saved.isEmpty())
+			filesStatus.merge(Changes.validateModifiesFiles(saved.toArray(new IFile[saved.size()])));
+		if (!read.isEmpty())
+			filesStatus.merge(Changes.checkInSync(read.toArray(new IFile[read.size()])));
+		if (!filesStatus.isOK())
+			return;
+
+		RefactoringStatus[] results= validateBufferStates(pm);
+		for (int i= 0; i < fChanges.size(); i++) {
+			if (results[i] != null)
+				fChanges.get(i).setPrevalidatedStatus(results[i]);
+		}
+	}
+
+	private RefactoringStatus[] validateBufferStates(IProgressMonitor pm) throws CoreException {
+		RefactoringStatus[] results= new RefactoringStatus[fChanges.size()];
+		for (int i= 0; i < results.length; i++) {
+			if (pm.isCanceled())
+				throw new OperationCanceledException();
+			results[i]= fChanges.get(i).validateBufferState();
+		}
+		return results;
+	}
+
+	/**
+	 * Discards the results that have not been used by the changes, e.g. because the validation
+	 * of the change tree stopped at a fatal error.
+	 */
+	void clear() {
+		for (int i= 0; i < fChanges.size(); i++)
+			fChanges.get(i).setPrevalidatedStatus(null);
+	}
+}
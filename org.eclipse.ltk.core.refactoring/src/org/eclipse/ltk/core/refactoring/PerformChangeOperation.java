@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,6 +51,10 @@ import org.eclipse.ltk.internal.core.refactoring.NotCancelableProgressMonitor;
  * <code>IWorkspace</code> to achieve proper delta batching.
  * </p>
  * <p>
+ * If the change contains many text file changes, the operation checks whether
+ * all files can be modified in a single request before the change is validated.
+ * </p>
+ * <p>
  * Note: this class is not intended to be extended outside of the refactoring framework.
  * </p>
  *
@@ -243,7 +247,14 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 				boolean undoInitialized= false;
 				try {
 					monitor.beginTask("", 10); //$NON-NLS-1$
-					fValidationStatus= fChange.isValid(new SubProgressMonitor(monitor, 1));
+					BulkChangeValidator validator= new BulkChangeValidator(fChange);
+					try {
+						if (validator.isBulk())
+							validator.prevalidate(monitor);
+						fValidationStatus= fChange.isValid(new SubProgressMonitor(monitor, 1));
+					} finally {
+						validator.clear();
+					}
 					if (fValidationStatus.hasFatalError())
 						return;
 					boolean aboutToPerformChangeCalled= false;
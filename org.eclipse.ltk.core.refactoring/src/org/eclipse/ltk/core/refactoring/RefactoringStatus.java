@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,10 @@
 package org.eclipse.ltk.core.refactoring;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -96,6 +98,75 @@ public class RefactoringStatus {
 	 */
 	private int fSeverity= OK;
 
+	/**
+	 * The repetitions of each entry, or <code>null</code> if this status is not
+	 * compact.
+	 */
+	private Map<EntryKey, Repetitions> fRepetitions;
+
+	/**
+	 * The entries of a compact status that have been added again after the first one.
+	 * Only their contexts are kept; the entries are created when they are asked for.
+	 */
+	private static final class Repetitions {
+		/** The number of repeated entries */
+		private int fCount;
+		/**
+		 * The contexts of the repeated entries in the order they have been added, or
+		 * <code>null</code> if none of them has a context
+		 */
+		private List<RefactoringStatusContext> fContexts;
+
+		void add(RefactoringStatusContext context) {
+			if (context != null && fContexts == null) {
+				fContexts= new ArrayList<>(fCount + 1);
+				for (int i= 0; i < fCount; i++)
+					fContexts.add(null);
+			}
+			if (fContexts != null)
+				fContexts.add(context);
+			fCount++;
+		}
+
+		RefactoringStatusContext getContext(int index) {
+			return fContexts != null ? fContexts.get(index) : null;
+		}
+	}
+
+	/**
+	 * Identifies entries that a compact status stores only once.
+	 */
+	private static final class EntryKey {
+		private final int fSeverity;
+		private final String fMessage;
+		private final String fPluginId;
+		private final int fCode;
+		private final Object fData;
+
+		EntryKey(RefactoringStatusEntry entry) {
+			fSeverity= entry.getSeverity();
+			fMessage= entry.getMessage();
+			fPluginId= entry.getPluginId();
+			fCode= entry.getCode();
+			fData= entry.getData();
+		}
+
+		@Override
+		public int hashCode() {
+			return (fMessage.hashCode() * 31 + fSeverity) * 31 + fCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof EntryKey))
+				return false;
+			EntryKey other= (EntryKey) obj;
+			return fSeverity == other.fSeverity && fCode == other.fCode && fMessage.equals(other.fMessage)
+					&& (fPluginId == null ? other.fPluginId == null : fPluginId.equals(other.fPluginId))
+					&& (fData == null ? other.fData == null : fData.equals(other.fData));
+		}
+	}
+
 	/**
 	 * Creates a new refactoring status with an empty list of
 	 * status entries and a severity of <code>OK</code>.
@@ -104,6 +175,100 @@ public class RefactoringStatus {
 		fEntries= new ArrayList<>(0);
 	}
 
+	/**
+	 * Creates a new compact refactoring status with an empty list of status entries
+	 * and a severity of <code>OK</code>.
+	 * <p>
+	 * A compact status is meant for statuses that collect a large number of problems
+	 * to present them to the user. Entries with the same severity, message, plug-in
+	 * identifier, code and data are stored only once, together with the number of
+	 * times they have been added (see {@link #getEntryCount(RefactoringStatusEntry)}).
+	 * Of the repeated entries, only their contexts are kept. The entries themselves are
+	 * created when they are asked for (see {@link #getRepeatedEntries(RefactoringStatusEntry)}).
+	 * </p>
+	 * <p>
+	 * Note that {@link #getEntries()} of a compact status returns each of these entries
+	 * only once. Clients that hand out a status through API should therefore not return
+	 * a compact status.
+	 * </p>
+	 *
+	 * @return the new refactoring status
+	 *
+	 * @since 3.9
+	 */
+	public static RefactoringStatus createCompactStatus() {
+		RefactoringStatus result= new RefactoringStatus();
+		result.fRepetitions= new HashMap<>();
+		return result;
+	}
+
+	/**
+	 * Returns whether this status stores repeated entries only once.
+	 *
+	 * @return <code>true</code> if this is a compact status
+	 *
+	 * @see #createCompactStatus()
+	 * @since 3.9
+	 */
+	public boolean isCompact() {
+		return fRepetitions != null;
+	}
+
+	/**
+	 * Returns the number of times the given entry of this status has been added.
+	 * This is always 1 for entries of a status that is not compact.
+	 *
+	 * @param entry an entry of this status
+	 * @return the number of times the entry has been added, or 0 if the entry is not
+	 *  an entry of this compact status
+	 *
+	 * @see #createCompactStatus()
+	 * @since 3.9
+	 */
+	public int getEntryCount(RefactoringStatusEntry entry) {
+		if (fRepetitions == null)
+			return 1;
+		Repetitions repetitions= fRepetitions.get(new EntryKey(entry));
+		return repetitions != null ? repetitions.fCount + 1 : 0;
+	}
+
+	/**
+	 * Returns the entries that have been added to this compact status after the given
+	 * entry, and that are equal to it except for their context. The entries are created
+	 * by this call, each with the context it has been added with.
+	 *
+	 * @param entry an entry of this status
+	 * @return the repeated entries, in the order they have been added. The array is
+	 *  empty if this status is not compact, or if the entry has not been repeated
+	 *
+	 * @see #createCompactStatus()
+	 * @since 3.9
+	 */
+	public RefactoringStatusEntry[] getRepeatedEntries(RefactoringStatusEntry entry) {
+		Repetitions repetitions= fRepetitions != null ? fRepetitions.get(new EntryKey(entry)) : null;
+		if (repetitions == null)
+			return new RefactoringStatusEntry[0];
+		RefactoringStatusEntry[] result= new RefactoringStatusEntry[repetitions.fCount];
+		for (int i= 0; i < result.length; i++)
+			result[i]= new RefactoringStatusEntry(entry.getSeverity(), entry.getMessage(), repetitions.getContext(i), entry.getPluginId(), entry.getCode(), entry.getData());
+		return result;
+	}
+
+	private void add(RefactoringStatusEntry entry) {
+		if (fRepetitions == null) {
+			fEntries.add(entry);
+			return;
+		}
+		EntryKey key= new EntryKey(entry);
+		Repetitions repetitions= fRepetitions.get(key);
+		if (repetitions != null) {
+			repetitions.add(entry.getContext());
+		} else {
+			fRepetitions.put(key, new Repetitions());
+			fEntries.add(entry);
+		}
+	}
+
 	/**
 	 * Returns the severity.
 	 *
@@ -114,7 +279,8 @@ public class RefactoringStatus {
 	}
 
 	/**
-	 * Returns the list of refactoring status entries.
+	 * Returns the list of refactoring status entries. Of the entries of a compact
+	 * status that have been added repeatedly, only the first one is returned.
 	 *
 	 * @return the list of refactoring status entries. Returns an empty array
 	 *  if no entries are managed.
@@ -433,13 +599,27 @@ public class RefactoringStatus {
 	 * severity in the receiver will be the more severe of its current severity
 	 * and the parameter's severity. Merging with <code>null</code> is
 	 * allowed - it has no effect.
+	 * <p>
+	 * Whether the receiver is compact does not change. If the parameter is a compact
+	 * status, its repeated entries are added to the receiver as well.
+	 * </p>
 	 *
 	 * @param other the refactoring status to merge with
 	 */
 	public void merge(RefactoringStatus other) {
 		if (other == null)
 			return;
-		fEntries.addAll(other.fEntries);
+		if (fRepetitions == null && other.fRepetitions == null) {
+			fEntries.addAll(other.fEntries);
+		} else {
+			for (int i= 0; i < other.fEntries.size(); i++) {
+				RefactoringStatusEntry entry= other.fEntries.get(i);
+				add(entry);
+				RefactoringStatusEntry[] repeated= other.getRepeatedEntries(entry);
+				for (int j= 0; j < repeated.length; j++)
+					add(repeated[j]);
+			}
+		}
 		fSeverity= Math.max(fSeverity, other.getSeverity());
 	}
 
@@ -467,7 +647,7 @@ public class RefactoringStatus {
 	 * @see RefactoringStatusEntry
 	 */
 	public void addInfo(String msg, RefactoringStatusContext context) {
-		fEntries.add(new RefactoringStatusEntry(RefactoringStatus.INFO, msg, context));
+		add(new RefactoringStatusEntry(RefactoringStatus.INFO, msg, context));
 		fSeverity= Math.max(fSeverity, INFO);
 	}
 
@@ -495,7 +675,7 @@ public class RefactoringStatus {
 	 * @see RefactoringStatusEntry
 	 */
 	public void addWarning(String msg, RefactoringStatusContext context) {
-		fEntries.add(new RefactoringStatusEntry(RefactoringStatus.WARNING, msg, context));
+		add(new RefactoringStatusEntry(RefactoringStatus.WARNING, msg, context));
 		fSeverity= Math.max(fSeverity, WARNING);
 	}
 
@@ -525,7 +705,7 @@ public class RefactoringStatus {
 	 * @see RefactoringStatusEntry
 	 */
 	public void addError(String msg, RefactoringStatusContext context) {
-		fEntries.add(new RefactoringStatusEntry(RefactoringStatus.ERROR, msg, context));
+		add(new RefactoringStatusEntry(RefactoringStatus.ERROR, msg, context));
 		fSeverity= Math.max(fSeverity, ERROR);
 	}
 
@@ -551,7 +731,7 @@ public class RefactoringStatus {
 	 * @see RefactoringStatusEntry
 	 */
 	public void addFatalError(String msg, RefactoringStatusContext context) {
-		fEntries.add(new RefactoringStatusEntry(RefactoringStatus.FATAL, msg, context));
+		add(new RefactoringStatusEntry(RefactoringStatus.FATAL, msg, context));
 		fSeverity= Math.max(fSeverity, FATAL);
 	}
 
@@ -569,7 +749,7 @@ public class RefactoringStatus {
 	 *  or a positive integer
 	 */
 	public void addEntry(int severity, String msg, RefactoringStatusContext context, String pluginId, int code) {
-		fEntries.add(new RefactoringStatusEntry(severity, msg, context, pluginId, code));
+		add(new RefactoringStatusEntry(severity, msg, context, pluginId, code));
 		fSeverity= Math.max(fSeverity, severity);
 	}
 
@@ -588,7 +768,7 @@ public class RefactoringStatus {
 	 * @param data application specific data of the entry
 	 */
 	public void addEntry(int severity, String msg, RefactoringStatusContext context, String pluginId, int code, Object data) {
-		fEntries.add(new RefactoringStatusEntry(severity, msg, context, pluginId, code, data));
+		add(new RefactoringStatusEntry(severity, msg, context, pluginId, code, data));
 		fSeverity= Math.max(fSeverity, severity);
 	}
 
@@ -601,7 +781,7 @@ public class RefactoringStatus {
 	 */
 	public void addEntry(RefactoringStatusEntry entry) {
 		Assert.isNotNull(entry);
-		fEntries.add(entry);
+		add(entry);
 		fSeverity= Math.max(fSeverity, entry.getSeverity());
 	}
 
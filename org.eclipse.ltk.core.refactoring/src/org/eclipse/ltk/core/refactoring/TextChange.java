@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,12 @@
  *******************************************************************************/
 package org.eclipse.ltk.core.refactoring;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -26,6 +29,7 @@ import org.eclipse.text.edits.TextEdit;
 import org.eclipse.text.edits.TextEditCopier;
 import org.eclipse.text.edits.TextEditGroup;
 import org.eclipse.text.edits.TextEditProcessor;
+import org.eclipse.text.edits.TextEditVisitor;
 import org.eclipse.text.edits.UndoEdit;
 
 import org.eclipse.jface.text.BadLocationException;
@@ -70,8 +74,130 @@ import org.eclipse.ltk.internal.core.refactoring.Changes;
  */
 public abstract class TextChange extends TextEditBasedChange {
 
+	/**
+	 * Identifies a preview: the change groups it was computed for, their enablement
+	 * and the state of the edit tree.
+	 */
+	private static final class PreviewKey {
+		private final boolean fAllEdits;
+		private final TextEditBasedChangeGroup[] fGroups;
+		private final boolean[] fEnabled;
+		private final TextEdit[] fEdits;
+		private final int[] fRegions;
+
+		PreviewKey(boolean allEdits, TextEditBasedChangeGroup[] groups, TextEdit root) {
+			fAllEdits= allEdits;
+			fGroups= groups.clone();
+			fEnabled= new boolean[groups.length];
+			for (int i= 0; i < groups.length; i++)
+				fEnabled[i]= groups[i].isEnabled();
+			final List<TextEdit> edits= new ArrayList<>();
+			if (root != null) {
+				root.accept(new TextEditVisitor() {
+					@Override
+					public boolean visitNode(TextEdit edit) {
+						edits.add(edit);
+						return true;
+					}
+				});
+			}
+			fEdits= edits.toArray(new TextEdit[edits.size()]);
+			fRegions= new int[2 * fEdits.length];
+			for (int i= 0; i < fEdits.length; i++) {
+				fRegions[2 * i]= fEdits[i].getOffset();
+				fRegions[2 * i + 1]= fEdits[i].getLength();
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return fEdits.length * 31 + Arrays.hashCode(fEnabled);
+		}
+
+		/*
+		 * Edits can be added to the tree directly, so previews are only equal if they were
+		 * computed from the same edits at the same positions.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PreviewKey))
+				return false;
+			PreviewKey other= (PreviewKey) obj;
+			if (fAllEdits != other.fAllEdits || !Arrays.equals(fEnabled, other.fEnabled)
+					|| fGroups.length != other.fGroups.length || fEdits.length != other.fEdits.length
+					|| !Arrays.equals(fRegions, other.fRegions))
+				return false;
+			for (int i= 0; i < fGroups.length; i++) {
+				if (fGroups[i] != other.fGroups[i])
+					return false;
+			}
+			for (int i= 0; i < fEdits.length; i++) {
+				if (fEdits[i] != other.fEdits[i])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The most recently used previews of a text change, all computed from the same
+	 * document content.
+	 */
+	private static final class PreviewCache {
+		private static final int MAX_PREVIEWS= 4;
+
+		final IDocument fDocument;
+		final long fModificationStamp;
+		final String fContent;
+		final Map<PreviewKey, CachedPreview> fPreviews= new LinkedHashMap<PreviewKey, CachedPreview>(8, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PreviewKey, CachedPreview> eldest) {
+				return size() > MAX_PREVIEWS;
+			}
+		};
+
+		PreviewCache(IDocument document, String content) {
+			fDocument= document;
+			fModificationStamp= getModificationStamp(document);
+			fContent= content;
+		}
+
+		/*
+		 * The content is only compared if the document cannot tell whether it changed.
+		 */
+		boolean isValid(IDocument document) {
+			if (document == fDocument && fModificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+					&& fModificationStamp == getModificationStamp(document))
+				return true;
+			return fContent.equals(document.get());
+		}
+
+		private static long getModificationStamp(IDocument document) {
+			if (document instanceof IDocumentExtension4)
+				return ((IDocumentExtension4) document).getModificationStamp();
+			return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		}
+	}
+
+	private static final class CachedPreview {
+		final PreviewAndRegion fResult;
+		final TextEditCopier fCopier;
+
+		CachedPreview(PreviewAndRegion result, TextEditCopier copier) {
+			fResult= result;
+			fCopier= copier;
+		}
+	}
+
 	private TextEdit fEdit;
 	private TextEditCopier fCopier;
+	/**
+	 * The previews computed for this change. The previews are cleared by the
+	 * garbage collector under memory pressure.
+	 */
+	private SoftReference<PreviewCache> fPreviewCache;
 
 	/**
 	 * Creates a new text change with the specified name.  The name is a
@@ -102,6 +228,7 @@ public abstract class TextChange extends TextEditBasedChange {
 		Assert.isTrue(fEdit == null, "Root edit can only be set once"); //$NON-NLS-1$
 		Assert.isTrue(edit != null);
 		fEdit= edit;
+		fPreviewCache= null;
 	}
 
 	/**
@@ -137,6 +264,7 @@ public abstract class TextChange extends TextEditBasedChange {
 	public void addTextEditChangeGroup(TextEditChangeGroup group) {
 		Assert.isTrue(fEdit != null, "Can only add a description if a root edit exists"); //$NON-NLS-1$
 		addChangeGroup(group);
+		fPreviewCache= null;
 	}
 
 	/**
@@ -166,6 +294,7 @@ public abstract class TextChange extends TextEditBasedChange {
 	public void addEdit(TextEdit edit) throws MalformedTreeException {
 		Assert.isTrue(fEdit != null, "root must exist to add an edit"); //$NON-NLS-1$
 		fEdit.addChild(edit);
+		fPreviewCache= null;
 	}
 
 	//---- Document management -----------------------------------------------
@@ -396,12 +525,13 @@ public abstract class TextChange extends TextEditBasedChange {
 	 */
 	public IDocument getPreviewDocument(IProgressMonitor pm) throws CoreException {
 		PreviewAndRegion result= getPreviewDocument(ALL_EDITS, pm);
-		return result.document;
+		// the cached preview must not be modified by clients
+		return new Document(result.document.get());
 	}
 
 	@Override
 	public String getPreviewContent(IProgressMonitor pm) throws CoreException {
-		return getPreviewDocument(pm).get();
+		return getPreviewDocument(ALL_EDITS, pm).document.get();
 	}
 
 	/**
@@ -517,8 +647,27 @@ public abstract class TextChange extends TextEditBasedChange {
 
 	//---- private helper methods --------------------------------------------------
 
+	/*
+	 * The returned preview may be shared with other calls and must not be modified.
+	 */
 	private PreviewAndRegion getPreviewDocument(TextEditBasedChangeGroup[] changes, IProgressMonitor pm) throws CoreException {
-		IDocument document= new Document(getCurrentDocument(pm).get());
+		IDocument currentDocument= getCurrentDocument(pm);
+		PreviewKey key= changes == ALL_EDITS
+			? new PreviewKey(true, getChangeGroups(), fEdit)
+			: new PreviewKey(false, changes, fEdit);
+		PreviewCache cache= fPreviewCache != null ? fPreviewCache.get() : null;
+		if (cache == null || !cache.isValid(currentDocument)) {
+			cache= new PreviewCache(currentDocument, currentDocument.get());
+			fPreviewCache= new SoftReference<>(cache);
+		}
+		CachedPreview cached= cache.fPreviews.get(key);
+		if (cached != null) {
+			if (getKeepPreviewEdits())
+				fCopier= cached.fCopier;
+			return cached.fResult;
+		}
+
+		IDocument document= new Document(cache.fContent);
 		boolean trackChanges= getKeepPreviewEdits();
 		setKeepPreviewEdits(true);
 		TextEditProcessor processor= changes == ALL_EDITS
@@ -526,7 +675,9 @@ public abstract class TextChange extends TextEditBasedChange {
 			: createTextEditProcessor(document, TextEdit.NONE, changes);
 		try {
 			processor.performEdits();
-			return new PreviewAndRegion(document, getNewRegion(changes));
+			PreviewAndRegion result= new PreviewAndRegion(document, getNewRegion(changes));
+			cache.fPreviews.put(key, new CachedPreview(result, fCopier));
+			return result;
 		} catch (BadLocationException e) {
 			throw Changes.asCoreException(e);
 		} finally {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -81,6 +81,11 @@ public class TextFileChange extends TextChange {
 	private ITextFileBuffer fBuffer;
 	private BufferValidationState fValidationState;
 	private ContentStamp fContentStamp;
+	/**
+	 * The status computed by {@link BulkChangeValidator}, or <code>null</code>. It is
+	 * returned by the next call to {@link #isValid(IProgressMonitor)}.
+	 */
+	private RefactoringStatus fPrevalidatedStatus;
 
 	/**
 	 * Creates a new <code>TextFileChange</code> for the given file.
@@ -180,6 +185,12 @@ public class TextFileChange extends TextChange {
 			if (fValidationState == null)
 				throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), "TextFileChange has not been initialialized")); //$NON-NLS-1$
 
+			if (fPrevalidatedStatus != null) {
+				RefactoringStatus result= fPrevalidatedStatus;
+				fPrevalidatedStatus= null;
+				return result;
+			}
+
 			boolean needsSaving= needsSaving();
 			RefactoringStatus result= fValidationState.isValid(needsSaving);
 			if (needsSaving) {
@@ -194,6 +205,29 @@ public class TextFileChange extends TextChange {
 		}
 	}
 
+	/**
+	 * Validates the state of the buffer, but not whether the file can be modified.
+	 *
+	 * @return the status, or <code>null</code> if the validation state has not been initialized
+	 * @throws CoreException if the validation fails
+	 * @see BulkChangeValidator
+	 */
+	RefactoringStatus validateBufferState() throws CoreException {
+		if (fValidationState == null)
+			return null;
+		return fValidationState.isValid(needsSaving());
+	}
+
+	/**
+	 * Sets the status to be returned by the next call to {@link #isValid(IProgressMonitor)}.
+	 *
+	 * @param status the status, or <code>null</code> to validate normally
+	 * @see BulkChangeValidator
+	 */
+	void setPrevalidatedStatus(RefactoringStatus status) {
+		fPrevalidatedStatus= status;
+	}
+
 	@Override
 	public void dispose() {
 		if (fValidationState != null) {
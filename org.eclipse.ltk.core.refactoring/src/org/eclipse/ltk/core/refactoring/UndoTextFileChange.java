@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,7 @@ import org.eclipse.ltk.internal.core.refactoring.Changes;
 import org.eclipse.ltk.internal.core.refactoring.ContentStamps;
 import org.eclipse.ltk.internal.core.refactoring.Lock;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.UndoStore;
 
 /**
  * A change to perform the reverse change of a {@link TextFileChange}.
@@ -49,12 +50,16 @@ import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
  * The class should be subclassed by clients also subclassing <code>
  * TextFileChange</code> to provide a proper undo change object.
  * </p>
+ * <p>
+ * Large undo edits may be written to disk while the change is on the undo
+ * stack; they are read back when the change is performed.
+ * </p>
  * @since 3.0
  */
 public class UndoTextFileChange extends Change {
 
 	private String fName;
-	private UndoEdit fUndo;
+	private UndoStore.Entry fUndo;
 	private IFile fFile;
 	private ContentStamp fContentStampToRestore;
 	private int fSaveMode;
@@ -81,7 +86,7 @@ public class UndoTextFileChange extends Change {
 		Assert.isNotNull(undo);
 		fName= name;
 		fFile= file;
-		fUndo= undo;
+		fUndo= UndoStore.getDefault().store(undo);
 		fContentStampToRestore= stamp;
 		fSaveMode= saveMode;
 	}
@@ -267,18 +272,27 @@ public class UndoTextFileChange extends Change {
 	private UndoEdit doPerformEdits(IDocument document, boolean[] setContentStampSuccess) throws MalformedTreeException, BadLocationException, CoreException {
 		// perform the changes
 		LinkedModeModel.closeAllModels(document);
-		UndoEdit redo= fUndo.apply(document, TextEdit.CREATE_UNDO);
+		UndoEdit redo= fUndo.getEdit().apply(document, TextEdit.CREATE_UNDO);
 
 		// try to restore the document content stamp
 		setContentStampSuccess[0]= ContentStamps.set(document, fContentStampToRestore);
 		return redo;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		if (UndoStore.Entry.class.equals(adapter))
+			return (T) fUndo;
+		return super.getAdapter(adapter);
+	}
+
 	@Override
 	public void dispose() {
 		if (fValidationState != null) {
 			fValidationState.dispose();
 		}
+		fUndo.dispose();
 	}
 
 	private boolean needsSaving() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -57,6 +57,9 @@ public class CheckConditionsContext {
 
 	private Map<Class<? extends IConditionChecker>, IConditionChecker> fCheckers= new HashMap<>();
 
+	/** Guards the checkers while parallel participants run; <code>null</code> otherwise */
+	private volatile SharedStateLock fSharedStateLock;
+
 	/**
 	 * Returns the condition checker of the given type.
 	 *
@@ -66,6 +69,7 @@ public class CheckConditionsContext {
 	 *  no checker is registered for the given type
 	 */
 	public <T extends IConditionChecker> T getChecker(Class<T> clazz) {
+		acquireSharedState();
 		return clazz.cast(fCheckers.get(clazz));
 	}
 
@@ -79,6 +83,7 @@ public class CheckConditionsContext {
 	 *  exists
 	 */
 	public void add(IConditionChecker checker) throws CoreException {
+		acquireSharedState();
 		IConditionChecker old= fCheckers.put(checker.getClass(), checker);
 		if (old != null) {
 			fCheckers.put(checker.getClass(), old);
@@ -140,4 +145,14 @@ public class CheckConditionsContext {
 		IFile[] changedFiles= resourceChangeChecker.getChangedFiles();
 		validateEditChecker.addFiles(changedFiles);
 	}
+
+	void setSharedStateLock(SharedStateLock lock) {
+		fSharedStateLock= lock;
+	}
+
+	private void acquireSharedState() {
+		SharedStateLock lock= fSharedStateLock;
+		if (lock != null)
+			lock.acquire();
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,10 @@ import org.eclipse.core.expressions.EvaluationContext;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 
@@ -47,6 +50,7 @@ public class ParticipantExtensionPoint {
 	private List<ParticipantDescriptor> fParticipants;
 	private Class<?> fParticipantClass;
 	private String fPluginId;
+	private IRegistryEventListener fRegistryListener;
 
 	/**
 	 * Creates a {@link ParticipantExtensionPoint}.
@@ -78,12 +82,11 @@ public class ParticipantExtensionPoint {
 	 * @return an array of participants
 	 */
 	public RefactoringParticipant[] getParticipants(RefactoringStatus status, RefactoringProcessor processor, Object element, RefactoringArguments arguments, IParticipantDescriptorFilter filter, String[] affectedNatures, SharableParticipants shared) {
-		if (fParticipants == null)
-			init();
+		List<ParticipantDescriptor> participants= getDescriptors();
 
 		EvaluationContext evalContext= createEvaluationContext(processor, element, affectedNatures);
 		List<RefactoringParticipant> result= new ArrayList<>();
-		for (Iterator<ParticipantDescriptor> iter= fParticipants.iterator(); iter.hasNext();) {
+		for (Iterator<ParticipantDescriptor> iter= participants.iterator(); iter.hasNext();) {
 			ParticipantDescriptor descriptor= iter.next();
 			if (!descriptor.isEnabled()) {
 				iter.remove();
@@ -137,10 +140,43 @@ public class ParticipantExtensionPoint {
 		RefactoringCorePlugin.logRemovedParticipant(descriptor, e);
 	}
 
-	private void init() {
+	/*
+	 * Returns the descriptors of the contributed participants. The descriptors cache the
+	 * results of their enablement expressions, and are discarded when the contributions
+	 * to the extension point change. The registry listener is only registered while
+	 * descriptors are cached.
+	 */
+	private synchronized List<ParticipantDescriptor> getDescriptors() {
+		if (fParticipants == null)
+			fParticipants= init();
+		return fParticipants;
+	}
+
+	private List<ParticipantDescriptor> init() {
+		if (fRegistryListener == null) {
+			fRegistryListener= new IRegistryEventListener() {
+				@Override
+				public void added(IExtension[] extensions) {
+					reset();
+				}
+				@Override
+				public void removed(IExtension[] extensions) {
+					reset();
+				}
+				@Override
+				public void added(IExtensionPoint[] extensionPoints) {
+					reset();
+				}
+				@Override
+				public void removed(IExtensionPoint[] extensionPoints) {
+					reset();
+				}
+			};
+			RefactoringCorePlugin.addRegistryListener(fRegistryListener, fPluginId + '.' + fParticipantID);
+		}
 		IExtensionRegistry registry= Platform.getExtensionRegistry();
 		IConfigurationElement[] ces= registry.getConfigurationElementsFor(fPluginId, fParticipantID);
-		fParticipants= new ArrayList<>(ces.length);
+		List<ParticipantDescriptor> participants= new ArrayList<>(ces.length);
 		for (int i= 0; i < ces.length; i++) {
 			ParticipantDescriptor descriptor= new ParticipantDescriptor(ces[i]);
 			IStatus status= descriptor.checkSyntax();
@@ -151,12 +187,21 @@ public class ParticipantExtensionPoint {
 				case IStatus.WARNING:
 				case IStatus.INFO:
 					RefactoringCorePlugin.log(status);
-					fParticipants.add(descriptor);
+					participants.add(descriptor);
 					break;
 				default:
-					fParticipants.add(descriptor);
+					participants.add(descriptor);
 			}
 		}
+		return participants;
+	}
+
+	private synchronized void reset() {
+		fParticipants= null;
+		if (fRegistryListener != null) {
+			RefactoringCorePlugin.removeRegistryListener(fRegistryListener);
+			fRegistryListener= null;
+		}
 	}
 
 	//---- Helper methods ------------------------------------------------------------------
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -27,6 +32,9 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -53,6 +61,17 @@ import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
  * <p>Since 3.4, this class is non abstract and can be instantiated. {@link #getProcessor()} will
  * return the processor passed in {@link #ProcessorBasedRefactoring(RefactoringProcessor)} or
  * the processor set by {@link #setProcessor(RefactoringProcessor)}.
+ * <p>
+ * Participants taking a long time to check their conditions are reported
+ * with an info entry in the status of the final condition check. Participants
+ * declared with <code>parallel="true"</code> check their conditions and create
+ * their changes at the same time, before the other participants. They only see
+ * the changes created by the processor through {@link #getTextChange(Object)}.
+ * A parallel participant that accesses the text changes or the condition
+ * checkers of the {@link CheckConditionsContext} holds exclusive access to
+ * them until it is done, so other parallel participants doing the same wait
+ * for it.
+ * </p>
  *
  * @since 3.0
  */
@@ -61,6 +80,12 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	private static final String PERF_CHECK_CONDITIONS= "org.eclipse.ltk.core.refactoring/perf/participants/checkConditions"; //$NON-NLS-1$
 	private static final String PERF_CREATE_CHANGES= "org.eclipse.ltk.core.refactoring/perf/participants/createChanges"; //$NON-NLS-1$
 
+	/** Participants taking longer than this many milliseconds are reported */
+	private static final long SLOW_PARTICIPANT_TIME= 2000;
+
+	/** The maximum number of participants running at the same time in parallel mode */
+	private static final int MAX_PARALLEL_PARTICIPANTS= Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	private RefactoringProcessor fProcessor;
 
 	private List<RefactoringParticipant> fParticipants;
@@ -69,6 +94,9 @@ public class ProcessorBasedRefactoring extends Refactoring {
 
 	private Map<Object, TextChange> fTextChangeMap;
 
+	/** Guards the text changes while parallel participants run; <code>null</code> otherwise */
+	private volatile SharedStateLock fSharedStateLock;
+
 	private static final List<RefactoringParticipant> EMPTY_PARTICIPANTS= Collections.emptyList();
 
 	private static class ProcessorChange extends CompositeChange {
@@ -244,27 +272,26 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		IProgressMonitor sm= new SubProgressMonitor(pm, 2);
 
 		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
+		Map<RefactoringParticipant, ParticipantResult> parallelResults= checkParallelParticipants(context, sm);
 		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
 
 			RefactoringParticipant participant= iter.next();
 
-			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
-			stats.startRun();
+			ParticipantResult participantResult= parallelResults.get(participant);
+			if (participantResult == null)
+				participantResult= checkConditions(participant, context, new SubProgressMonitor(sm, 1));
 
-			try {
-				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
-			} catch (OperationCanceledException e) {
-				throw e;
-			} catch (RuntimeException e) {
+			if (participantResult.fException != null) {
 				// remove the participant so that it will be ignored during change execution.
-				RefactoringCorePlugin.log(e);
+				RefactoringCorePlugin.log(participantResult.fException);
 				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
 					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
 					participant.getName())));
 				iter.remove();
+			} else {
+				result.merge(participantResult.fStatus);
 			}
-
-			stats.endRun();
+			checkSlowParticipant(participant, participantResult.fTime, result);
 
 			if (sm.isCanceled())
 				throw new OperationCanceledException();
@@ -295,17 +322,20 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		List<Change> changes= new ArrayList<>();
 		List<Change> preChanges= new ArrayList<>();
 		Map<Change, RefactoringParticipant> participantMap= new HashMap<>();
+		Map<RefactoringParticipant, ParticipantResult> parallelResults= createParallelParticipantChanges(pm);
 		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext();) {
 			final RefactoringParticipant participant= iter.next();
 
 			try {
-				final PerformanceStats stats= PerformanceStats.getStats(PERF_CREATE_CHANGES, getName() + ", " + participant.getName()); //$NON-NLS-1$
-				stats.startRun();
-
-				Change preChange= participant.createPreChange(new SubProgressMonitor(pm, 1));
-				Change change= participant.createChange(new SubProgressMonitor(pm, 1));
-
-				stats.endRun();
+				ParticipantResult participantResult= parallelResults.get(participant);
+				if (participantResult == null)
+					participantResult= createChanges(participant, pm);
+				if (participantResult.fException instanceof CoreException)
+					throw (CoreException) participantResult.fException;
+				if (participantResult.fException != null)
+					throw (RuntimeException) participantResult.fException;
+				Change preChange= participantResult.fPreChange;
+				Change change= participantResult.fChange;
 
 				if (preChange != null) {
 					if (fPreChangeParticipants == null)
@@ -367,6 +397,9 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	 * @since 3.1
 	 */
 	public TextChange getTextChange(Object element) {
+		SharedStateLock lock= fSharedStateLock;
+		if (lock != null)
+			lock.acquire();
 		if (fTextChangeMap == null)
 			return null;
 		return fTextChangeMap.get(element);
@@ -418,6 +451,248 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	}
 
 
+	//---- Participants ------------------------------------------------------------------------
+
+	/**
+	 * The outcome of checking the conditions or creating the changes of a participant.
+	 */
+	private static class ParticipantResult {
+		RefactoringStatus fStatus;
+		Change fPreChange;
+		Change fChange;
+		Exception fException;
+		long fTime;
+	}
+
+	/**
+	 * Progress monitor for participants running on a worker thread. It only forwards
+	 * cancellation, since progress monitors must not be used from several threads.
+	 */
+	private static class WorkerProgressMonitor extends NullProgressMonitor {
+		private final IProgressMonitor fMonitor;
+
+		WorkerProgressMonitor(IProgressMonitor monitor) {
+			fMonitor= monitor;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || fMonitor.isCanceled();
+		}
+	}
+
+	private ParticipantResult checkConditions(RefactoringParticipant participant, CheckConditionsContext context, IProgressMonitor pm) {
+		ParticipantResult participantResult= new ParticipantResult();
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+		stats.startRun();
+		long start= System.currentTimeMillis();
+		try {
+			participantResult.fStatus= participant.checkConditions(pm, context);
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			participantResult.fException= e;
+		}
+		participantResult.fTime= System.currentTimeMillis() - start;
+		stats.endRun();
+		return participantResult;
+	}
+
+	private ParticipantResult createChanges(RefactoringParticipant participant, IProgressMonitor pm) {
+		ParticipantResult participantResult= new ParticipantResult();
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_CREATE_CHANGES, getName() + ", " + participant.getName()); //$NON-NLS-1$
+		stats.startRun();
+		long start= System.currentTimeMillis();
+		try {
+			participantResult.fPreChange= participant.createPreChange(new SubProgressMonitor(pm, 1));
+			participantResult.fChange= participant.createChange(new SubProgressMonitor(pm, 1));
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (CoreException e) {
+			participantResult.fException= e;
+		} catch (RuntimeException e) {
+			participantResult.fException= e;
+		}
+		participantResult.fTime= System.currentTimeMillis() - start;
+		stats.endRun();
+		logSlowParticipant(participant, participantResult.fTime);
+		return participantResult;
+	}
+
+	private List<RefactoringParticipant> getParallelParticipants() {
+		List<RefactoringParticipant> result= new ArrayList<>();
+		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext();) {
+			RefactoringParticipant participant= iter.next();
+			ParticipantDescriptor descriptor= participant.getDescriptor();
+			if (descriptor != null && descriptor.isParallel())
+				result.add(participant);
+		}
+		return result;
+	}
+
+	private Map<RefactoringParticipant, ParticipantResult> checkParallelParticipants(final CheckConditionsContext context, IProgressMonitor pm) {
+		List<RefactoringParticipant> participants= getParallelParticipants();
+		if (participants.size() < 2)
+			return Collections.emptyMap();
+		final IProgressMonitor monitor= new WorkerProgressMonitor(pm);
+		List<Callable<ParticipantResult>> tasks= new ArrayList<>(participants.size());
+		for (Iterator<RefactoringParticipant> iter= participants.iterator(); iter.hasNext();) {
+			final RefactoringParticipant participant= iter.next();
+			tasks.add(new Callable<ParticipantResult>() {
+				@Override
+				public ParticipantResult call() {
+					return checkConditions(participant, context, monitor);
+				}
+			});
+		}
+		return runInParallel(participants, tasks, context, pm);
+	}
+
+	private Map<RefactoringParticipant, ParticipantResult> createParallelParticipantChanges(IProgressMonitor pm) {
+		List<RefactoringParticipant> participants= getParallelParticipants();
+		if (participants.size() < 2)
+			return Collections.emptyMap();
+		final IProgressMonitor monitor= new WorkerProgressMonitor(pm);
+		List<Callable<ParticipantResult>> tasks= new ArrayList<>(participants.size());
+		for (Iterator<RefactoringParticipant> iter= participants.iterator(); iter.hasNext();) {
+			final RefactoringParticipant participant= iter.next();
+			tasks.add(new Callable<ParticipantResult>() {
+				@Override
+				public ParticipantResult call() {
+					return createChanges(participant, monitor);
+				}
+			});
+		}
+		return runInParallel(participants, tasks, null, pm);
+	}
+
+	/*
+	 * Runs the tasks in worker jobs with bounded parallelism and reports one unit of work per
+	 * task. While the tasks run, their access to the text changes and to the condition checkers
+	 * of the context is serialized. If the monitor gets canceled, no further tasks are started,
+	 * and the shared state is only released after the running tasks have finished.
+	 */
+	private Map<RefactoringParticipant, ParticipantResult> runInParallel(List<RefactoringParticipant> participants, final List<Callable<ParticipantResult>> tasks, CheckConditionsContext context, IProgressMonitor pm) {
+		final SharedStateLock lock= new SharedStateLock();
+		fSharedStateLock= lock;
+		if (context != null)
+			context.setSharedStateLock(lock);
+
+		final ParticipantResult[] results= new ParticipantResult[tasks.size()];
+		final Throwable[] failures= new Throwable[tasks.size()];
+		final AtomicInteger nextTask= new AtomicInteger();
+		final AtomicInteger finishedTasks= new AtomicInteger();
+		final AtomicBoolean canceled= new AtomicBoolean();
+		int workerCount= Math.min(tasks.size(), MAX_PARALLEL_PARTICIPANTS);
+		final CountDownLatch workersDone= new CountDownLatch(workerCount);
+		try {
+			for (int i= 0; i < workerCount; i++) {
+				Job worker= new Job(getName()) {
+					@Override
+					protected IStatus run(IProgressMonitor monitor) {
+						int index;
+						while (!canceled.get() && (index= nextTask.getAndIncrement()) < tasks.size()) {
+							lock.beginWorker();
+							try {
+								results[index]= tasks.get(index).call();
+							} catch (OperationCanceledException e) {
+								canceled.set(true);
+							} catch (Throwable e) {
+								failures[index]= e;
+							} finally {
+								lock.endWorker();
+								finishedTasks.incrementAndGet();
+							}
+						}
+						return Status.OK_STATUS;
+					}
+				};
+				worker.setSystem(true);
+				// also called if the job is canceled before it runs
+				worker.addJobChangeListener(new JobChangeAdapter() {
+					@Override
+					public void done(IJobChangeEvent event) {
+						workersDone.countDown();
+					}
+				});
+				worker.schedule();
+			}
+
+			int reported= 0;
+			try {
+				while (!workersDone.await(100, TimeUnit.MILLISECONDS)) {
+					if (pm.isCanceled())
+						canceled.set(true);
+					reported= reportFinishedTasks(finishedTasks, reported, pm);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				canceled.set(true);
+			}
+			reportFinishedTasks(finishedTasks, reported, pm);
+		} finally {
+			// participants ignoring cancellation may still access the shared state
+			awaitUninterruptibly(workersDone);
+			fSharedStateLock= null;
+			if (context != null)
+				context.setSharedStateLock(null);
+		}
+
+		if (canceled.get() || pm.isCanceled())
+			throw new OperationCanceledException();
+		Map<RefactoringParticipant, ParticipantResult> result= new HashMap<>();
+		for (int i= 0; i < tasks.size(); i++) {
+			Throwable failure= failures[i];
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+			if (failure != null)
+				throw new IllegalStateException(failure);
+			if (results[i] == null) // the worker job was canceled before running the task
+				throw new OperationCanceledException();
+			result.put(participants.get(i), results[i]);
+		}
+		return result;
+	}
+
+	private static int reportFinishedTasks(AtomicInteger finishedTasks, int reported, IProgressMonitor pm) {
+		int finished= finishedTasks.get();
+		if (finished > reported)
+			pm.worked(finished - reported);
+		return finished;
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted= false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted= true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private static void checkSlowParticipant(RefactoringParticipant participant, long time, RefactoringStatus result) {
+		if (time >= SLOW_PARTICIPANT_TIME) {
+			result.addInfo(Messages.format(
+				RefactoringCoreMessages.ProcessorBasedRefactoring_slow_check_conditions,
+				new Object[] { participant.getName(), Long.valueOf(time) }));
+		}
+	}
+
+	private static void logSlowParticipant(RefactoringParticipant participant, long time) {
+		if (time >= SLOW_PARTICIPANT_TIME) {
+			RefactoringCorePlugin.log(new Status(IStatus.INFO, RefactoringCorePlugin.getPluginId(), Messages.format(
+				RefactoringCoreMessages.ProcessorBasedRefactoring_slow_create_change,
+				new Object[] { participant.getName(), Long.valueOf(time) })));
+		}
+	}
+
 	private static void disableParticipant(final RefactoringParticipant participant, Throwable e) {
 		ParticipantDescriptor descriptor= participant.getDescriptor();
 		descriptor.disable();
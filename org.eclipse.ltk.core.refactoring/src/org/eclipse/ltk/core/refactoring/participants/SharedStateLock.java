@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.participants;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the access of participants running in parallel to the state they share: the text
+ * changes returned by {@link ProcessorBasedRefactoring#getTextChange(Object)} and the condition
+ * checkers of the {@link CheckConditionsContext}.
+ * <p>
+ * Participants modify these objects directly, so access cannot be guarded per call. Instead, a
+ * participant acquires the lock the first time it accesses shared state and keeps it until it is
+ * done. Threads not started by {@link ProcessorBasedRefactoring} are not affected.
+ * </p>
+ */
+final class SharedStateLock {
+
+	private final ReentrantLock fLock= new ReentrantLock();
+
+	private final ThreadLocal<Boolean> fWorker= new ThreadLocal<>();
+
+	/**
+	 * Marks the current thread as a thread running a participant.
+	 */
+	void beginWorker() {
+		fWorker.set(Boolean.TRUE);
+	}
+
+	/**
+	 * Releases the lock if the current thread holds it.
+	 */
+	void endWorker() {
+		fWorker.remove();
+		if (fLock.isHeldByCurrentThread())
+			fLock.unlock();
+	}
+
+	/**
+	 * Called before shared state is accessed. Waits until no other participant holds the lock.
+	 */
+	void acquire() {
+		if (fWorker.get() != null && !fLock.isHeldByCurrentThread())
+			fLock.lock();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,16 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -71,6 +79,11 @@ public abstract class BufferValidationState {
 	public static BufferValidationState create(IFile file) {
 		ITextFileBuffer buffer= getBuffer(file);
 		if (buffer == null) {
+			if (isContentHashValidation()) {
+				ContentHashValidationState state= ContentHashValidationState.create(file);
+				if (state != null)
+					return state;
+			}
 			return new ModificationStampValidationState(file);
 		} else {
 			IDocument document= buffer.getDocument();
@@ -86,6 +99,10 @@ public abstract class BufferValidationState {
 		}
 	}
 
+	private static boolean isContentHashValidation() {
+		return Platform.getPreferencesService().getBoolean(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_CONTENT_HASH_VALIDATION, false, null);
+	}
+
 	public boolean wasDirty() {
 		return fWasDirty;
 	}
@@ -356,6 +373,95 @@ class ModificationStampValidationState extends BufferValidationState {
 	}
 }
 
+/**
+ * Buffer validation state for files without a connected file buffer, based on a hash of the file
+ * content. As long as the modification stamp of the file is unchanged, validation does not read
+ * the file. If the stamp changed, the file is valid if its content is still the same, e.g. because
+ * it has been rewritten by a build with identical content. The hash is a SHA-256 digest, so that
+ * different content is never mistaken for the original one.
+ */
+class ContentHashValidationState extends BufferValidationState {
+
+	/** Size of the buffer used to read the file */
+	private static final int BUFFER_SIZE= 64 * 1024;
+
+	private static final String DIGEST_ALGORITHM= "SHA-256"; //$NON-NLS-1$
+
+	private final long fModificationStamp;
+	private final long fLength;
+	private final byte[] fHash;
+
+	public static ContentHashValidationState create(IFile file) {
+		IPath location= file.getLocation();
+		if (location == null)
+			return null;
+		long stamp= file.getModificationStamp();
+		File localFile= location.toFile();
+		long length= localFile.length();
+		byte[] hash;
+		try {
+			hash= computeHash(localFile);
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+		if (stamp != file.getModificationStamp())
+			return null;
+		return new ContentHashValidationState(file, stamp, length, hash);
+	}
+
+	private ContentHashValidationState(IFile file, long stamp, long length, byte[] hash) {
+		super(file);
+		fModificationStamp= stamp;
+		fLength= length;
+		fHash= hash;
+	}
+
+	@Override
+	public RefactoringStatus isValid(boolean needsSaving, boolean resilientForDerived) throws CoreException {
+		RefactoringStatus result= super.isValid(needsSaving, resilientForDerived);
+		if (result.hasFatalError())
+			return result;
+		if (isDirty(fFile) || !hasSameContent()) {
+			result.addFatalError(Messages.format(
+				RefactoringCoreMessages.TextChanges_error_content_changed,
+				BasicElementLabels.getPathLabel(fFile.getFullPath(), false)
+				));
+		}
+		return result;
+	}
+
+	private boolean hasSameContent() {
+		if (fModificationStamp != IResource.NULL_STAMP && fModificationStamp == fFile.getModificationStamp())
+			return true;
+		IPath location= fFile.getLocation();
+		if (location == null)
+			return false;
+		File localFile= location.toFile();
+		if (localFile.length() != fLength)
+			return false;
+		try {
+			return MessageDigest.isEqual(computeHash(localFile), fHash);
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * The file is read through a stream rather than mapped, since a mapping keeps the file
+	 * locked on some platforms until it is garbage collected, and the change saves the file.
+	 */
+	private static byte[] computeHash(File file) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest= MessageDigest.getInstance(DIGEST_ALGORITHM);
+		try (InputStream in= new FileInputStream(file)) {
+			byte[] buffer= new byte[BUFFER_SIZE];
+			int count;
+			while ((count= in.read(buffer)) != -1)
+				digest.update(buffer, 0, count);
+		}
+		return digest.digest();
+	}
+}
+
 /*
 class SavedBufferValidationState extends BufferValidationState {
 	private long fModificationStamp;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
@@ -30,11 +35,22 @@ public class ParticipantDescriptor {
 
 	private IConfigurationElement fConfigurationElement;
 	private boolean fEnabled;
+	/** The enablement expression, or <code>null</code> if not yet converted */
+	private Expression fExpression;
+	/** Whether enablement results can be cached per processor, natures and element class */
+	private boolean fTypeDeterminate;
+	private final Map<String, Boolean> fResults= new ConcurrentHashMap<>();
 
 	private static final String ID= "id"; //$NON-NLS-1$
 	private static final String NAME= "name";  //$NON-NLS-1$
 	private static final String CLASS= "class"; //$NON-NLS-1$
 	private static final String PROCESS_ON_CANCEL= "processOnCancel";  //$NON-NLS-1$
+	private static final String PARALLEL= "parallel";  //$NON-NLS-1$
+
+	private static final String VARIABLE= "variable"; //$NON-NLS-1$
+	private static final String ELEMENT= "element"; //$NON-NLS-1$
+	private static final String AFFECTED_NATURES= "affectedNatures"; //$NON-NLS-1$
+	private static final String PROCESSOR_IDENTIFIER= "processorIdentifier"; //$NON-NLS-1$
 
 	public ParticipantDescriptor(IConfigurationElement element) {
 		fConfigurationElement= element;
@@ -68,12 +84,15 @@ public class ParticipantDescriptor {
 	}
 
 	public boolean matches(IEvaluationContext context, IParticipantDescriptorFilter filter, RefactoringStatus status) throws CoreException {
-		IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
-		if (elements.length == 0)
-			return false;
-		Assert.isTrue(elements.length == 1);
-		Expression exp= ExpressionConverter.getDefault().perform(elements[0]);
-		if (!convert(exp.evaluate(context)))
+		if (fExpression == null) {
+			IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
+			if (elements.length == 0)
+				return false;
+			Assert.isTrue(elements.length == 1);
+			fExpression= ExpressionConverter.getDefault().perform(elements[0]);
+			fTypeDeterminate= isTypeDeterminate(elements[0], false);
+		}
+		if (!isEnabled(context))
 			return false;
 		if (filter != null && !filter.select(fConfigurationElement, status))
 			return false;
@@ -81,6 +100,74 @@ public class ParticipantDescriptor {
 		return true;
 	}
 
+	private boolean isEnabled(IEvaluationContext context) throws CoreException {
+		String key= fTypeDeterminate ? getResultKey(context) : null;
+		if (key == null)
+			return convert(fExpression.evaluate(context));
+		Boolean result= fResults.get(key);
+		if (result == null) {
+			result= Boolean.valueOf(convert(fExpression.evaluate(context)));
+			fResults.put(key, result);
+		}
+		return result.booleanValue();
+	}
+
+	/*
+	 * Returns the key for the cached result of the enablement expression, or null if the
+	 * result must not be cached.
+	 */
+	private static String getResultKey(IEvaluationContext context) {
+		Object element= context.getDefaultVariable();
+		if (element == null || element instanceof String || element instanceof Number || element instanceof Boolean)
+			return null;
+		StringBuffer key= new StringBuffer();
+		key.append(context.getVariable(PROCESSOR_IDENTIFIER)).append('\n');
+		key.append(element.getClass().getName()).append('\n');
+		Object natures= context.getVariable(AFFECTED_NATURES);
+		if (natures instanceof Collection) {
+			for (Iterator<?> iter= ((Collection<?>) natures).iterator(); iter.hasNext();)
+				key.append(iter.next()).append(',');
+		}
+		return key.toString();
+	}
+
+	/*
+	 * Tells whether the result of the expression only depends on the processor, the
+	 * affected natures and the class of the element. valueInKey tells whether the value of
+	 * the current default variable is part of the result key, which is the case for the
+	 * processor identifier and the affected natures, but not for the element.
+	 */
+	private static boolean isTypeDeterminate(IConfigurationElement expression, boolean valueInKey) {
+		String name= expression.getName();
+		if (ExpressionTagNames.WITH.equals(name)) {
+			String variable= expression.getAttribute(VARIABLE);
+			if (ELEMENT.equals(variable))
+				valueInKey= false;
+			else if (AFFECTED_NATURES.equals(variable) || PROCESSOR_IDENTIFIER.equals(variable))
+				valueInKey= true;
+			else
+				return false;
+		} else if (ExpressionTagNames.EQUALS.equals(name)
+				|| ExpressionTagNames.ITERATE.equals(name)
+				|| ExpressionTagNames.COUNT.equals(name)) {
+			// depend on the value of the variable, not only on its class
+			if (!valueInKey)
+				return false;
+		} else if (!ExpressionTagNames.ENABLEMENT.equals(name)
+				&& !ExpressionTagNames.AND.equals(name)
+				&& !ExpressionTagNames.OR.equals(name)
+				&& !ExpressionTagNames.NOT.equals(name)
+				&& !ExpressionTagNames.INSTANCEOF.equals(name)) {
+			return false;
+		}
+		IConfigurationElement[] children= expression.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!isTypeDeterminate(children[i], valueInKey))
+				return false;
+		}
+		return true;
+	}
+
 	public RefactoringParticipant createParticipant() throws CoreException {
 		return (RefactoringParticipant)fConfigurationElement.createExecutableExtension(CLASS);
 	}
@@ -100,6 +187,19 @@ public class ParticipantDescriptor {
 		return Boolean.valueOf(attr).booleanValue();
 	}
 
+	/**
+	 * Tells whether the participant may check its conditions and create its changes at the same
+	 * time as other participants.
+	 *
+	 * @return <code>true</code> if the participant runs in parallel
+	 */
+	public boolean isParallel() {
+		String attr= fConfigurationElement.getAttribute(PARALLEL);
+		if (attr == null)
+			return false;
+		return Boolean.valueOf(attr).booleanValue();
+	}
+
 	private boolean convert(EvaluationResult eval) {
 		if (eval == EvaluationResult.FALSE)
 			return false;
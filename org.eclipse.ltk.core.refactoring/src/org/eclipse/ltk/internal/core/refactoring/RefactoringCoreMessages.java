@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -140,6 +140,10 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String ProcessorBasedRefactoring_prechange_participants_removed;
 
+	public static String ProcessorBasedRefactoring_slow_check_conditions;
+
+	public static String ProcessorBasedRefactoring_slow_create_change;
+
 	public static String Refactoring_execute_label;
 
 	public static String RenameResourceChange_name;
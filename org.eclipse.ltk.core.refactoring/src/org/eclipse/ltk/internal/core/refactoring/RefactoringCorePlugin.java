@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.osgi.framework.BundleContext;
 
 import org.eclipse.core.commands.operations.IOperationHistory;
@@ -19,7 +22,9 @@ import org.eclipse.core.commands.operations.IUndoContext;
 import org.eclipse.core.commands.operations.ObjectUndoContext;
 import org.eclipse.core.commands.operations.OperationHistoryFactory;
 
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 
@@ -40,6 +45,9 @@ public class RefactoringCorePlugin extends Plugin {
 
 	private static IUndoContext fRefactoringUndoContext;
 
+	/** The registry listeners to remove when the plug-in stops */
+	private static final List<IRegistryEventListener> fgRegistryListeners= new ArrayList<>();
+
 	private IRefactoringHistoryListener fRefactoringHistoryListener= null;
 
 	public RefactoringCorePlugin() {
@@ -104,6 +112,32 @@ public class RefactoringCorePlugin extends Plugin {
 		log(new Status(IStatus.ERROR, getPluginId(), IRefactoringCoreStatusCodes.INTERNAL_ERROR, message, null));
 	}
 
+	/**
+	 * Adds a listener to changes of the extensions of an extension point. The listener is
+	 * removed when this plug-in stops, unless it has been removed before.
+	 *
+	 * @param listener the listener
+	 * @param extensionPointId the unique identifier of the extension point
+	 */
+	public static void addRegistryListener(IRegistryEventListener listener, String extensionPointId) {
+		synchronized (fgRegistryListeners) {
+			fgRegistryListeners.add(listener);
+		}
+		Platform.getExtensionRegistry().addListener(listener, extensionPointId);
+	}
+
+	/**
+	 * Removes a listener added with {@link #addRegistryListener(IRegistryEventListener, String)}.
+	 *
+	 * @param listener the listener
+	 */
+	public static void removeRegistryListener(IRegistryEventListener listener) {
+		synchronized (fgRegistryListeners) {
+			fgRegistryListeners.remove(listener);
+		}
+		Platform.getExtensionRegistry().removeListener(listener);
+	}
+
 	public static IUndoManager getUndoManager() {
 		if (fgUndoManager == null)
 			fgUndoManager= createUndoManager();
@@ -130,11 +164,19 @@ public class RefactoringCorePlugin extends Plugin {
 		}
 		if (fgUndoManager != null)
 			fgUndoManager.shutdown();
+		UndoStore.shutdown();
 		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
 		service.disconnect();
 		if (fRefactoringHistoryListener != null)
 			service.removeHistoryListener(fRefactoringHistoryListener);
 		RefactoringContributionManager.getInstance().disconnect();
+		IRegistryEventListener[] listeners;
+		synchronized (fgRegistryListeners) {
+			listeners= fgRegistryListeners.toArray(new IRegistryEventListener[fgRegistryListeners.size()]);
+			fgRegistryListeners.clear();
+		}
+		for (int i= 0; i < listeners.length; i++)
+			Platform.getExtensionRegistry().removeListener(listeners[i]);
 		super.stop(context);
 	}
 
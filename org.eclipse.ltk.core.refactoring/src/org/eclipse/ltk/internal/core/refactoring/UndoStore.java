@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+/**
+ * Storage for the undo edits of {@link org.eclipse.ltk.core.refactoring.UndoTextFileChange}s.
+ * <p>
+ * Undo edits hold the text replaced by a change, so the undo change of a large refactoring can
+ * retain a lot of memory until the undo history is flushed. Once the undo edits kept in memory
+ * exceed a limit, further undo edits are written to a compressed file in the plug-in's state
+ * location and read back when the undo change is performed.
+ * </p>
+ */
+public class UndoStore {
+
+	/**
+	 * An undo edit kept by the store, either in memory or on disk.
+	 */
+	public final class Entry {
+		private UndoEdit fEdit;
+		private File fFile;
+		private final long fMemorySize;
+		private long fDiskSize;
+
+		private Entry(UndoEdit edit, long memorySize) {
+			fEdit= edit;
+			fMemorySize= memorySize;
+		}
+
+		private Entry(File file, long memorySize) {
+			fFile= file;
+			fMemorySize= memorySize;
+			fDiskSize= file.length();
+		}
+
+		/**
+		 * Returns the edit to apply to undo the change. This is either the stored undo edit, or
+		 * an equivalent edit read back from disk.
+		 *
+		 * @return the edit
+		 * @throws CoreException if the edit cannot be read
+		 */
+		public TextEdit getEdit() throws CoreException {
+			if (fEdit != null)
+				return fEdit;
+			if (fFile == null)
+				throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), "Undo edit has been disposed")); //$NON-NLS-1$
+			try {
+				return read(fFile);
+			} catch (IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), e.getMessage(), e));
+			}
+		}
+
+		/**
+		 * Tells whether the undo edit has been written to disk.
+		 *
+		 * @return <code>true</code> if the edit is stored on disk
+		 */
+		public boolean isOnDisk() {
+			return fFile != null;
+		}
+
+		/**
+		 * Returns the estimated number of bytes the entry retains in memory.
+		 *
+		 * @return the memory size
+		 */
+		public long getMemorySize() {
+			return fEdit != null ? fMemorySize : ENTRY_SIZE;
+		}
+
+		/**
+		 * Returns the number of bytes the entry uses on disk.
+		 *
+		 * @return the disk size
+		 */
+		public long getDiskSize() {
+			return fDiskSize;
+		}
+
+		/**
+		 * Releases the undo edit and deletes its file.
+		 */
+		public void dispose() {
+			synchronized (UndoStore.this) {
+				if (fEdit != null)
+					fRetainedSize-= fMemorySize;
+			}
+			fEdit= null;
+			if (fFile != null) {
+				fFile.delete();
+				fFile= null;
+				fDiskSize= 0;
+			}
+		}
+	}
+
+	/** Estimated memory used by an edit or an entry object */
+	private static final int ENTRY_SIZE= 64;
+
+	/** Undo edits below this size are always kept in memory */
+	private static final long MIN_STORED_SIZE= 16 * 1024;
+
+	/** Undo edits are kept in memory until they retain this much */
+	private static final long MEMORY_LIMIT= 8 * 1024 * 1024;
+
+	private static UndoStore fgDefault;
+
+	private final File fDirectory;
+	private final long fMinStoredSize;
+	private final long fMemoryLimit;
+	private long fRetainedSize;
+
+	public static synchronized UndoStore getDefault() {
+		if (fgDefault == null) {
+			File directory= RefactoringCorePlugin.getDefault().getStateLocation().append(".undo").toFile(); //$NON-NLS-1$
+			deleteFiles(directory);
+			fgDefault= new UndoStore(directory, MIN_STORED_SIZE, MEMORY_LIMIT);
+		}
+		return fgDefault;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgDefault == null)
+			return;
+		deleteFiles(fgDefault.fDirectory);
+		fgDefault= null;
+	}
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param directory the directory for the files of the store
+	 * @param minStoredSize the size in bytes below which undo edits are kept in memory
+	 * @param memoryLimit the size in bytes up to which undo edits are kept in memory
+	 */
+	public UndoStore(File directory, long minStoredSize, long memoryLimit) {
+		fDirectory= directory;
+		fMinStoredSize= minStoredSize;
+		fMemoryLimit= memoryLimit;
+	}
+
+	/**
+	 * Stores an undo edit. The edit is written to disk if it is large and the undo edits in
+	 * memory exceed the memory limit, and if it only consists of replace edits.
+	 *
+	 * @param edit the undo edit
+	 * @return the entry
+	 */
+	public Entry store(UndoEdit edit) {
+		long size= getMemorySize(edit);
+		if (size >= fMinStoredSize) {
+			synchronized (this) {
+				if (fRetainedSize + size <= fMemoryLimit) {
+					fRetainedSize+= size;
+					return new Entry(edit, size);
+				}
+			}
+			File file= write(edit);
+			if (file != null)
+				return new Entry(file, size);
+		}
+		synchronized (this) {
+			fRetainedSize+= size;
+		}
+		return new Entry(edit, size);
+	}
+
+	/**
+	 * Returns the number of bytes the undo edits kept in memory retain.
+	 *
+	 * @return the memory size
+	 */
+	public synchronized long getRetainedSize() {
+		return fRetainedSize;
+	}
+
+	private static long getMemorySize(UndoEdit edit) {
+		long size= ENTRY_SIZE;
+		TextEdit[] children= edit.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			size+= ENTRY_SIZE;
+			if (children[i] instanceof ReplaceEdit)
+				size+= 2L * ((ReplaceEdit) children[i]).getText().length();
+		}
+		return size;
+	}
+
+	/*
+	 * Returns the file, or null if the edit cannot be stored. The text is written as UTF-16
+	 * chars rather than encoded, since it may contain unpaired surrogates.
+	 */
+	private File write(UndoEdit edit) {
+		ReplaceEdit[] children= toMultiTextEditChildren(edit);
+		if (children == null)
+			return null;
+
+		File file= null;
+		try {
+			fDirectory.mkdirs();
+			file= File.createTempFile("undo", ".bin", fDirectory); //$NON-NLS-1$ //$NON-NLS-2$
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(new FileOutputStream(file))))) {
+				out.writeInt(children.length);
+				for (int i= 0; i < children.length; i++) {
+					ReplaceEdit child= children[i];
+					String text= child.getText();
+					out.writeInt(child.getOffset());
+					out.writeInt(child.getLength());
+					out.writeInt(text.length());
+					out.writeChars(text);
+				}
+			}
+			return file;
+		} catch (IOException e) {
+			RefactoringCorePlugin.log(e);
+			if (file != null)
+				file.delete();
+			return null;
+		}
+	}
+
+	/*
+	 * The children of an undo edit are replayed one after the other, starting with the last
+	 * child, and each child's offset refers to the document as left by the children replayed
+	 * before it. Returns equivalent replace edits whose offsets all refer to the document the
+	 * undo edit is applied to, or null if the children cannot be expressed this way.
+	 */
+	private static ReplaceEdit[] toMultiTextEditChildren(UndoEdit edit) {
+		TextEdit[] children= edit.getChildren();
+		ReplaceEdit[] result= new ReplaceEdit[children.length];
+		MultiTextEdit check= new MultiTextEdit();
+		int delta= 0;
+		int end= 0;
+		try {
+			for (int i= children.length - 1, k= 0; i >= 0; i--, k++) {
+				if (!(children[i] instanceof ReplaceEdit) || children[i].hasChildren())
+					return null;
+				ReplaceEdit child= (ReplaceEdit) children[i];
+				// only children replayed from front to back don't move each other
+				if (child.getOffset() < end)
+					return null;
+				end= child.getOffset() + child.getText().length();
+				result[k]= new ReplaceEdit(child.getOffset() - delta, child.getLength(), child.getText());
+				check.addChild(new ReplaceEdit(result[k].getOffset(), result[k].getLength(), "")); //$NON-NLS-1$
+				delta+= child.getText().length() - child.getLength();
+			}
+		} catch (MalformedTreeException e) {
+			// the edit can only be replayed as an undo edit
+			return null;
+		}
+		return result;
+	}
+
+	private static TextEdit read(File file) throws IOException {
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new InflaterInputStream(new FileInputStream(file))))) {
+			int count= in.readInt();
+			MultiTextEdit result= new MultiTextEdit();
+			for (int i= 0; i < count; i++) {
+				int offset= in.readInt();
+				int length= in.readInt();
+				char[] text= new char[in.readInt()];
+				for (int k= 0; k < text.length; k++)
+					text[k]= in.readChar();
+				result.addChild(new ReplaceEdit(offset, length, new String(text)));
+			}
+			return result;
+		}
+	}
+
+	private static void deleteFiles(File directory) {
+		File[] files= directory.listFiles();
+		if (files == null)
+			return;
+		for (int i= 0; i < files.length; i++)
+			files[i].delete();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.ui.refactoring;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.jface.viewers.IStructuredContentProvider;
 import org.eclipse.jface.viewers.Viewer;
 
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
 
 public class RefactoringStatusContentProvider implements IStructuredContentProvider {
 
@@ -25,9 +29,23 @@ public class RefactoringStatusContentProvider implements IStructuredContentProvi
 		public void dispose() {
 		}
 
+		/*
+		 * Shows the repetitions of the entries of a compact status as well, each with its own context.
+		 */
 		@Override
 		public Object[] getElements(Object obj) {
-			return ((RefactoringStatus)obj).getEntries();
+			RefactoringStatus status= (RefactoringStatus)obj;
+			RefactoringStatusEntry[] entries= status.getEntries();
+			if (!status.isCompact())
+				return entries;
+			List<RefactoringStatusEntry> result= new ArrayList<>(entries.length);
+			for (int i= 0; i < entries.length; i++) {
+				result.add(entries[i]);
+				RefactoringStatusEntry[] repeated= status.getRepeatedEntries(entries[i]);
+				for (int j= 0; j < repeated.length; j++)
+					result.add(repeated[j]);
+			}
+			return result.toArray();
 		}
 }
 
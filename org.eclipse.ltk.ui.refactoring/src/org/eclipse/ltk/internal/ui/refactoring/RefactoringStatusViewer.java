@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -84,9 +84,9 @@ public class RefactoringStatusViewer extends SashForm {
 		public void update() {
 			boolean enabled= false;
 			if (fStatus != null && fStatus.hasEntries()) {
-				RefactoringStatusEntry[] entries= fStatus.getEntries();
-				int index= fTableViewer.getTable().getSelectionIndex();
-				enabled= index == -1 || index < entries.length - 1;
+				Table table= fTableViewer.getTable();
+				int index= table.getSelectionIndex();
+				enabled= index == -1 || index < table.getItemCount() - 1;
 			}
 			setEnabled(enabled);
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -594,7 +594,8 @@ public abstract class RefactoringWizard extends Wizard {
 	 * @param status the final condition checking status to set
 	 */
 	private void setFinalConditionCheckingStatus(RefactoringStatus status) {
-		RefactoringStatus newStatus= new RefactoringStatus();
+		// the status is only shown, so repeated entries are stored compactly
+		RefactoringStatus newStatus= RefactoringStatus.createCompactStatus();
 		if (fInitialConditionCheckingStatus != null)
 			newStatus.merge(fInitialConditionCheckingStatus);
 		newStatus.merge(status);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -130,7 +130,6 @@ public abstract class UserInputWizardPage extends RefactoringWizardPage {
 		int threshold= RefactoringCore.getConditionCheckingFailedSeverity();
 		RefactoringStatus activationStatus= wizard.getInitialConditionCheckingStatus();
 		RefactoringStatus inputStatus= null;
-		RefactoringStatus status= new RefactoringStatus();
 		Refactoring refactoring= getRefactoring();
 
 		if (activationStatus != null && activationStatus.getSeverity() >= threshold) {
@@ -148,7 +147,7 @@ public abstract class UserInputWizardPage extends RefactoringWizardPage {
 				return true;
 			if (result.isInterrupted())
 				return false;
-			inputStatus= new RefactoringStatus();
+			inputStatus= RefactoringStatus.createCompactStatus();
 			inputStatus.merge(create.getConditionCheckingStatus());
 			RefactoringStatus validationStatus= perform.getValidationStatus();
 			// only merge this in if we have a fatal error. In all other cases
@@ -157,6 +156,8 @@ public abstract class UserInputWizardPage extends RefactoringWizardPage {
 				inputStatus.merge(perform.getValidationStatus());
 		}
 
+		// the status is only shown, so repeated entries are stored compactly
+		RefactoringStatus status= RefactoringStatus.createCompactStatus();
 		status.merge(activationStatus);
 		status.merge(inputStatus);
 